@@ -0,0 +1,46 @@
+package com.example.bankdb.security;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// RateLimitFilter-in her sorguya elave etdiyi yoxlamanin qiymeti (hedef: 1 mikrosaniyeden az).
+// hotKeys: movcud bucket-ler arasinda paylanmis sorgular; distinctKeysAtCapacity: dolu xeritede her sorgu
+// yeni acarla gelir ve kohne bucket-lerden biri cixarilir (acar setirinin qurulmasi da olcuye daxildir).
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TokenBucketRateLimiterBenchmark {
+
+    private static final int KEYS = 100_000;
+
+    private TokenBucketRateLimiter limiter;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        // Limit benchmark zamani dolmasin deye boyuk tutulur
+        limiter = new TokenBucketRateLimiter(1_000_000, 60_000_000, KEYS);
+        keys = new String[KEYS];
+        long now = System.nanoTime();
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "user:" + i;
+            limiter.tryAcquire(keys[i], now);
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long hotKeys() {
+        return limiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(KEYS)], System.nanoTime());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long distinctKeysAtCapacity() {
+        return limiter.tryAcquire("ip:" + ThreadLocalRandom.current().nextLong(), System.nanoTime());
+    }
+}
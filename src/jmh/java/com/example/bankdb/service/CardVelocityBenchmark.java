@@ -0,0 +1,55 @@
+package com.example.bankdb.service;
+
+import com.example.bankdb.service.CardVelocityTracker.Admission;
+import com.example.bankdb.service.CardVelocityTracker.CardWindow;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Kart-kart kocurmesinde velocity yoxlamasinin qiymeti (hedef: 1 mikrosaniyeden az):
+// 24 bucket-li pencerede limit yoxlanilir, mebleg yazilir ve rollback kimi geri alinir ki, limit dolmasin.
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CardVelocityBenchmark {
+
+    private static final int CARDS = 100_000;
+    private static final int BUCKETS = 24;
+
+    private CardWindow[] windows;
+    private long bucket;
+
+    @Setup
+    public void setUp() {
+        windows = new CardWindow[CARDS];
+        bucket = System.currentTimeMillis() / 3_600_000L;
+        for (int i = 0; i < CARDS; i++) {
+            windows[i] = new CardWindow(BUCKETS);
+            // Pencere dolu olsun: her bucket-de bir xerc
+            for (int b = 0; b < BUCKETS; b++) {
+                windows[i].add(bucket - b, 1_000);
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Admission reserveAndRelease() {
+        CardWindow window = windows[ThreadLocalRandom.current().nextInt(CARDS)];
+        Admission admission = window.tryAdd(bucket, 2_500, Integer.MAX_VALUE, Long.MAX_VALUE);
+        window.remove(bucket, 2_500);
+        return admission;
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Admission sameCardContended() {
+        CardWindow window = windows[0];
+        Admission admission = window.tryAdd(bucket, 2_500, Integer.MAX_VALUE, Long.MAX_VALUE);
+        window.remove(bucket, 2_500);
+        return admission;
+    }
+}
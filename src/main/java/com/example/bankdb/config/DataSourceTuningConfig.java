@@ -0,0 +1,46 @@
+package com.example.bankdb.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+// datasource-tuning.pool-size verilmeyibse pool olcusu nuve sayindan hesablanir (PostgreSQL ucun tovsiye: cores * 2 + 1).
+// Pool sabit olculudur (minimumIdle = maximumPoolSize), yuk artanda yeni connection acilmasini gozlemir.
+// Ordered-dir ki, SqlTracingConfig DataSource-u proxy ile bukmemisden evvel isleyir.
+@Slf4j
+@Configuration
+@Profile("perf")
+public class DataSourceTuningConfig {
+
+    @Bean
+    public static BeanPostProcessor hikariPoolSizingPostProcessor(Environment environment) {
+        int poolSize = environment.getProperty("datasource-tuning.pool-size", Integer.class, 0);
+        int connectionsPerCore = environment.getProperty("datasource-tuning.connections-per-core", Integer.class, 2);
+        return new PoolSizingPostProcessor(poolSize > 0
+                ? poolSize
+                : Runtime.getRuntime().availableProcessors() * connectionsPerCore + 1);
+    }
+
+    private record PoolSizingPostProcessor(int poolSize) implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource dataSource) {
+                dataSource.setMaximumPoolSize(poolSize);
+                dataSource.setMinimumIdle(poolSize);
+                log.info("Hikari pool {} sized to {} connections", dataSource.getPoolName(), poolSize);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE - 1;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.bankdb.config;
+
+import com.example.bankdb.exception.ErrorResponse;
+import com.example.bankdb.model.dto.AuthResponse;
+import com.example.bankdb.model.dto.PostingDto;
+import com.example.bankdb.model.entity.BankAccount;
+import com.example.bankdb.model.projection.CardSpendView;
+import com.example.bankdb.model.projection.UserSummaryView;
+import com.example.bankdb.model.projection.ScheduledOrderView;
+import com.example.bankdb.model.projection.VersionStamp;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.context.annotation.RegisterReflectionForBinding;
+import org.springframework.data.projection.TargetAware;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.stream.Stream;
+
+// Native image ucun AOT-un ozu tapa bilmediyi hint-ler. Entity-ler, controller DTO-lari ve repository-ler
+// Spring AOT terefinden, Caffeine/Hikari/PostgreSQL driveri ise GraalVM metadata repository-den gelir.
+// ResponseEntity<?> qaytaran endpoint-lerin body tipleri burada elave olunur.
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeHintsConfig.BankDbRuntimeHints.class)
+@RegisterReflectionForBinding({AuthResponse.class, ErrorResponse.class, BankAccount.class})
+public class NativeHintsConfig {
+
+    static class BankDbRuntimeHints implements RuntimeHintsRegistrar {
+
+        // jjwt 0.11 implementasiyalari adla, reflection ve ServiceLoader ile yuklenir
+        private static final String[] JJWT_TYPES = {
+                "io.jsonwebtoken.impl.DefaultJwtBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtParser",
+                "io.jsonwebtoken.impl.DefaultClaims",
+                "io.jsonwebtoken.impl.DefaultHeader",
+                "io.jsonwebtoken.impl.DefaultJwsHeader",
+                "io.jsonwebtoken.impl.compression.DeflateCompressionCodec",
+                "io.jsonwebtoken.impl.compression.GzipCompressionCodec",
+                "io.jsonwebtoken.jackson.io.JacksonSerializer",
+                "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+        };
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (String type : JJWT_TYPES) {
+                hints.reflection().registerType(TypeReference.of(type),
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+
+            // datasource-proxy JDBC obyektlerini JDK proxy ile bukur
+            Stream.of(Connection.class, Statement.class, PreparedStatement.class, CallableStatement.class)
+                    .forEach(jdbcType -> hints.proxies().registerJdkProxy(ProxyJdbcObject.class, jdbcType));
+
+            // Spring Data interface projection-lari AOP proxy kimi yaradir
+            Stream.of(VersionStamp.class, CardSpendView.class, UserSummaryView.class, ScheduledOrderView.class).forEach(projection -> {
+                hints.proxies().registerJdkProxy(AopProxyUtils.completeJdkProxyInterfaces(projection, TargetAware.class));
+                hints.reflection().registerType(projection, MemberCategory.INVOKE_PUBLIC_METHODS);
+            });
+
+            // JPQL "select new" konstruktor ifadesi
+            hints.reflection().registerType(PostingDto.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+    }
+}
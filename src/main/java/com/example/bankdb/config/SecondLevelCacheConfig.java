@@ -0,0 +1,67 @@
+package com.example.bankdb.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+// Hibernate ikinci seviyye kesi ucun Caffeine JCache region-lari.
+// Region-lar burada olculu yaradilir; missing_cache_strategy=fail oldugundan elan olunmamis region olcusuz yaranmir.
+// BankAccount kese qoyulmur: balans her emeliyyatda deyisir ve entity her posting-de invalidasiya olunardi.
+// Hesabin kart siyahisi (yalniz kart id-leri) ise ayrica region-dadir, kartlar ozleri cards region-undan gelir.
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final String USERS_REGION = "users";
+    public static final String CARDS_REGION = "cards";
+    public static final String ACCOUNT_CARDS_REGION = "accountCards";
+    public static final String ACCOUNT_CARDS_ROLE = "com.example.bankdb.model.entity.BankAccount.cards";
+    public static final String EXCHANGE_RATES_REGION = "exchangeRates";
+
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${second-level-cache.ttl-seconds:600}") long ttlSeconds,
+                                              @Value("${second-level-cache.users-max-size:50000}") long usersMaxSize,
+                                              @Value("${second-level-cache.cards-max-size:100000}") long cardsMaxSize,
+                                              @Value("${second-level-cache.query-results-max-size:50000}") long queryResultsMaxSize) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        cacheManager.createCache(USERS_REGION, region(usersMaxSize, ttl));
+        cacheManager.createCache(CARDS_REGION, region(cardsMaxSize, ttl));
+        cacheManager.createCache(ACCOUNT_CARDS_REGION, region(cardsMaxSize, ttl));
+        cacheManager.createCache(EXCHANGE_RATES_REGION, region(100, ttl));
+        cacheManager.createCache(QUERY_RESULTS_REGION, region(queryResultsMaxSize, ttl));
+        // Cedvel deyisiklik vaxtlari: her cedvel ucun bir setir, evict olunmamalidir
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, region(-1, null));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maxSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        if (maxSize > 0) {
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+        }
+        if (ttl != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -1,8 +1,19 @@
 package com.example.bankdb.controller;
 
+import com.example.bankdb.model.dto.BulkDeleteUsersRequest;
+import com.example.bankdb.model.dto.ExchangeRateRequest;
+import com.example.bankdb.model.dto.ImportReport;
+import com.example.bankdb.model.dto.ReconciliationReport;
 import com.example.bankdb.model.dto.SystemStatisticsDto;
-import com.example.bankdb.model.dto.UserProfileDto;
+import com.example.bankdb.model.dto.TransactionPageDto;
+import com.example.bankdb.model.dto.UserDeletionJobDto;
+import com.example.bankdb.model.dto.UserPageDto;
+import com.example.bankdb.model.entity.ExchangeRate;
 import com.example.bankdb.service.AdminService;
+import com.example.bankdb.service.BulkImportService;
+import com.example.bankdb.service.FxRateService;
+import com.example.bankdb.service.LedgerReconciliationService;
+import com.example.bankdb.service.TransactionSearchService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -10,11 +21,21 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -26,17 +47,53 @@ import java.util.List;
 public class AdminController {
 
     private final AdminService adminService;
+    private final FxRateService fxRateService;
+    private final LedgerReconciliationService reconciliationService;
+    private final TransactionSearchService transactionSearchService;
+    private final BulkImportService bulkImportService;
 
     @GetMapping("/users")
-    @Operation(summary = "Get all users", description = "Returns a list of all registered users. Admin only.")
+    @Operation(summary = "List users", description = "Returns one page of users ordered by id. Pass nextCursor of the previous page as afterId. Admin only.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Users retrieved successfully",
-                    content = @Content(schema = @Schema(implementation = UserProfileDto.class))),
+                    content = @Content(schema = @Schema(implementation = UserPageDto.class))),
             @ApiResponse(responseCode = "403", description = "Forbidden - Not an admin",
                     content = @Content)
     })
-    public ResponseEntity<List<UserProfileDto>> getAllUsers() {
-        return ResponseEntity.ok(adminService.getAllUsers());
+    public ResponseEntity<UserPageDto> getUsers(@RequestParam(required = false) Long afterId,
+                                                @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(adminService.getUsers(afterId, size));
+    }
+
+    @GetMapping("/users/search")
+    @Operation(summary = "Search users", description = "Searches users by username or email prefix, or by substring when contains=true (min. 3 characters). Admin only.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Matching users retrieved",
+                    content = @Content(schema = @Schema(implementation = UserPageDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid search query",
+                    content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Not an admin",
+                    content = @Content)
+    })
+    public ResponseEntity<UserPageDto> searchUsers(@RequestParam String q,
+                                                   @RequestParam(defaultValue = "false") boolean contains,
+                                                   @RequestParam(required = false) Long afterId,
+                                                   @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(adminService.searchUsers(q, contains, afterId, size));
+    }
+
+    @GetMapping(value = "/users/export", produces = "text/csv")
+    @Operation(summary = "Export users", description = "Streams all users as CSV. Admin only.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "CSV stream"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Not an admin",
+                    content = @Content)
+    })
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.csv\"")
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(adminService::exportUsersCsv);
     }
 
     @DeleteMapping("/users/{userId}")
@@ -53,6 +110,99 @@ public class AdminController {
         return ResponseEntity.ok("User deleted successfully");
     }
 
+    @PostMapping("/users/bulk-delete")
+    @Operation(summary = "Delete users in bulk", description = "Queues a background job that locks the given users' accounts, then deletes the users and their accounts, cards and ledger rows in bounded chunks. The job is stored in the database and resumes after a restart. Admin only.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Deletion job queued",
+                    content = @Content(schema = @Schema(implementation = UserDeletionJobDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid request data",
+                    content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Not an admin",
+                    content = @Content)
+    })
+    public ResponseEntity<UserDeletionJobDto> deleteUsers(@Valid @RequestBody BulkDeleteUsersRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(adminService.deleteUsers(request.getUserIds()));
+    }
+
+    @GetMapping("/users/deletion-jobs/{jobId}")
+    @Operation(summary = "Get deletion job", description = "Returns progress of a bulk user deletion job. Admin only.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Job progress retrieved",
+                    content = @Content(schema = @Schema(implementation = UserDeletionJobDto.class))),
+            @ApiResponse(responseCode = "404", description = "Job not found or expired",
+                    content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Not an admin",
+                    content = @Content)
+    })
+    public ResponseEntity<UserDeletionJobDto> getDeletionJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(adminService.getDeletionJob(jobId));
+    }
+
+    @GetMapping("/transactions/search")
+    @Operation(summary = "Search transactions", description = "Searches transactions by description substring (min. 3 characters), amount range and [from, to) period, newest first by (timestamp, id). Pass nextBeforeTimestamp and nextBeforeId of the previous page as beforeTimestamp and beforeId. Admin only.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Matching transactions retrieved",
+                    content = @Content(schema = @Schema(implementation = TransactionPageDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid or too broad search query",
+                    content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Not an admin",
+                    content = @Content)
+    })
+    public ResponseEntity<TransactionPageDto> searchTransactions(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeTimestamp,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(transactionSearchService.search(q, minAmount, maxAmount, from, to,
+                beforeTimestamp, beforeId, size));
+    }
+
+    @PostMapping(value = "/import/users", consumes = "text/csv")
+    @Operation(summary = "Import users", description = "Streams a CSV with columns username, email, password_hash (bcrypt) and optional role. Invalid or duplicate rows are reported by line number and skipped. Admin only.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished",
+                    content = @Content(schema = @Schema(implementation = ImportReport.class))),
+            @ApiResponse(responseCode = "400", description = "Empty file or missing columns",
+                    content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Not an admin",
+                    content = @Content)
+    })
+    public ResponseEntity<ImportReport> importUsers(InputStream body) throws IOException {
+        return ResponseEntity.ok(bulkImportService.importUsers(body));
+    }
+
+    @PostMapping(value = "/import/accounts", consumes = "text/csv")
+    @Operation(summary = "Import accounts", description = "Streams a CSV with columns username, account_type, initial_balance and optional currency and account_number. Opening balances are recorded as deposits. Admin only.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished",
+                    content = @Content(schema = @Schema(implementation = ImportReport.class))),
+            @ApiResponse(responseCode = "400", description = "Empty file or missing columns",
+                    content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Not an admin",
+                    content = @Content)
+    })
+    public ResponseEntity<ImportReport> importAccounts(InputStream body) throws IOException {
+        return ResponseEntity.ok(bulkImportService.importAccounts(body));
+    }
+
+    @PostMapping(value = "/import/cards", consumes = "text/csv")
+    @Operation(summary = "Import cards", description = "Streams a CSV with columns account_number, card_number and expiry_date (yyyy-MM-dd). Files with a cvv column are rejected; card numbers are stored encrypted. At most 2 cards per account. Admin only.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished",
+                    content = @Content(schema = @Schema(implementation = ImportReport.class))),
+            @ApiResponse(responseCode = "400", description = "Empty file or missing columns",
+                    content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Not an admin",
+                    content = @Content)
+    })
+    public ResponseEntity<ImportReport> importCards(InputStream body) throws IOException {
+        return ResponseEntity.ok(bulkImportService.importCards(body));
+    }
+
     @GetMapping("/statistics")
     @Operation(summary = "Get system statistics", description = "Returns overall stats: number of users, accounts, and transactions.")
     @ApiResponses(value = {
@@ -64,5 +214,58 @@ public class AdminController {
     public ResponseEntity<SystemStatisticsDto> getSystemStats() {
         return ResponseEntity.ok(adminService.getSystemStatistics());
     }
-}
 
+    @GetMapping("/fx-rates")
+    @Operation(summary = "Get exchange rates", description = "Returns the current rate of every currency pair.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exchange rates retrieved successfully"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Not an admin",
+                    content = @Content)
+    })
+    public ResponseEntity<List<ExchangeRate>> getExchangeRates() {
+        return ResponseEntity.ok(fxRateService.getAllRates());
+    }
+
+    @PutMapping("/fx-rates")
+    @Operation(summary = "Set exchange rate", description = "Appends a new rate for a currency pair (and its derived inverse) and reloads the in-memory rate table.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exchange rate saved",
+                    content = @Content(schema = @Schema(implementation = ExchangeRate.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid rate",
+                    content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Not an admin",
+                    content = @Content)
+    })
+    public ResponseEntity<ExchangeRate> updateExchangeRate(@Valid @RequestBody ExchangeRateRequest request) {
+        return ResponseEntity.ok(fxRateService.updateRate(request.getBaseCurrency(), request.getQuoteCurrency(), request.getRate()));
+    }
+
+    @PostMapping("/reconciliation")
+    @Operation(summary = "Start ledger reconciliation", description = "Starts a background job that compares every account balance with the sum of its ledger entries.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Reconciliation started",
+                    content = @Content(schema = @Schema(implementation = ReconciliationReport.class))),
+            @ApiResponse(responseCode = "409", description = "Reconciliation is already running",
+                    content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Not an admin",
+                    content = @Content)
+    })
+    public ResponseEntity<ReconciliationReport> startReconciliation() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(reconciliationService.start());
+    }
+
+    @GetMapping("/reconciliation")
+    @Operation(summary = "Get reconciliation report", description = "Returns the report of the latest (or currently running) reconciliation.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Report retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = ReconciliationReport.class))),
+            @ApiResponse(responseCode = "204", description = "Reconciliation has not been run yet",
+                    content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Not an admin",
+                    content = @Content)
+    })
+    public ResponseEntity<ReconciliationReport> getReconciliationReport() {
+        ReconciliationReport report = reconciliationService.getLatestReport();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.noContent().build();
+    }
+}
@@ -9,7 +9,9 @@ import com.example.bankdb.model.entity.enums.Role;
 import com.example.bankdb.model.entity.User;
 import com.example.bankdb.repository.UserRepository;
 import com.example.bankdb.service.JwtService;
+import com.example.bankdb.service.PasswordHashingService;
 import com.example.bankdb.service.RefreshTokenService;
+import com.example.bankdb.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -20,10 +22,6 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 @Slf4j
@@ -33,9 +31,9 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Auth", description = "Auth management APIs")
 public class AuthController {
 
-    private final AuthenticationManager authManager;
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final UserService userService;
+    private final PasswordHashingService passwordHashingService;
     private final JwtService jwtService;
     private final RefreshTokenService refreshTokenService;
 
@@ -50,7 +48,7 @@ public class AuthController {
     public ResponseEntity<?> register(@RequestBody @Valid RegisterRequest request) {
         User user = new User();
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
         user.setUsername(request.getUsername());
         user.setRole(Role.USER);
         userRepository.save(user);
@@ -73,14 +71,11 @@ public class AuthController {
     })
     @PostMapping("/refresh")
     public ResponseEntity<AuthResponse> refreshToken(@RequestHeader("Authorization") String header) {
-        log.info("Refresh endpoint called with header: {}", header); // bunu əlavə et
         String token = jwtService.cleanToken(header);
 
         RefreshToken oldRefreshToken = refreshTokenService.getValidRefreshToken(token);
         User user = oldRefreshToken.getUser();
 
-        refreshTokenService.deleteRefreshToken(oldRefreshToken);
-
         String newAccessToken = jwtService.generateAccessToken(user);
         RefreshToken newRefreshToken = refreshTokenService.createOrUpdateRefreshToken(user);
 
@@ -95,16 +90,11 @@ public class AuthController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Authentication successful",
                     content = @Content(schema = @Schema(implementation = JwtResponse.class))),
-            @ApiResponse(responseCode = "401", description = "Invalid email or password")
+            @ApiResponse(responseCode = "401", description = "Invalid email or password"),
+            @ApiResponse(responseCode = "503", description = "Authentication service is busy")
     })
     public ResponseEntity<?> login(@RequestBody LoginRequest request) {
-        authManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getIdentifier(), request.getPassword())
-        );
-
-        User user = userRepository.findByEmail(request.getIdentifier())
-                .or(() -> userRepository.findByUsername(request.getIdentifier()))
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        User user = userService.authenticate(request);
 
         String accessToken = jwtService.generateAccessToken(user);
         String refreshToken = refreshTokenService.createOrUpdateRefreshToken(user).getToken();
@@ -1,8 +1,10 @@
 package com.example.bankdb.controller;
 
+import com.example.bankdb.model.dto.AccountBalanceDto;
 import com.example.bankdb.model.dto.BankAccountDto;
 import com.example.bankdb.model.dto.CreateAccountRequest;
 import com.example.bankdb.model.entity.BankAccount;
+import com.example.bankdb.monitoring.QueryBudget;
 import com.example.bankdb.service.BankAccountService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -17,6 +19,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -51,11 +54,36 @@ public class BankAccountController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Accounts retrieved",
                     content = @Content(array = @ArraySchema(schema = @Schema(implementation = BankAccountDto.class)))),
+            @ApiResponse(responseCode = "304", description = "Accounts not modified since the given ETag"),
             @ApiResponse(responseCode = "404", description = "User not found")
     })
+    @QueryBudget(10)
     @GetMapping("/{username}")
-    public List<BankAccountDto> getAccounts(@PathVariable String username) {
-        return bankAccountService.getAccountDtosByUsername(username);
+    public ResponseEntity<List<BankAccountDto>> getAccounts(@PathVariable String username, WebRequest webRequest) {
+        // ETag melumatdan evvel hesablanir: arada deyisiklik olsa, kohne ETag novbeti sorguda 200 qaytarir
+        String etag = bankAccountService.getAccountsETag(username);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(bankAccountService.getAccountDtosByUsername(username));
+    }
+
+
+    @Operation(
+            summary = "Get account balance",
+            description = "Returns only the current balance of an account. Served from an in-process cache that is refreshed after every posting."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Balance retrieved",
+                    content = @Content(schema = @Schema(implementation = AccountBalanceDto.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - not the account owner"),
+            @ApiResponse(responseCode = "404", description = "Account not found")
+    })
+    @QueryBudget(2)
+    @GetMapping("/{accountId}/balance")
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isAccountOwner(authentication, #accountId)")
+    public AccountBalanceDto getBalance(@PathVariable Long accountId) {
+        return bankAccountService.getBalance(accountId);
     }
 
 
@@ -79,19 +107,18 @@ public class BankAccountController {
 
     @Operation(
             summary = "Update a bank account",
-            description = "Updates a bank account's details. Only the account owner or an admin can perform this operation."
+            description = "Updates a bank account's details. The balance cannot be changed here; it only moves through transactions. Only the account owner or an admin can perform this operation."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Account updated successfully",
-                    content = @Content(schema = @Schema(implementation = BankAccount.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid account data"),
+                    content = @Content(schema = @Schema(implementation = BankAccountDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid account data or a changed balance"),
             @ApiResponse(responseCode = "403", description = "Forbidden - not authorized to update this account"),
             @ApiResponse(responseCode = "404", description = "Account not found")
     })
     @PutMapping("/{accountId}")
     @PreAuthorize("hasRole('ADMIN') or @securityService.isAccountOwner(authentication, #accountId)")
-    public ResponseEntity<?> updateAccount(@PathVariable Long accountId, @RequestBody BankAccount updatedAccount) {
-        BankAccount account = bankAccountService.updateAccount(accountId, updatedAccount);
-        return ResponseEntity.ok(account);
+    public ResponseEntity<BankAccountDto> updateAccount(@PathVariable Long accountId, @RequestBody BankAccount updatedAccount) {
+        return ResponseEntity.ok(bankAccountService.updateAccount(accountId, updatedAccount));
     }
 }
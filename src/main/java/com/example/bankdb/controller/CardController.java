@@ -3,7 +3,10 @@ package com.example.bankdb.controller;
 import com.example.bankdb.model.dto.CardDto;
 import com.example.bankdb.model.dto.CreateCardRequest;
 import com.example.bankdb.model.entity.Card;
+import com.example.bankdb.model.entity.User;
+import com.example.bankdb.monitoring.QueryBudget;
 import com.example.bankdb.service.CardService;
+import com.example.bankdb.service.PanTokenizationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -17,6 +20,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -42,7 +46,8 @@ public class CardController {
     @PostMapping("/create")
     @PreAuthorize("hasRole('ADMIN') or @securityService.isAccountOwner(authentication, #request.accountId)")
     public ResponseEntity<String> createCard(@RequestBody CreateCardRequest request, Authentication authentication) {
-        String email = authentication.getName();
+        // authentication.getName() username qaytarir, sahiblik email ile yoxlanilir
+        String email = ((User) authentication.getPrincipal()).getEmail();
         String result = cardService.createCard(request, email);
         return ResponseEntity.ok(result);
     }
@@ -56,12 +61,18 @@ public class CardController {
                     responseCode = "200",
                     description = "List of cards returned successfully",
                     content = @Content(array = @ArraySchema(schema = @Schema(implementation = CardDto.class)))),
+            @ApiResponse(responseCode = "304", description = "Cards not modified since the given ETag"),
             @ApiResponse(responseCode = "404", description = "Account not found")
     })
+    @QueryBudget(5)
     @GetMapping("/by-account/{accountId}")
     @PreAuthorize("hasRole('ADMIN') or @securityService.isAccountOwner(authentication, #accountId)")
-    public ResponseEntity<List<CardDto>> getCards(@PathVariable Long accountId) {
-        return ResponseEntity.ok(cardService.getCardsByAccount(accountId));
+    public ResponseEntity<List<CardDto>> getCards(@PathVariable Long accountId, WebRequest webRequest) {
+        String etag = cardService.getCardsETag(accountId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(cardService.getCardsByAccount(accountId));
     }
 
 
@@ -100,7 +111,8 @@ public class CardController {
         Card updated = cardService.updateCard(cardId, request);
         CardDto dto = new CardDto();
         dto.setId(updated.getId());
-        dto.setCardNumber(updated.getCardNumber());
+        dto.setCardNumber(PanTokenizationService.mask(updated.getLastFour()));
+        dto.setCardToken(updated.getPanToken());
         dto.setExpiryDate(updated.getExpiryDate());
         return ResponseEntity.ok(dto);
     }
@@ -0,0 +1,77 @@
+package com.example.bankdb.controller;
+
+import com.example.bankdb.model.dto.CreateStandingOrderRequest;
+import com.example.bankdb.model.dto.StandingOrderDto;
+import com.example.bankdb.service.StandingOrderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/standing-orders")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "Standing order", description = "Recurring transfer APIs")
+public class StandingOrderController {
+
+    private final StandingOrderService standingOrderService;
+
+    @Operation(
+            summary = "Create a standing order",
+            description = "Schedules a recurring transfer from the source account. Only accessible by admins or the source account owner."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Standing order created",
+                    content = @Content(schema = @Schema(implementation = StandingOrderDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid request data"),
+            @ApiResponse(responseCode = "404", description = "Account not found")
+    })
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isAccountOwner(authentication, #request.sourceAccountId)")
+    public ResponseEntity<StandingOrderDto> create(@Valid @RequestBody CreateStandingOrderRequest request) {
+        return ResponseEntity.ok(standingOrderService.create(request));
+    }
+
+    @Operation(
+            summary = "Get standing orders of an account",
+            description = "Returns the standing orders paid from the given account, including cancelled ones."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Standing orders retrieved",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = StandingOrderDto.class)))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Not the account owner")
+    })
+    @GetMapping("/account/{accountId}")
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isAccountOwner(authentication, #accountId)")
+    public ResponseEntity<List<StandingOrderDto>> getByAccount(@PathVariable Long accountId) {
+        return ResponseEntity.ok(standingOrderService.getByAccountId(accountId));
+    }
+
+    @Operation(
+            summary = "Cancel a standing order",
+            description = "Stops all future executions of the standing order."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Standing order cancelled"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Not the order owner"),
+            @ApiResponse(responseCode = "404", description = "Standing order not found")
+    })
+    @DeleteMapping("/{orderId}")
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isStandingOrderOwner(authentication, #orderId)")
+    public ResponseEntity<Void> cancel(@PathVariable Long orderId) {
+        standingOrderService.cancel(orderId);
+        return ResponseEntity.noContent().build();
+    }
+}
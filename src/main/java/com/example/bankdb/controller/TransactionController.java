@@ -3,6 +3,7 @@ package com.example.bankdb.controller;
 import com.example.bankdb.model.dto.*;
 import com.example.bankdb.model.entity.Transaction;
 import com.example.bankdb.model.entity.enums.TransactionType;
+import com.example.bankdb.monitoring.QueryBudget;
 import com.example.bankdb.service.EmailSenderService;
 import com.example.bankdb.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -14,10 +15,17 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import reactor.core.publisher.Flux;
 
 import javax.security.auth.login.AccountNotFoundException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -28,6 +36,8 @@ import java.util.List;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    // Mail yalniz ilk email gonderilende qurulur (lombok.config @Lazy-ni konstruktora kocurur)
+    @Lazy
     private final EmailSenderService emailSenderService;
 
 
@@ -71,18 +81,21 @@ public class TransactionController {
 
     @Operation(
             summary = "Card-to-card transfer",
-            description = "Transfers money from one card to another. Uses a specialized method for card transactions."
+            description = "Transfers money from one card to another. The source card is identified by ID and must belong to the caller; the destination card by ID or by card number. Uses a specialized method for card transactions."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Card-to-card transfer successful",
                     content = @Content(schema = @Schema(implementation = TransactionDto.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid request data")
+            @ApiResponse(responseCode = "400", description = "Invalid request data"),
+            @ApiResponse(responseCode = "403", description = "Source card does not belong to the caller")
     })
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isCardOwner(authentication, #request.sourceCardId)")
     @PostMapping("/card-to-card")
     public TransactionDto cardToCard(@RequestBody CardToCardRequest request) {
         TransactionRequest tr = new TransactionRequest();
         tr.setSourceCardId(request.getSourceCardId());
         tr.setDestinationCardId(request.getDestinationCardId());
+        tr.setDestinationCardNumber(request.getDestinationCardNumber());
         tr.setAmount(request.getAmount());
         tr.setDescription(request.getDescription());
         tr.setType(TransactionType.TRANSFER);
@@ -143,12 +156,75 @@ public class TransactionController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Transaction history retrieved",
                     content = @Content(array = @ArraySchema(schema = @Schema(implementation = TransactionDto.class)))),
+            @ApiResponse(responseCode = "304", description = "History not modified since the given ETag"),
             @ApiResponse(responseCode = "404", description = "Account not found")
     })
+    @QueryBudget(10)
     @GetMapping("/transactions/{accountId}")
-    public ResponseEntity<List<TransactionDto>> getTransactionHistory(@PathVariable Long accountId) {
+    public ResponseEntity<List<TransactionDto>> getTransactionHistory(@PathVariable Long accountId, WebRequest webRequest) {
+        String etag = transactionService.getHistoryETag(accountId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         List<TransactionDto> dto = transactionService.getTransactionHistoryByAccountId(accountId);
-        return ResponseEntity.ok(dto);
+        return ResponseEntity.ok().eTag(etag).body(dto);
+    }
+
+
+    @Operation(
+            summary = "Stream transaction history",
+            description = "Streams the transaction history of the account as newline-delimited JSON, newest first. "
+                    + "Rows are fetched from the database as the client reads them, without holding a request thread or JDBC connection."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "NDJSON stream of transactions",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = TransactionDto.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Not the account owner")
+    })
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isAccountOwner(authentication, #accountId)")
+    @GetMapping(value = "/transactions/{accountId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TransactionDto> streamTransactionHistory(@PathVariable Long accountId) {
+        return transactionService.streamTransactionHistory(accountId);
+    }
+
+    @Operation(
+            summary = "Get account statement",
+            description = "Returns the ledger postings of an account in the [from, to) period with opening and closing balances."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Statement retrieved",
+                    content = @Content(schema = @Schema(implementation = AccountStatementDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid period"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Not the account owner")
+    })
+    @QueryBudget(5)
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isAccountOwner(authentication, #accountId)")
+    @GetMapping("/statement/{accountId}")
+    public ResponseEntity<AccountStatementDto> getStatement(
+            @PathVariable Long accountId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(transactionService.getStatement(accountId, from, to));
+    }
+
+
+    @Operation(
+            summary = "Get balance at a point in time",
+            description = "Returns the account balance as it was right before the given moment."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Balance retrieved",
+                    content = @Content(schema = @Schema(implementation = AccountBalanceDto.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Not the account owner")
+    })
+    @QueryBudget(3)
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isAccountOwner(authentication, #accountId)")
+    @GetMapping("/balance/{accountId}")
+    public ResponseEntity<AccountBalanceDto> getBalanceAt(
+            @PathVariable Long accountId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(transactionService.getBalanceAt(accountId, at));
     }
 
 
@@ -0,0 +1,7 @@
+package com.example.bankdb.exception;
+
+public class AccountLockedException extends RuntimeException {
+    public AccountLockedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.bankdb.exception;
+
+public class AuthenticationBusyException extends RuntimeException {
+    public AuthenticationBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.bankdb.exception;
+
+public class ExchangeRateNotAvailableException extends RuntimeException {
+    public ExchangeRateNotAvailableException(String message) {
+        super(message);
+    }
+}
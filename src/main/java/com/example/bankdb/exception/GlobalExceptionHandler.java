@@ -1,83 +1,190 @@
 package com.example.bankdb.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.time.LocalDateTime;
+import java.util.stream.Collectors;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
     @ExceptionHandler(UserNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleUserNotFound(UserNotFoundException e) {
-        return new ResponseEntity<>(new ErrorResponse(e.getMessage(), LocalDateTime.now()), HttpStatus.NOT_FOUND);
+        return reject(e, HttpStatus.NOT_FOUND);
     }
 
     @ExceptionHandler(UserAlreadyExistsException.class)
     public ResponseEntity<ErrorResponse> handleUserAlreadyExists(UserAlreadyExistsException ex) {
-        return new ResponseEntity<>(new ErrorResponse(ex.getMessage(), LocalDateTime.now()), HttpStatus.CONFLICT);
+        return reject(ex, HttpStatus.CONFLICT);
     }
 
     @ExceptionHandler(AccountNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleAccountNotFound(AccountNotFoundException e) {
-        return new ResponseEntity<>(new ErrorResponse(e.getMessage(), LocalDateTime.now()), HttpStatus.NOT_FOUND);
+        return reject(e, HttpStatus.NOT_FOUND);
     }
 
     @ExceptionHandler(CardNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleCardNotFound(CardNotFoundException e) {
-        return new ResponseEntity<>(new ErrorResponse(e.getMessage(), LocalDateTime.now()), HttpStatus.NOT_FOUND);
+        return reject(e, HttpStatus.NOT_FOUND);
     }
 
     @ExceptionHandler(CardLimitExceededException.class)
     public ResponseEntity<ErrorResponse> handleCardLimitExceeded(CardLimitExceededException e) {
-        return new ResponseEntity<>(new ErrorResponse(e.getMessage(), LocalDateTime.now()), HttpStatus.BAD_REQUEST);
+        return reject(e, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(InvalidCardNumberException.class)
     public ResponseEntity<ErrorResponse> handleInvalidCardNumber(InvalidCardNumberException e) {
-        return new ResponseEntity<>(new ErrorResponse(e.getMessage(), LocalDateTime.now()), HttpStatus.BAD_REQUEST);
+        return reject(e, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(EmailSendingException.class)
     public ResponseEntity<ErrorResponse> handleEmailSending(EmailSendingException e) {
-        return new ResponseEntity<>(new ErrorResponse(e.getMessage(), LocalDateTime.now()), HttpStatus.INTERNAL_SERVER_ERROR);
+        return reject(e, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
     @ExceptionHandler(RefreshTokenExpiredException.class)
     public ResponseEntity<ErrorResponse> handleRefreshTokenExpired(RefreshTokenExpiredException ex) {
-        return new ResponseEntity<>(new ErrorResponse(ex.getMessage(), LocalDateTime.now()), HttpStatus.UNAUTHORIZED);
+        return reject(ex, HttpStatus.UNAUTHORIZED);
+    }
+
+    @ExceptionHandler(AccountLockedException.class)
+    public ResponseEntity<ErrorResponse> handleAccountLocked(AccountLockedException ex) {
+        return reject(ex, HttpStatus.CONFLICT);
     }
 
     @ExceptionHandler(InsufficientFundsException.class)
     public ResponseEntity<ErrorResponse> handleInsufficientFunds(InsufficientFundsException ex) {
-        return new ResponseEntity<>(new ErrorResponse(ex.getMessage(), LocalDateTime.now()), HttpStatus.BAD_REQUEST);
+        return reject(ex, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidAccountUpdateException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidAccountUpdate(InvalidAccountUpdateException ex) {
+        return reject(ex, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(InvalidTransactionRequestException.class)
     public ResponseEntity<ErrorResponse> handleInvalidTransactionRequest(InvalidTransactionRequestException ex) {
-        return new ResponseEntity<>(new ErrorResponse(ex.getMessage(), LocalDateTime.now()), HttpStatus.BAD_REQUEST);
+        return reject(ex, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(InvalidCredentialsException.class)
     public ResponseEntity<ErrorResponse> handleInvalidCredentials(InvalidCredentialsException ex) {
-        return new ResponseEntity<>(new ErrorResponse(ex.getMessage(), LocalDateTime.now()), HttpStatus.UNAUTHORIZED);
+        return reject(ex, HttpStatus.UNAUTHORIZED);
     }
 
     @ExceptionHandler(IncorrectPasswordException.class)
     public ResponseEntity<ErrorResponse> handleIncorrectPassword(IncorrectPasswordException ex) {
-        return new ResponseEntity<>(new ErrorResponse(ex.getMessage(), LocalDateTime.now()), HttpStatus.BAD_REQUEST);
+        return reject(ex, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(RefreshTokenNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleRefreshTokenNotFound(RefreshTokenNotFoundException ex) {
-        return new ResponseEntity<>(new ErrorResponse(ex.getMessage(), LocalDateTime.now()), HttpStatus.NOT_FOUND);
+        return reject(ex, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(DeletionJobNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleDeletionJobNotFound(DeletionJobNotFoundException ex) {
+        return reject(ex, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(StandingOrderNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleStandingOrderNotFound(StandingOrderNotFoundException ex) {
+        return reject(ex, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(InvalidSearchQueryException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidSearchQuery(InvalidSearchQueryException ex) {
+        return reject(ex, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidImportFileException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidImportFile(InvalidImportFileException ex) {
+        return reject(ex, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(VelocityLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleVelocityLimitExceeded(VelocityLimitExceededException ex) {
+        return reject(ex, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ReconciliationInProgressException.class)
+    public ResponseEntity<ErrorResponse> handleReconciliationInProgress(ReconciliationInProgressException ex) {
+        return reject(ex, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(ExchangeRateNotAvailableException.class)
+    public ResponseEntity<ErrorResponse> handleExchangeRateNotAvailable(ExchangeRateNotAvailableException ex) {
+        return reject(ex, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    // Yalniz sql-trace.fail-on-budget-exceeded aktiv olanda (testler) atilir
+    @ExceptionHandler(QueryBudgetExceededException.class)
+    public ResponseEntity<ErrorResponse> handleQueryBudgetExceeded(QueryBudgetExceededException ex) {
+        return reject(ex, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    @ExceptionHandler(InvalidExchangeRateException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidExchangeRate(InvalidExchangeRateException ex) {
+        return reject(ex, HttpStatus.BAD_REQUEST);
+    }
+
+    // @Valid xetalari (meselen ExchangeRateRequest.rate <= 0) umumi handler-e dusub 500 qaytarmasin
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ErrorResponse> handleValidation(MethodArgumentNotValidException ex) {
+        countRejection(ex);
+        String message = ex.getBindingResult().getFieldErrors().stream()
+                .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                .collect(Collectors.joining(", "));
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse(message.isEmpty() ? "Invalid request" : message, LocalDateTime.now()));
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLock(ObjectOptimisticLockingFailureException ex) {
+        countRejection(ex);
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ErrorResponse("Resource was modified concurrently, please retry", LocalDateTime.now()));
+    }
+
+    @ExceptionHandler(AuthenticationBusyException.class)
+    public ResponseEntity<ErrorResponse> handleAuthenticationBusy(AuthenticationBusyException ex) {
+        countRejection(ex);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ErrorResponse(ex.getMessage(), LocalDateTime.now()));
+    }
+
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<ErrorResponse> handleAccessDenied(AccessDeniedException ex) {
+        return reject(ex, HttpStatus.FORBIDDEN);
     }
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<?> handleGeneric(Exception e) {
+        countRejection(e);
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(new ErrorResponse(e.getMessage(), LocalDateTime.now()));
     }
+
+    private ResponseEntity<ErrorResponse> reject(Exception e, HttpStatus status) {
+        countRejection(e);
+        return new ResponseEntity<>(new ErrorResponse(e.getMessage(), LocalDateTime.now()), status);
+    }
+
+    private void countRejection(Exception e) {
+        meterRegistry.counter("bank.requests.rejected", "exception", e.getClass().getSimpleName()).increment();
+    }
 }
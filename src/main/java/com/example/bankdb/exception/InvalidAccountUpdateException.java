@@ -0,0 +1,7 @@
+package com.example.bankdb.exception;
+
+public class InvalidAccountUpdateException extends RuntimeException {
+    public InvalidAccountUpdateException(String message) {
+        super(message);
+    }
+}
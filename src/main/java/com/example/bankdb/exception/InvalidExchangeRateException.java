@@ -0,0 +1,7 @@
+package com.example.bankdb.exception;
+
+public class InvalidExchangeRateException extends RuntimeException {
+    public InvalidExchangeRateException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.bankdb.exception;
+
+public class InvalidImportFileException extends RuntimeException {
+    public InvalidImportFileException(String message) {
+        super(message);
+    }
+}
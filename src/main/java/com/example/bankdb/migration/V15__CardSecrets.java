@@ -0,0 +1,84 @@
+package com.example.bankdb.migration;
+
+import com.example.bankdb.service.PanEncryptionService;
+import lombok.RequiredArgsConstructor;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Kart nomresi kesdeki cards setrinden card_secrets-e kocurulur: nomre kopyalanarken AES-GCM ile sifrelenir,
+// CVV kopyalanmir, sonra her iki sutun cards-dan silinir. Acar muhitden geldiyi ucun SQL deyil, Java
+// miqrasiyasidir; Spring Boot JavaMigration bean-lerini Flyway-e verir.
+@Component
+@RequiredArgsConstructor
+public class V15__CardSecrets extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final PanEncryptionService panEncryptionService;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE IF NOT EXISTS card_secrets
+                    (
+                        card_id        BIGINT PRIMARY KEY REFERENCES cards (id) ON DELETE CASCADE,
+                        pan_ciphertext VARCHAR(255)
+                    )""");
+        }
+        if (hasCardNumberColumn(connection)) {
+            copyEncrypted(connection);
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE cards DROP COLUMN IF EXISTS card_number");
+            statement.execute("ALTER TABLE cards DROP COLUMN IF EXISTS cvv");
+        }
+    }
+
+    // id sirasi ile keyset: boyuk cedvel yaddasa yuklenmir
+    private void copyEncrypted(Connection connection) throws SQLException {
+        long lastId = 0;
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id, card_number FROM cards WHERE card_number IS NOT NULL AND id > ? ORDER BY id LIMIT " + BATCH_SIZE);
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO card_secrets (card_id, pan_ciphertext) VALUES (?, ?) ON CONFLICT (card_id) DO NOTHING")) {
+            while (true) {
+                select.setLong(1, lastId);
+                int rows = 0;
+                try (ResultSet result = select.executeQuery()) {
+                    while (result.next()) {
+                        lastId = result.getLong(1);
+                        insert.setLong(1, lastId);
+                        insert.setString(2, panEncryptionService.encrypt(result.getString(2)));
+                        insert.addBatch();
+                        rows++;
+                    }
+                }
+                if (rows == 0) {
+                    return;
+                }
+                insert.executeBatch();
+            }
+        }
+    }
+
+    private static boolean hasCardNumberColumn(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("""
+                     SELECT 1
+                     FROM information_schema.columns
+                     WHERE table_schema = current_schema()
+                       AND table_name = 'cards'
+                       AND column_name = 'card_number'""")) {
+            return result.next();
+        }
+    }
+}
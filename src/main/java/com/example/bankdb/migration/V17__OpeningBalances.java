@@ -0,0 +1,207 @@
+package com.example.bankdb.migration;
+
+import com.example.bankdb.service.LedgerArchiveService;
+import com.example.bankdb.util.LedgerArchiveFile;
+import com.example.bankdb.util.LongLongHashMap;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Ilkin balansi emeliyyat kimi yazilmamis kohne hesablar ucun "Opening balance" emeliyyati: mebleg balansin
+// ledger-den (transaction cedveli + arxiv fayllari) ferqidir, vaxt hesabin ilk emeliyyatindan bir mikrosaniye
+// evveldir. Posting-leri startup backfill-i yazir. Butun emeliyyatlarinin posting-i olan hesablarin
+// balance_after zenciri yeni acilis balansindan yeniden hesablanir.
+// Sonda balansi posting-siz deyisen tranzaksiyani commit-de redd eden trigger yaradilir.
+// Arxiv totallari ucun fayllar birbasa oxunur: LedgerArchiveService JdbcTemplate-den, o ise Flyway-den asilidir.
+@Component
+public class V17__OpeningBalances extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 1000;
+
+    // Qepikle: hesabin balansi ile transaction cedvelindeki ledger cemi arasindaki ferq
+    private static final String LEDGER_GAPS_SQL = """
+            SELECT a.id, ROUND(a.balance * 100)::bigint - COALESCE(l.total, 0), l.first_at
+            FROM bank_accounts a
+            LEFT JOIN (SELECT account_id, SUM(amount) AS total, MIN(posted_at) AS first_at
+                       FROM (SELECT from_account_id AS account_id, -ROUND(amount * 100)::bigint AS amount,
+                                    timestamp AS posted_at
+                             FROM transaction
+                             WHERE from_account_id IS NOT NULL
+                             UNION ALL
+                             SELECT to_account_id, ROUND(COALESCE(converted_amount, amount) * 100)::bigint, timestamp
+                             FROM transaction
+                             WHERE to_account_id IS NOT NULL) ledger
+                       GROUP BY account_id) l ON l.account_id = a.id
+            WHERE a.balance IS NOT NULL
+            """;
+
+    // Butun emeliyyatlarinin posting-i olan hesablar: zencir balance - posting cemi (arxiv + acilis) ile baslayir
+    private static final String RECHAIN_SQL = """
+            WITH posted AS (
+                SELECT a.id, a.balance
+                FROM bank_accounts a
+                WHERE a.id = ANY (?)
+                  AND NOT EXISTS (SELECT 1 FROM transaction t
+                                  WHERE (t.from_account_id = a.id OR t.to_account_id = a.id)
+                                    AND NOT EXISTS (SELECT 1 FROM postings x WHERE x.transaction_id = t.id))
+            ), chain AS (
+                SELECT p.id,
+                       a.balance - SUM(p.amount) OVER (PARTITION BY p.account_id)
+                                 + SUM(p.amount) OVER (PARTITION BY p.account_id ORDER BY p.posted_at, p.id
+                                                       ROWS UNBOUNDED PRECEDING) AS balance_after
+                FROM postings p
+                JOIN posted a ON a.id = p.account_id
+            )
+            UPDATE postings p SET balance_after = c.balance_after
+            FROM chain c
+            WHERE p.id = c.id
+            """;
+
+    private static final String INSERT_OPENING_SQL = """
+            INSERT INTO transaction (from_account_id, to_account_id, amount, description, transaction_type, timestamp)
+            VALUES (?, ?, ?, 'Opening balance', ?, ?)
+            """;
+
+    // Deferred: balans ve posting eyni flush-da, ferqli sirada yazila biler; yoxlama commit-de olur.
+    // Posting bu tranzaksiyada yazilmis olmalidir (xmin) ve balance_after yeni balansa beraber olmalidir.
+    private static final String GUARD_SQL = """
+            CREATE OR REPLACE FUNCTION bank_accounts_balance_posted() RETURNS trigger AS $$
+            BEGIN
+                IF NOT EXISTS (SELECT 1 FROM postings p
+                               WHERE p.account_id = NEW.id
+                                 AND p.balance_after = NEW.balance
+                                 AND p.xmin::text::bigint = txid_current() % 4294967296) THEN
+                    RAISE EXCEPTION 'Balance of account % changed without a ledger posting', NEW.id
+                        USING ERRCODE = 'check_violation';
+                END IF;
+                RETURN NULL;
+            END;
+            $$ LANGUAGE plpgsql;
+
+            DROP TRIGGER IF EXISTS trg_bank_accounts_balance_posted ON bank_accounts;
+
+            CREATE CONSTRAINT TRIGGER trg_bank_accounts_balance_posted
+                AFTER UPDATE OF balance ON bank_accounts
+                DEFERRABLE INITIALLY DEFERRED
+                FOR EACH ROW
+                WHEN (OLD.balance IS DISTINCT FROM NEW.balance)
+                EXECUTE FUNCTION bank_accounts_balance_posted();
+            """;
+
+    @Value("${ledger-archive.directory:ledger-archive}")
+    private Path archiveDirectory;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        List<Gap> gaps = findGaps(connection, archivedTotals(connection));
+        for (int from = 0; from < gaps.size(); from += BATCH_SIZE) {
+            List<Gap> batch = gaps.subList(from, Math.min(from + BATCH_SIZE, gaps.size()));
+            rechain(connection, batch);
+            insertOpenings(connection, batch);
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(GUARD_SQL);
+        }
+    }
+
+    private List<Gap> findGaps(Connection connection, LongLongHashMap archived) throws SQLException {
+        List<Gap> gaps = new ArrayList<>();
+        try (PreparedStatement select = connection.prepareStatement(LEDGER_GAPS_SQL)) {
+            select.setFetchSize(10_000);
+            try (ResultSet result = select.executeQuery()) {
+                while (result.next()) {
+                    long accountId = result.getLong(1);
+                    long cents = result.getLong(2) - archived.get(accountId, 0);
+                    if (cents != 0) {
+                        Timestamp firstAt = result.getTimestamp(3);
+                        LocalDateTime at = firstAt != null ? firstAt.toLocalDateTime().minusNanos(1_000) : LocalDateTime.now();
+                        gaps.add(new Gap(accountId, cents, at));
+                    }
+                }
+            }
+        }
+        return gaps;
+    }
+
+    // ".pending" marker-li faylin setirlerinden yalniz bazadan artiq silinmis emeliyyatlar sayilir
+    private LongLongHashMap archivedTotals(Connection connection) throws IOException, SQLException {
+        LongLongHashMap totals = new LongLongHashMap();
+        for (Path path : LedgerArchiveService.listFiles(archiveDirectory)) {
+            LedgerArchiveFile file = LedgerArchiveFile.open(path);
+            Set<Long> stillInDatabase = LedgerArchiveService.isPending(path) ? existingTransactions(connection, file) : Set.of();
+            file.forEach(row -> {
+                if (!stillInDatabase.contains(row.transactionId())) {
+                    totals.addTo(row.accountId(), row.amount().movePointRight(2).longValueExact());
+                }
+            });
+        }
+        return totals;
+    }
+
+    private static Set<Long> existingTransactions(Connection connection, LedgerArchiveFile file)
+            throws IOException, SQLException {
+        Set<Long> ids = new HashSet<>();
+        file.forEach(row -> ids.add(row.transactionId()));
+        Set<Long> existing = new HashSet<>();
+        try (PreparedStatement select = connection.prepareStatement("SELECT id FROM transaction WHERE id = ANY (?)")) {
+            select.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+            try (ResultSet result = select.executeQuery()) {
+                while (result.next()) {
+                    existing.add(result.getLong(1));
+                }
+            }
+        }
+        return existing;
+    }
+
+    private static void rechain(Connection connection, List<Gap> batch) throws SQLException {
+        Array ids = connection.createArrayOf("bigint", batch.stream().map(Gap::accountId).toArray());
+        try (PreparedStatement update = connection.prepareStatement(RECHAIN_SQL)) {
+            update.setArray(1, ids);
+            update.executeUpdate();
+        }
+    }
+
+    // Musbet ferq hesaba DEPOSIT, menfi ferq hesabdan WITHDRAW kimi yazilir
+    private static void insertOpenings(Connection connection, List<Gap> batch) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_OPENING_SQL)) {
+            for (Gap gap : batch) {
+                if (gap.cents() > 0) {
+                    insert.setNull(1, Types.BIGINT);
+                    insert.setLong(2, gap.accountId());
+                    insert.setString(4, "DEPOSIT");
+                } else {
+                    insert.setLong(1, gap.accountId());
+                    insert.setNull(2, Types.BIGINT);
+                    insert.setString(4, "WITHDRAW");
+                }
+                insert.setBigDecimal(3, BigDecimal.valueOf(Math.abs(gap.cents()), 2));
+                insert.setTimestamp(5, Timestamp.valueOf(gap.at()));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private record Gap(long accountId, long cents, LocalDateTime at) {
+    }
+}
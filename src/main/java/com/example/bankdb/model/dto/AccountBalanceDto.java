@@ -0,0 +1,17 @@
+package com.example.bankdb.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountBalanceDto {
+    private Long accountId;
+    private BigDecimal balance;
+    private LocalDateTime asOf;
+}
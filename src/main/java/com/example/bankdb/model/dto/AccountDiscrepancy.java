@@ -0,0 +1,17 @@
+package com.example.bankdb.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountDiscrepancy {
+    private Long accountId;
+    private BigDecimal balance;
+    private BigDecimal ledgerBalance;
+    private BigDecimal difference;
+}
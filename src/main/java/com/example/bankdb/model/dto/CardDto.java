@@ -5,6 +5,8 @@ import lombok.Data;
 @Data
 public class CardDto {
     private Long id;
+    // Maskalanmis nomre, xam PAN qaytarilmir
     private String cardNumber;
+    private String cardToken;
     private String expiryDate;
 }
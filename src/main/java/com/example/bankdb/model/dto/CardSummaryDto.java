@@ -5,7 +5,9 @@ import lombok.Data;
 @Data
 public class CardSummaryDto {
     private Long id;
+    // Maskalanmis nomre, xam PAN qaytarilmir
     private String cardNumber;
+    private String cardToken;
     private String expiryDate;
 }
 
@@ -14,6 +14,9 @@ public class CardToCardRequest {
     @Schema(description = "Destination card ID", example = "12")
     private Long destinationCardId;
 
+    @Schema(description = "Destination card number, used when destination card ID is not given", example = "5555555555554444")
+    private String destinationCardNumber;
+
     @Schema(description = "Amount to transfer", example = "120.00")
     private BigDecimal amount;
 
@@ -1,6 +1,7 @@
 package com.example.bankdb.model.dto;
 
 import com.example.bankdb.model.entity.enums.AccountType;
+import com.example.bankdb.model.entity.enums.CurrencyType;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -21,4 +22,7 @@ public class CreateAccountRequest {
     @NotNull
     @DecimalMin(value = "0.0")
     private BigDecimal initialBalance;
+
+    // Gonderilmese AZN
+    private CurrencyType currencyType;
 }
@@ -16,10 +16,6 @@ public class CreateCardRequest {
     @Pattern(regexp = "\\d{16}", message = "Card number must be 16 digits")
     private String cardNumber;
 
-    @NotBlank
-    @Pattern(regexp = "\\d{3}", message = "CVV must be 3 digits")
-    private String cvv;
-
     @NotNull
     private LocalDate expiryDate;
 }
@@ -0,0 +1,40 @@
+package com.example.bankdb.model.dto;
+
+import com.example.bankdb.model.entity.enums.StandingOrderFrequency;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class CreateStandingOrderRequest {
+
+    @NotNull
+    @Schema(description = "Sender account ID", example = "1")
+    private Long sourceAccountId;
+
+    @NotNull
+    @Schema(description = "Receiver account ID", example = "2")
+    private Long destinationAccountId;
+
+    @NotNull
+    @DecimalMin(value = "0.01")
+    @Schema(description = "Amount of every execution", example = "500.00")
+    private BigDecimal amount;
+
+    @Schema(description = "Transfer description", example = "Monthly rent")
+    private String description;
+
+    @NotNull
+    @Schema(description = "Execution frequency", example = "MONTHLY")
+    private StandingOrderFrequency frequency;
+
+    @Schema(description = "First execution time, defaults to now", example = "2025-08-01T09:00:00")
+    private LocalDateTime firstExecutionAt;
+
+    @Schema(description = "No executions after this time; empty means no end date", example = "2026-08-01T00:00:00")
+    private LocalDateTime endDate;
+}
@@ -0,0 +1,26 @@
+package com.example.bankdb.model.dto;
+
+import com.example.bankdb.model.entity.enums.CurrencyType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class ExchangeRateRequest {
+
+    @NotNull
+    @Schema(description = "Base currency", example = "USD")
+    private CurrencyType baseCurrency;
+
+    @NotNull
+    @Schema(description = "Quote currency", example = "AZN")
+    private CurrencyType quoteCurrency;
+
+    @NotNull
+    @DecimalMin(value = "0.0", inclusive = false)
+    @Schema(description = "Amount of quote currency for one unit of base currency", example = "1.70")
+    private BigDecimal rate;
+}
@@ -0,0 +1,25 @@
+package com.example.bankdb.model.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ImportReport {
+
+    public enum Type { USERS, ACCOUNTS, CARDS }
+
+    private Type type;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsFailed;
+    private double rowsPerSecond;
+    // Ilk max-reported-errors setir xetasi; qalanlari yalniz rowsFailed-de sayilir
+    private List<ImportRowError> errors = new ArrayList<>();
+}
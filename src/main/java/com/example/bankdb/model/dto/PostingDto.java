@@ -0,0 +1,22 @@
+package com.example.bankdb.model.dto;
+
+import com.example.bankdb.model.entity.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostingDto {
+    private Long id;
+    private Long transactionId;
+    private BigDecimal amount;
+    private BigDecimal balanceAfter;
+    private LocalDateTime postedAt;
+    private TransactionType transactionType;
+    private String description;
+}
@@ -0,0 +1,26 @@
+package com.example.bankdb.model.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ReconciliationReport {
+
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    private Status status;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private int partitions;
+    private long ledgerRowsScanned;
+    private long accountsChecked;
+    // Scan zamani ferq gorunen hesablar; onlardan max-reported-discrepancies qederi snapshot-da yeniden yoxlanilir
+    private long suspectCount;
+    private long discrepancyCount;
+    private List<AccountDiscrepancy> discrepancies = List.of();
+    private String error;
+}
@@ -0,0 +1,27 @@
+package com.example.bankdb.model.dto;
+
+import com.example.bankdb.model.entity.enums.StandingOrderFrequency;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StandingOrderDto {
+    private Long id;
+    private Long sourceAccountId;
+    private Long destinationAccountId;
+    private BigDecimal amount;
+    private String description;
+    private StandingOrderFrequency frequency;
+    private LocalDateTime nextExecutionAt;
+    private LocalDateTime endDate;
+    private boolean active;
+    private int failureCount;
+    private String lastError;
+    private LocalDateTime lastExecutedAt;
+}
@@ -1,14 +1,19 @@
 package com.example.bankdb.model.dto;
 
+import com.example.bankdb.model.entity.enums.TransactionType;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
 public class TransactionDto {
     private Long id;
     private BigDecimal amount;
+    private BigDecimal convertedAmount;
+    private Long exchangeRateId;
     private String description;
     private LocalDateTime timestamp;
     private Long fromAccountId;
@@ -16,4 +21,21 @@ public class TransactionDto {
     private Long fromCardId;
     private Long toCardId;
     private String transactionType;
+
+    // PostingRepository.findHistoryByAccountId-in JPQL konstruktor ifadesi ucun
+    public TransactionDto(Long id, BigDecimal amount, BigDecimal convertedAmount, Long exchangeRateId,
+                          String description, LocalDateTime timestamp, Long fromAccountId, Long toAccountId,
+                          Long fromCardId, Long toCardId, TransactionType transactionType) {
+        this.id = id;
+        this.amount = amount;
+        this.convertedAmount = convertedAmount;
+        this.exchangeRateId = exchangeRateId;
+        this.description = description;
+        this.timestamp = timestamp;
+        this.fromAccountId = fromAccountId;
+        this.toAccountId = toAccountId;
+        this.fromCardId = fromCardId;
+        this.toCardId = toCardId;
+        this.transactionType = transactionType.name();
+    }
 }
@@ -0,0 +1,19 @@
+package com.example.bankdb.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Neticeler (timestamp, id) uzre yeniden kohneye siralanir; novbeti sehife ucun nextBeforeTimestamp ve
+// nextBeforeId beforeTimestamp/beforeId kimi gonderilir, son sehifede ikisi de null-dur.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionPageDto {
+    private List<TransactionDto> transactions;
+    private LocalDateTime nextBeforeTimestamp;
+    private Long nextBeforeId;
+}
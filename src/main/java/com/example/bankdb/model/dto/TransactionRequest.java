@@ -12,6 +12,7 @@ public class TransactionRequest {
     private Long destinationAccountId;
     private Long sourceCardId;
     private Long destinationCardId;
+    private String destinationCardNumber;
     private BigDecimal amount;
 
 
@@ -0,0 +1,25 @@
+package com.example.bankdb.model.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class UserDeletionJobDto {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private String jobId;
+    private Status status;
+    private int totalUsers;
+    private int deletedUsers;
+    private int failedUsers;
+    // Butun cedveller uzre silinen ve ya ayrilan (counterparty FK null edilen) setirler
+    private long affectedRows;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+    private List<String> errors;
+}
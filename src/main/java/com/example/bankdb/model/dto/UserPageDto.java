@@ -0,0 +1,16 @@
+package com.example.bankdb.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Keyset sehifeleme: novbeti sehife ucun nextCursor afterId kimi gonderilir, son sehifede null-dur.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserPageDto {
+    private List<UserSummaryDto> users;
+    private Long nextCursor;
+}
@@ -1,5 +1,6 @@
 package com.example.bankdb.model.entity;
 
+import com.example.bankdb.config.SecondLevelCacheConfig;
 import com.example.bankdb.model.entity.enums.AccountType;
 import com.example.bankdb.model.entity.enums.CurrencyType;
 import com.fasterxml.jackson.annotation.JsonBackReference;
@@ -8,6 +9,8 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -17,7 +20,9 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "bank_accounts")
+@Table(name = "bank_accounts", indexes = {
+        @Index(name = "idx_bank_accounts_account_number", columnList = "account_number")
+})
 public class BankAccount {
 
     @Id
@@ -50,7 +55,9 @@ public class BankAccount {
     @JsonBackReference
     private User owner;
 
+    // Kart yazilanda (auto_evict_collection_cache) ve ya JDBC ile import/silmede kesden atilir
     @OneToMany(mappedBy = "linkedAccount", cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.ACCOUNT_CARDS_REGION)
     private List<Card> cards;
 
     @OneToMany(mappedBy = "fromAccount", cascade = CascadeType.ALL)
@@ -58,4 +65,9 @@ public class BankAccount {
     private List<Transaction> transactions;
 
     private LocalDate lastInterestAppliedDate;
+
+    // Optimistic lock ve ETag ucun; her yenilenmede artir
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private Long version;
 }
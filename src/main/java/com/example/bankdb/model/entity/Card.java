@@ -1,28 +1,47 @@
 package com.example.bankdb.model.entity;
 
+import com.example.bankdb.config.SecondLevelCacheConfig;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+// Sifrelenmis nomre kesde saxlanilmasin deye CardSecret-dedir (card_secrets cedveli); CVV saxlanilmir
 @Entity
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "cards")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.CARDS_REGION)
 public class Card {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    private String cardNumber;
-
     private String expiryDate;
 
-    private String cvv;
+    // PAN-in HMAC-SHA256 fingerprint-i, nomreye gore axtaris bu unikal indeksle edilir
+    @JsonIgnore
+    @Column(name = "pan_fingerprint", unique = true, length = 64)
+    private String panFingerprint;
+
+    @Column(name = "pan_token", unique = true, length = 40)
+    private String panToken;
 
-    @ManyToOne
+    @Column(name = "last_four", length = 4)
+    private String lastFour;
+
+    // Kart kesden oxunanda hesab (balans) ayrica yuklenmesin deye LAZY
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "account_id")
     private BankAccount linkedAccount;
+
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private Long version;
 }
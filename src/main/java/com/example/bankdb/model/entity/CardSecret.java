@@ -0,0 +1,39 @@
+package com.example.bankdb.model.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+// Kartin sifrelenmis nomresi (PanEncryptionService); CVV hec yerde saxlanilmir. Card ikinci seviyye kesde
+// saxlanilir, bu entity ise kese qoyulmur; yalniz yaradanda, nomre deyisende ve fingerprint backfill-inde oxunur.
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "card_secrets")
+public class CardSecret {
+
+    @Id
+    @Column(name = "card_id")
+    private Long cardId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "card_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JsonIgnore
+    private Card card;
+
+    @JsonIgnore
+    @Column(name = "pan_ciphertext")
+    private String panCiphertext;
+
+    public CardSecret(Card card, String panCiphertext) {
+        this.card = card;
+        this.panCiphertext = panCiphertext;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.bankdb.model.entity;
+
+import com.example.bankdb.config.SecondLevelCacheConfig;
+import com.example.bankdb.model.entity.enums.CurrencyType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+// Setirler deyisdirilmir: yeni kurs yeni setirdir, cutun cari kursu en boyuk id-li setirdir
+@Table(name = "exchange_rates")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = SecondLevelCacheConfig.EXCHANGE_RATES_REGION)
+public class ExchangeRate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "base_currency", nullable = false)
+    private CurrencyType baseCurrency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "quote_currency", nullable = false)
+    private CurrencyType quoteCurrency;
+
+    // 1 base = rate quote
+    @Column(nullable = false, precision = 27, scale = 16)
+    private BigDecimal rate;
+
+    private LocalDateTime updatedAt;
+
+    // Ters istiqamet ucun hesablanmis setirde birbasa kursun id-si; admin-in verdiyi kursda null
+    @Column(name = "inverse_of_id")
+    private Long inverseOfId;
+}
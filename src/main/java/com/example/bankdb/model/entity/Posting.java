@@ -0,0 +1,50 @@
+package com.example.bankdb.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Ledger-in hesab uzre bir terefi: her Transaction ucun hesab basina bir setir.
+// Mebleg isareli saxlanilir (debet menfi, kredit musbet), balanceAfter emeliyyatdan sonraki balansdir.
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "postings", indexes = {
+        @Index(name = "idx_postings_account_posted_at", columnList = "account_id, posted_at"),
+        @Index(name = "idx_postings_transaction_id", columnList = "transaction_id")
+})
+public class Posting {
+
+    // IDENTITY insert batching-i sondurur; sequence ile iki posting bir batch-da yazilir
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "postings_seq")
+    @SequenceGenerator(name = "postings_seq", sequenceName = "postings_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "transaction_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Transaction transaction;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "account_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private BankAccount account;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    // Kohne emeliyyatlar ucun backfill zamani ledger cemi ile hesablanir
+    @Column(name = "balance_after")
+    private BigDecimal balanceAfter;
+
+    @Column(name = "posted_at", nullable = false)
+    private LocalDateTime postedAt;
+}
@@ -10,6 +10,9 @@ import java.time.Instant;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Table(name = "refresh_token", indexes = {
+        @Index(name = "idx_refresh_token_expiry_date", columnList = "expiry_date")
+})
 public class RefreshToken {
 
     @Id
@@ -20,9 +23,13 @@ public class RefreshToken {
     @JoinColumn(name = "user_id", referencedColumnName = "id", unique = true)
     private User user;
 
-    @Column(nullable = false, unique = true)
+    // Raw token yalniz yaradilanda movcuddur, DB-de ancaq SHA-256 hash saxlanilir.
+    @Transient
     private String token;
 
-    @Column(nullable = false)
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @Column(name = "expiry_date", nullable = false)
     private Instant expiryDate;
 }
@@ -0,0 +1,71 @@
+package com.example.bankdb.model.entity;
+
+import com.example.bankdb.model.entity.enums.StandingOrderFrequency;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Daimi tapsiriq: sourceAccount-dan destinationAccount-a muntezem kocurme.
+// Planlayici yalniz nextExecutionAt uzre skan edir, ona gore bu sutun indekslenib.
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "standing_orders", indexes = {
+        @Index(name = "idx_standing_orders_next_execution_at", columnList = "next_execution_at, id"),
+        @Index(name = "idx_standing_orders_source_account_id", columnList = "source_account_id")
+})
+public class StandingOrder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "source_account_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private BankAccount sourceAccount;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "destination_account_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private BankAccount destinationAccount;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StandingOrderFrequency frequency;
+
+    @Column(name = "next_execution_at", nullable = false)
+    private LocalDateTime nextExecutionAt;
+
+    // Bu andan sonra tapsiriq icra olunmur; null - muddetsiz
+    @Column(name = "end_date")
+    private LocalDateTime endDate;
+
+    @Column(nullable = false)
+    private boolean active;
+
+    // Ardicil ugursuz cehdler; ugurlu icrada sifirlanir
+    @Column(name = "failure_count", nullable = false)
+    private int failureCount;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    @Column(name = "last_executed_at")
+    private LocalDateTime lastExecutedAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
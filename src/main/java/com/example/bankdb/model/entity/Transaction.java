@@ -35,6 +35,11 @@ public class Transaction {
 
     private BigDecimal amount;
 
+    // Valyutalar ferqli olanda qebul eden hesaba yazilan mebleg ve istifade olunan kurs
+    private BigDecimal convertedAmount;
+
+    private Long exchangeRateId;
+
     private String description;
 
     @Enumerated(EnumType.STRING)
@@ -0,0 +1,17 @@
+package com.example.bankdb.model.entity.enums;
+
+import java.time.LocalDateTime;
+
+public enum StandingOrderFrequency {
+    DAILY,
+    WEEKLY,
+    MONTHLY;
+
+    public LocalDateTime next(LocalDateTime from) {
+        return switch (this) {
+            case DAILY -> from.plusDays(1);
+            case WEEKLY -> from.plusWeeks(1);
+            case MONTHLY -> from.plusMonths(1);
+        };
+    }
+}
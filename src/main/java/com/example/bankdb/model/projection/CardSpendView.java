@@ -0,0 +1,12 @@
+package com.example.bankdb.model.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public interface CardSpendView {
+    Long getCardId();
+
+    BigDecimal getAmount();
+
+    LocalDateTime getTimestamp();
+}
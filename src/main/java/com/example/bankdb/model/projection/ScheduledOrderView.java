@@ -0,0 +1,11 @@
+package com.example.bankdb.model.projection;
+
+import java.time.LocalDateTime;
+
+public interface ScheduledOrderView {
+    Long getId();
+
+    Long getSourceAccountId();
+
+    LocalDateTime getNextExecutionAt();
+}
@@ -0,0 +1,13 @@
+package com.example.bankdb.model.projection;
+
+import com.example.bankdb.model.entity.enums.Role;
+
+public interface UserSummaryView {
+    Long getId();
+
+    String getUsername();
+
+    String getEmail();
+
+    Role getRole();
+}
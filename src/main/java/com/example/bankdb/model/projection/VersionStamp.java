@@ -0,0 +1,18 @@
+package com.example.bankdb.model.projection;
+
+// Resurs toplusunun versiyasi: setir sayi, entity versiyalarinin cemi ve en boyuk id.
+// Elave, silme ve ya her hansi yenilenme bu uc deyerden en azi birini deyisir.
+public interface VersionStamp {
+    long getRowCount();
+
+    long getVersionSum();
+
+    long getMaxId();
+
+    // Dirnaq isaresi WebRequest.checkNotModified ve ResponseEntity.eTag terefinden elave olunur
+    default String toETag(String prefix) {
+        return prefix + "-" + Long.toHexString(getRowCount())
+                + "-" + Long.toHexString(getVersionSum())
+                + "-" + Long.toHexString(getMaxId());
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.bankdb.monitoring;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Endpoint-in bir HTTP sorgusunda icra ede bileceyi maksimum SQL statement sayi.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+    int value();
+}
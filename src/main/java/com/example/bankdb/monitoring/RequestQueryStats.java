@@ -0,0 +1,48 @@
+package com.example.bankdb.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+public class RequestQueryStats {
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private final String endpoint;
+    private int queryCount;
+    private long queryTimeMs;
+    @Setter
+    private int budget;
+    @Setter
+    private boolean budgetReported;
+
+    private RequestQueryStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public static RequestQueryStats start(String endpoint) {
+        RequestQueryStats stats = new RequestQueryStats(endpoint);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static RequestQueryStats current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    int incrementQueryCount() {
+        return ++queryCount;
+    }
+
+    void addQueryTime(long elapsedMs) {
+        queryTimeMs += elapsedMs;
+    }
+
+    public boolean isOverBudget() {
+        return budget > 0 && queryCount > budget;
+    }
+}
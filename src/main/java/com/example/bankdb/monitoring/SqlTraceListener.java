@@ -0,0 +1,68 @@
+package com.example.bankdb.monitoring;
+
+import com.example.bankdb.exception.QueryBudgetExceededException;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+// show-sql evezine: yalniz yavas ve ya sample-a dusen statement-ler log olunur.
+@Slf4j
+@Component
+public class SqlTraceListener implements QueryExecutionListener {
+
+    @Value("${sql-trace.slow-query-threshold-ms:200}")
+    private long slowQueryThresholdMs;
+
+    @Value("${sql-trace.sample-rate:0.0}")
+    private double sampleRate;
+
+    @Value("${sql-trace.fail-on-budget-exceeded:false}")
+    private boolean failOnBudgetExceeded;
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats == null) {
+            return;
+        }
+
+        int count = stats.incrementQueryCount();
+        if (stats.isOverBudget() && !stats.isBudgetReported()) {
+            stats.setBudgetReported(true);
+            String message = String.format("Query budget exceeded for %s: %d > %d",
+                    stats.getEndpoint(), count, stats.getBudget());
+            log.warn(message);
+            if (failOnBudgetExceeded) {
+                throw new QueryBudgetExceededException(message);
+            }
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsedMs = execInfo.getElapsedTime();
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null) {
+            stats.addQueryTime(elapsedMs);
+        }
+
+        if (elapsedMs >= slowQueryThresholdMs) {
+            log.warn("Slow query ({} ms, success={}): {}", elapsedMs, execInfo.isSuccess(), sql(queryInfoList));
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.info("Sampled query ({} ms): {}", elapsedMs, sql(queryInfoList));
+        }
+    }
+
+    private String sql(List<QueryInfo> queryInfoList) {
+        return queryInfoList.stream()
+                .map(QueryInfo::getQuery)
+                .collect(Collectors.joining("; "));
+    }
+}
@@ -1,10 +1,25 @@
 package com.example.bankdb.repository;
 
 import com.example.bankdb.model.entity.BankAccount;
+import com.example.bankdb.model.projection.VersionStamp;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 public interface BankAccountRepository extends JpaRepository<BankAccount, Long> {
     List<BankAccount> findByOwnerId(Long userId);
+
+    @Query("select a.owner.id from BankAccount a where a.id = :accountId")
+    Optional<Long> findOwnerIdById(@Param("accountId") Long accountId);
+
+    @Query("select a.balance from BankAccount a where a.id = :accountId")
+    Optional<BigDecimal> findBalanceById(@Param("accountId") Long accountId);
+
+    @Query("select count(a) as rowCount, coalesce(sum(a.version), 0) as versionSum, coalesce(max(a.id), 0) as maxId " +
+            "from BankAccount a where a.owner.username = :username")
+    VersionStamp findVersionStampByOwnerUsername(@Param("username") String username);
 }
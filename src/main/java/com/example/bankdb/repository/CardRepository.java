@@ -1,12 +1,42 @@
 package com.example.bankdb.repository;
 
 import com.example.bankdb.model.entity.Card;
+import com.example.bankdb.model.projection.VersionStamp;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
 
 public interface CardRepository extends JpaRepository<Card, Long> {
+    // cards cedveli seyrek deyisir, query cache yalniz bu cedvele yazilanda invalidasiya olunur
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<Card> findByLinkedAccount_Id(Long accountId);
 
     long countByLinkedAccount_Id(Long accountId);
+
+    Optional<Card> findByPanFingerprint(String panFingerprint);
+
+    boolean existsByPanFingerprint(String panFingerprint);
+
+    @Query("select c.panFingerprint from Card c where c.panFingerprint in :fingerprints")
+    List<String> findExistingPanFingerprints(@Param("fingerprints") Collection<String> fingerprints);
+
+    @Query("select c.linkedAccount.owner.id from Card c where c.id = :cardId")
+    Optional<Long> findOwnerIdById(@Param("cardId") Long cardId);
+
+    @Query("select count(c) as rowCount, coalesce(sum(c.version), 0) as versionSum, coalesce(max(c.id), 0) as maxId " +
+            "from Card c where c.linkedAccount.id = :accountId")
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    VersionStamp findVersionStampByAccountId(@Param("accountId") Long accountId);
+
+    @Query("select count(c) as rowCount, coalesce(sum(c.version), 0) as versionSum, coalesce(max(c.id), 0) as maxId " +
+            "from Card c where c.linkedAccount.owner.username = :username")
+    VersionStamp findVersionStampByOwnerUsername(@Param("username") String username);
 }
@@ -0,0 +1,17 @@
+package com.example.bankdb.repository;
+
+import com.example.bankdb.model.entity.CardSecret;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface CardSecretRepository extends JpaRepository<CardSecret, Long> {
+
+    // Fingerprint backfill-i: kart id sirasi ile keyset, kart eyni sorguda yuklenir
+    @Query("select s from CardSecret s join fetch s.card c " +
+            "where c.panFingerprint is null and s.panCiphertext is not null and s.cardId > :afterId order by s.cardId")
+    List<CardSecret> findWithoutFingerprint(@Param("afterId") Long afterId, Pageable pageable);
+}
@@ -0,0 +1,20 @@
+package com.example.bankdb.repository;
+
+import com.example.bankdb.model.entity.ExchangeRate;
+import com.example.bankdb.model.entity.enums.CurrencyType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, Long> {
+
+    // Her istiqametin en son elave olunan setri
+    @Query("select r from ExchangeRate r where r.id in " +
+            "(select max(l.id) from ExchangeRate l group by l.baseCurrency, l.quoteCurrency)")
+    List<ExchangeRate> findLatestRates();
+
+    Optional<ExchangeRate> findFirstByBaseCurrencyAndQuoteCurrencyOrderByIdDesc(CurrencyType baseCurrency,
+                                                                               CurrencyType quoteCurrency);
+}
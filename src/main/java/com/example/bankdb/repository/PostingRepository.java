@@ -0,0 +1,88 @@
+package com.example.bankdb.repository;
+
+import com.example.bankdb.model.dto.PostingDto;
+import com.example.bankdb.model.dto.TransactionDto;
+import com.example.bankdb.model.entity.Posting;
+import com.example.bankdb.model.projection.VersionStamp;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// Butun sorgular (account_id, posted_at) indeksi uzre tek sutunlu aralig skanidir.
+public interface PostingRepository extends JpaRepository<Posting, Long> {
+
+    // DTO projeksiyasi: Transaction entity-si yuklenmir, EAGER hesab/kart elaqeleri her setir ucun ayrica
+    // sorgu ile oxunmur. Hesab/kart id-leri xarici acar sutunlarindan gelir (join yoxdur).
+    @Query("select new com.example.bankdb.model.dto.TransactionDto(t.id, t.amount, t.convertedAmount, " +
+            "t.exchangeRateId, t.description, t.timestamp, t.fromAccount.id, t.toAccount.id, " +
+            "t.fromCard.id, t.toCard.id, t.transactionType) " +
+            "from Posting p join p.transaction t " +
+            "where p.account.id = :accountId order by p.postedAt desc, p.id desc")
+    List<TransactionDto> findHistoryByAccountId(@Param("accountId") Long accountId);
+
+    @Query("select new com.example.bankdb.model.dto.PostingDto(p.id, t.id, p.amount, p.balanceAfter, p.postedAt, " +
+            "t.transactionType, t.description) " +
+            "from Posting p join p.transaction t " +
+            "where p.account.id = :accountId and p.postedAt >= :from and p.postedAt < :to " +
+            "order by p.postedAt, p.id")
+    List<PostingDto> findStatement(@Param("accountId") Long accountId,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to);
+
+    // Posting-ler yalniz elave olunur, ona gore en boyuk id hesabin tarixcesinin versiyasidir.
+    @Query("select count(p) as rowCount, 0L as versionSum, coalesce(max(p.id), 0) as maxId " +
+            "from Posting p where p.account.id = :accountId")
+    VersionStamp findVersionStampByAccountId(@Param("accountId") Long accountId);
+
+    Optional<Posting> findFirstByAccountIdAndPostedAtBeforeOrderByPostedAtDescIdDesc(Long accountId, LocalDateTime before);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM transaction t " +
+            "WHERE NOT EXISTS (SELECT 1 FROM postings p WHERE p.transaction_id = t.id))", nativeQuery = true)
+    boolean existsTransactionWithoutPostings();
+
+    // Postings cedvelinden evvelki emeliyyatlar ucun bir defelik doldurma. Kohne hesablarin ledger-i sifirdan
+    // baslamir (ilkin balans emeliyyat kimi yazilmayib), ona gore balance_after hesabin ledger-den cixan acilis
+    // balansindan (balance - butun emeliyyatlarin cemi) baslayan artan cemdir. Posting-i olmayan setirler
+    // postings cedvelinden evvelki dovre aiddir, yeni posting-lerin balance_after-i bu cemle uygun gelir.
+    @Modifying
+    @Query(value = """
+            WITH ledger AS (
+                SELECT t.id AS transaction_id, t.from_account_id AS account_id, -t.amount AS amount,
+                       t.timestamp AS posted_at
+                FROM transaction t
+                WHERE t.from_account_id IS NOT NULL
+                UNION ALL
+                SELECT t.id, t.to_account_id, COALESCE(t.converted_amount, t.amount), t.timestamp
+                FROM transaction t
+                WHERE t.to_account_id IS NOT NULL
+            ), missing AS (
+                SELECT l.* FROM ledger l
+                WHERE NOT EXISTS (SELECT 1 FROM postings p WHERE p.transaction_id = l.transaction_id)
+            ), opening AS (
+                SELECT a.id AS account_id, a.balance - COALESCE(SUM(l.amount), 0) AS balance
+                FROM bank_accounts a
+                LEFT JOIN ledger l ON l.account_id = a.id
+                WHERE a.id IN (SELECT account_id FROM missing)
+                GROUP BY a.id, a.balance
+            )
+            INSERT INTO postings (id, transaction_id, account_id, amount, balance_after, posted_at)
+            SELECT nextval('postings_seq'), m.transaction_id, m.account_id, m.amount,
+                   o.balance + SUM(m.amount) OVER (PARTITION BY m.account_id ORDER BY m.posted_at, m.transaction_id, m.amount
+                                                   ROWS UNBOUNDED PRECEDING),
+                   m.posted_at
+            FROM missing m
+            JOIN opening o ON o.account_id = m.account_id
+            """, nativeQuery = true)
+    int backfillMissingPostings();
+
+    // ddl-auto ile movcud postings cedveline sonradan yaradilan sequence 1-den baslayir;
+    // yalniz geride qalibsa en boyuk id-ye cekilir
+    @Query(value = "SELECT setval('postings_seq', m) FROM (SELECT MAX(id) AS m FROM postings) t " +
+            "WHERE m > (SELECT last_value FROM postings_seq)", nativeQuery = true)
+    List<Long> alignIdSequence();
+}
@@ -0,0 +1,151 @@
+package com.example.bankdb.repository;
+
+import com.example.bankdb.model.dto.TransactionDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Row;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Tarixcenin reaktiv (R2DBC) oxunusu. Setirler fetch-size hisselerle, istemci oxuduqca bazadan cekilir;
+// sorgu boyu ne request thread-i, ne de JDBC connection tutulur.
+// Pool bean kimi elan olunmur: ConnectionFactory bean-i olanda Spring Boot JDBC DataSource auto-config-ni sondurur.
+@Slf4j
+@Repository
+public class ReactiveTransactionHistoryRepository {
+
+    private static final String HISTORY_SQL = """
+            SELECT t.id, t.amount, t.converted_amount, t.exchange_rate_id, t.description, t.timestamp,
+                   t.from_account_id, t.to_account_id, t.from_card_id, t.to_card_id, t.transaction_type
+            FROM postings p
+            JOIN transaction t ON t.id = p.transaction_id
+            WHERE p.account_id = :accountId
+            ORDER BY p.posted_at DESC, p.id DESC
+            """;
+
+    // pgjdbc parametri -> r2dbc-postgresql URL opsiyasi (eyni menali olanlar)
+    private static final Map<String, String> JDBC_TO_R2DBC_OPTIONS = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        JDBC_TO_R2DBC_OPTIONS.put("sslmode", "sslMode");
+        JDBC_TO_R2DBC_OPTIONS.put("sslrootcert", "sslRootCert");
+        JDBC_TO_R2DBC_OPTIONS.put("sslcert", "sslCert");
+        JDBC_TO_R2DBC_OPTIONS.put("sslkey", "sslKey");
+        JDBC_TO_R2DBC_OPTIONS.put("sslpassword", "sslPassword");
+        JDBC_TO_R2DBC_OPTIONS.put("currentSchema", "schema");
+        JDBC_TO_R2DBC_OPTIONS.put("ApplicationName", "applicationName");
+    }
+
+    private final ConnectionPool pool;
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public ReactiveTransactionHistoryRepository(@Value("${spring.datasource.url}") String jdbcUrl,
+                                                @Value("${reactive-history.url:}") String r2dbcUrl,
+                                                @Value("${spring.datasource.username}") String username,
+                                                @Value("${spring.datasource.password}") String password,
+                                                @Value("${reactive-history.pool-max-size:10}") int poolMaxSize,
+                                                @Value("${reactive-history.fetch-size:256}") int fetchSize,
+                                                MeterRegistry meterRegistry) {
+        String url = r2dbcUrl.isBlank() ? toR2dbcUrl(jdbcUrl) : r2dbcUrl;
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("bank-db-r2dbc")
+                .initialSize(0)
+                .maxSize(poolMaxSize)
+                .maxIdleTime(Duration.ofMinutes(10))
+                .maxAcquireTime(Duration.ofSeconds(5))
+                .build());
+        this.databaseClient = DatabaseClient.create(pool);
+        this.fetchSize = fetchSize;
+        meterRegistry.gauge("bank.r2dbc.connections.acquired", pool,
+                p -> p.getMetrics().map(metrics -> metrics.acquiredSize()).orElse(0));
+    }
+
+    // Hesabin emeliyyatlari, yeniden kohneye (PostingRepository.findHistoryByAccountId ile eyni sira)
+    public Flux<TransactionDto> findHistory(long accountId) {
+        return databaseClient.sql(HISTORY_SQL)
+                .filter((statement, next) -> next.execute(statement.fetchSize(fetchSize)))
+                .bind("accountId", accountId)
+                .map((row, metadata) -> toDto(row))
+                .all();
+    }
+
+    @PreDestroy
+    void close() {
+        pool.dispose();
+    }
+
+    // jdbc:postgresql://host:port/db?... -> r2dbc:postgresql://host:port/db?...
+    // SSL, sxem ve tetbiq adi R2DBC adlarina cevrilir (ssl=true pgjdbc-deki kimi verify-full demekdir),
+    // connectTimeout saniyeden Duration-a; qarsiligi olmayan parametr xeberdarliqla atilir.
+    // Basqa ayar lazimdirsa reactive-history.url ile tam R2DBC URL verilir.
+    static String toR2dbcUrl(String jdbcUrl) {
+        String url = jdbcUrl.startsWith("jdbc:") ? jdbcUrl.substring("jdbc:".length()) : jdbcUrl;
+        int query = url.indexOf('?');
+        if (query < 0) {
+            return "r2dbc:" + url;
+        }
+        List<String> options = new ArrayList<>();
+        String ssl = null;
+        boolean sslModeSet = false;
+        for (String parameter : url.substring(query + 1).split("&")) {
+            if (parameter.isEmpty()) {
+                continue;
+            }
+            int equals = parameter.indexOf('=');
+            String name = equals >= 0 ? parameter.substring(0, equals) : parameter;
+            String value = equals >= 0 ? parameter.substring(equals + 1) : "";
+            String option = JDBC_TO_R2DBC_OPTIONS.get(name);
+            if (option != null) {
+                options.add(option + "=" + value);
+                sslModeSet |= option.equals("sslMode");
+            } else if (name.equalsIgnoreCase("ssl")) {
+                ssl = value;
+            } else if (name.equalsIgnoreCase("connectTimeout") && value.matches("\\d+")) {
+                options.add("connectTimeout=PT" + value + "S");
+            } else {
+                log.warn("JDBC URL parameter '{}' has no R2DBC equivalent and is ignored by the reactive history pool; "
+                        + "set reactive-history.url to configure it", name);
+            }
+        }
+        if (ssl != null && !sslModeSet) {
+            options.add("sslMode=" + (ssl.isEmpty() || ssl.equalsIgnoreCase("true") ? "verify-full" : "disable"));
+        }
+        return "r2dbc:" + url.substring(0, query) + (options.isEmpty() ? "" : "?" + String.join("&", options));
+    }
+
+    private static TransactionDto toDto(Row row) {
+        TransactionDto dto = new TransactionDto();
+        dto.setId(row.get("id", Long.class));
+        dto.setAmount(row.get("amount", BigDecimal.class));
+        dto.setConvertedAmount(row.get("converted_amount", BigDecimal.class));
+        dto.setExchangeRateId(row.get("exchange_rate_id", Long.class));
+        dto.setDescription(row.get("description", String.class));
+        dto.setTimestamp(row.get("timestamp", LocalDateTime.class));
+        dto.setFromAccountId(row.get("from_account_id", Long.class));
+        dto.setToAccountId(row.get("to_account_id", Long.class));
+        dto.setFromCardId(row.get("from_card_id", Long.class));
+        dto.setToCardId(row.get("to_card_id", Long.class));
+        dto.setTransactionType(row.get("transaction_type", String.class));
+        return dto;
+    }
+}
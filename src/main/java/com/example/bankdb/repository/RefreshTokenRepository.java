@@ -3,11 +3,42 @@ package com.example.bankdb.repository;
 import com.example.bankdb.model.entity.RefreshToken;
 import com.example.bankdb.model.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.Optional;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
     Optional<RefreshToken> findByUser(User user);
     void deleteByUser(User user);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO refresh_token (user_id, token_hash, expiry_date)
+            VALUES (:userId, :tokenHash, :expiryDate)
+            ON CONFLICT (user_id) DO UPDATE
+                SET token_hash = EXCLUDED.token_hash,
+                    expiry_date = EXCLUDED.expiry_date
+            """, nativeQuery = true)
+    void upsert(@Param("userId") Long userId,
+                @Param("tokenHash") String tokenHash,
+                @Param("expiryDate") Instant expiryDate);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            DELETE FROM refresh_token
+            WHERE id IN (
+                SELECT id FROM refresh_token
+                WHERE expiry_date < :now
+                LIMIT :batchSize
+                FOR UPDATE SKIP LOCKED
+            )
+            """, nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") Instant now, @Param("batchSize") int batchSize);
 }
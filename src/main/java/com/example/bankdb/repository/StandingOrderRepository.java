@@ -0,0 +1,64 @@
+package com.example.bankdb.repository;
+
+import com.example.bankdb.model.entity.StandingOrder;
+import com.example.bankdb.model.projection.ScheduledOrderView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface StandingOrderRepository extends JpaRepository<StandingOrder, Long> {
+
+    // Planlayicinin yukleyicisi: (next_execution_at, id) indeksi uzre keyset, entity yuklenmir
+    @Query("select o.id as id, o.sourceAccount.id as sourceAccountId, o.nextExecutionAt as nextExecutionAt " +
+            "from StandingOrder o where o.active = true and o.nextExecutionAt < :until " +
+            "and (o.nextExecutionAt > :afterTime or (o.nextExecutionAt = :afterTime and o.id > :afterId)) " +
+            "order by o.nextExecutionAt, o.id")
+    List<ScheduledOrderView> findDueBefore(@Param("until") LocalDateTime until,
+                                           @Param("afterTime") LocalDateTime afterTime,
+                                           @Param("afterId") Long afterId,
+                                           Pageable pageable);
+
+    @Query("select o from StandingOrder o where o.sourceAccount.id = :accountId order by o.id")
+    List<StandingOrder> findBySourceAccountId(@Param("accountId") Long accountId);
+
+    @Query("select o.sourceAccount.owner.id from StandingOrder o where o.id = :orderId")
+    Optional<Long> findOwnerIdById(@Param("orderId") Long orderId);
+
+    // Tapsiriq yalniz planlasdirilan vaxt deyismeyibse goturulur; eyni icra iki defe bas vermir.
+    // Sorgu setri tranzaksiya sonuna qeder kilidleyir.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update StandingOrder o set o.nextExecutionAt = :next, o.lastExecutedAt = :executedAt, " +
+            "o.failureCount = 0, o.lastError = null, o.active = :active " +
+            "where o.id = :orderId and o.active = true and o.nextExecutionAt = :expected")
+    int claim(@Param("orderId") Long orderId,
+              @Param("expected") LocalDateTime expected,
+              @Param("next") LocalDateTime next,
+              @Param("executedAt") LocalDateTime executedAt,
+              @Param("active") boolean active);
+
+    // Ugursuz icra novbeti dovre kecirilir; ardicil maxFailures ugursuzluqdan sonra ve ya dovr bitibse dayandirilir
+    @Modifying
+    @Query("update StandingOrder o set o.failureCount = o.failureCount + 1, o.lastError = :error, " +
+            "o.nextExecutionAt = :next, " +
+            "o.active = case when o.failureCount + 1 >= :maxFailures or :ended = true then false else o.active end " +
+            "where o.id = :orderId and o.nextExecutionAt = :expected")
+    int recordFailure(@Param("orderId") Long orderId,
+                      @Param("expected") LocalDateTime expected,
+                      @Param("next") LocalDateTime next,
+                      @Param("ended") boolean ended,
+                      @Param("error") String error,
+                      @Param("maxFailures") int maxFailures);
+
+    // Kecici xeta: dovr ve ugursuzluq sayi deyismir, yalniz son xeta yazilir
+    @Modifying
+    @Query("update StandingOrder o set o.lastError = :error where o.id = :orderId and o.nextExecutionAt = :expected")
+    int recordTransientFailure(@Param("orderId") Long orderId,
+                               @Param("expected") LocalDateTime expected,
+                               @Param("error") String error);
+}
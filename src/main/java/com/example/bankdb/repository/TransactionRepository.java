@@ -1,11 +1,21 @@
 package com.example.bankdb.repository;
 
 import com.example.bankdb.model.entity.Transaction;
+import com.example.bankdb.model.projection.CardSpendView;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
 
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    List<Transaction> findByFromAccountIdOrToAccountId(Long fromId, Long toId);
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
+public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+    @Query("select t.fromCard.id as cardId, t.amount as amount, t.timestamp as timestamp " +
+            "from Transaction t where t.fromCard is not null and t.timestamp >= :since")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<CardSpendView> streamCardSpendSince(@Param("since") LocalDateTime since);
 }
@@ -1,12 +1,39 @@
 package com.example.bankdb.repository;
 
 import com.example.bankdb.model.entity.User;
+import com.example.bankdb.model.projection.UserSummaryView;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+
 public interface UserRepository extends JpaRepository<User, Long> {
+    // JWT filter her sorguda istifadecini email/username ile axtarir; netice query cache-de, entity users region-undadir
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<User> findByUsername(String username);
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<User> findByEmail(String email);
+
     boolean existsByEmail(String email);
+
+    @Query("select u from User u where u.email = :identifier or u.username = :identifier")
+    List<User> findAllByEmailOrUsername(@Param("identifier") String identifier);
+
+    // Admin siyahisi ve export ucun id uzre keyset; entity yuklenmir
+    List<UserSummaryView> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // lower(username)/lower(email) uzre text_pattern_ops indeksleri (V3 miqrasiyasi)
+    @Query("select u.id as id, u.username as username, u.email as email, u.role as role from User u " +
+            "where (lower(u.username) like :pattern escape '\\' or lower(u.email) like :pattern escape '\\') " +
+            "and u.id > :afterId order by u.id")
+    List<UserSummaryView> searchByPattern(@Param("pattern") String pattern, @Param("afterId") Long afterId, Pageable pageable);
 }
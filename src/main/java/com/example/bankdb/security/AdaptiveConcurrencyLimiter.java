@@ -0,0 +1,185 @@
+package com.example.bankdb.security;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Gecikmeye gore uygunlasan paralellik limiti (gradient): qisa muddetli orta RTT uzun muddetli RTT-den boyuyende
+// (baza yavaslayir, novbe yaranir) limit azalir, RTT normala qayidanda yeniden artir.
+// Limit dolanda sorgular prioritetine gore mehdud novbeye girir; novbe doludursa ve ya gozleme muddeti bitirse
+// sorgu derhal redd olunur. Bosalan yer evvelce READ novbesine verilir, WRITE-lar ise tamam ac qalmasin deye
+// her READS_PER_WRITE READ-den sonra bir yer gozleyen WRITE-a verilir.
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Priority { READ, WRITE }
+
+    // Qisa ve uzun muddetli RTT ucun eksponensial orta emsallari
+    private static final double SHORT_RTT_WEIGHT = 0.1;
+    private static final double LONG_RTT_WEIGHT = 0.002;
+    // Normal gecikme dalgalanmasinda limit azalmasin
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final int READS_PER_WRITE = 4;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Waiter> readQueue = new ArrayDeque<>();
+    private final ArrayDeque<Waiter> writeQueue = new ArrayDeque<>();
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int readQueueCapacity;
+    private final int writeQueueCapacity;
+
+    private double limit;
+    private int inFlight;
+    private int readsSinceWrite;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      int readQueueCapacity, int writeQueueCapacity) {
+        if (minLimit <= 0 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Expected 0 < minLimit <= initialLimit <= maxLimit");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.readQueueCapacity = readQueueCapacity;
+        this.writeQueueCapacity = writeQueueCapacity;
+    }
+
+    /**
+     * @return true if the request may proceed (and must call {@link #release}), false if it was shed
+     */
+    public boolean acquire(Priority priority, long maxWaitNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            // Novbedekiler qabaga kecilmir; WRITE hem de gozleyen READ-lere yol verir
+            boolean queueAhead = priority == Priority.READ ? !readQueue.isEmpty() : !readQueue.isEmpty() || !writeQueue.isEmpty();
+            if (!queueAhead && inFlight < (int) limit) {
+                inFlight++;
+                return true;
+            }
+            ArrayDeque<Waiter> queue = priority == Priority.READ ? readQueue : writeQueue;
+            if (queue.size() >= (priority == Priority.READ ? readQueueCapacity : writeQueueCapacity) || maxWaitNanos <= 0) {
+                return false;
+            }
+            Waiter waiter = new Waiter(lock.newCondition());
+            queue.addLast(waiter);
+            long remaining = maxWaitNanos;
+            try {
+                while (!waiter.granted) {
+                    if (remaining <= 0) {
+                        queue.remove(waiter);
+                        return false;
+                    }
+                    remaining = waiter.condition.awaitNanos(remaining);
+                }
+                return true;
+            } catch (InterruptedException e) {
+                if (waiter.granted) {
+                    // Yer artiq verilmisdi, novbedeki novbetiye verilir
+                    inFlight--;
+                    grantWaiters();
+                } else {
+                    queue.remove(waiter);
+                }
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param rttNanos request latency, or a negative value to release without updating the limit
+     */
+    public void release(long rttNanos) {
+        lock.lock();
+        try {
+            if (rttNanos >= 0) {
+                updateLimit(rttNanos);
+            }
+            inFlight--;
+            grantWaiters();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued(Priority priority) {
+        lock.lock();
+        try {
+            return priority == Priority.READ ? readQueue.size() : writeQueue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void updateLimit(long rttNanos) {
+        if (longRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos += (rttNanos - shortRttNanos) * SHORT_RTT_WEIGHT;
+        longRttNanos += (rttNanos - longRttNanos) * LONG_RTT_WEIGHT;
+        // Uzun yavasliqdan sonra uzun muddetli orta kohne deyerde ilisib qalmasin
+        if (longRttNanos > 2 * shortRttNanos) {
+            longRttNanos *= 0.95;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRttNanos / shortRttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        // Limitin yarisi da istifade olunmursa artim gecikme haqqinda hec ne demir
+        if (newLimit > limit && inFlight < limit / 2) {
+            return;
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+    }
+
+    private void grantWaiters() {
+        while (inFlight < (int) limit) {
+            Waiter next;
+            if (!writeQueue.isEmpty() && (readQueue.isEmpty() || readsSinceWrite >= READS_PER_WRITE)) {
+                next = writeQueue.pollFirst();
+                readsSinceWrite = 0;
+            } else if (!readQueue.isEmpty()) {
+                next = readQueue.pollFirst();
+                readsSinceWrite++;
+            } else {
+                return;
+            }
+            next.granted = true;
+            inFlight++;
+            next.condition.signal();
+        }
+    }
+
+    private static final class Waiter {
+        private final Condition condition;
+        private boolean granted;
+
+        private Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.bankdb.security;
+
+import com.example.bankdb.security.AdaptiveConcurrencyLimiter.Priority;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// /api/transactions sorgularini adaptiv paralellik limitinden kecirir: baza yavaslayanda limit kicilir,
+// artiq sorgular Tomcat thread-lerini tutub timeout gozlemek evezine qisa novbeden sonra 503 alir.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private static final String TRANSACTIONS_PATH = "/api/transactions";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${load-shedding.enabled:true}")
+    private boolean enabled;
+
+    @Value("${load-shedding.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${load-shedding.min-limit:5}")
+    private int minLimit;
+
+    @Value("${load-shedding.max-limit:40}")
+    private int maxLimit;
+
+    @Value("${load-shedding.queue-capacity.read:50}")
+    private int readQueueCapacity;
+
+    @Value("${load-shedding.queue-capacity.write:20}")
+    private int writeQueueCapacity;
+
+    @Value("${load-shedding.max-queue-wait-ms:500}")
+    private long maxQueueWaitMs;
+
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @PostConstruct
+    void init() {
+        limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, readQueueCapacity, writeQueueCapacity);
+        Gauge.builder("bank.load-shedding.limit", limiter, AdaptiveConcurrencyLimiter::getLimit).register(meterRegistry);
+        Gauge.builder("bank.load-shedding.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight).register(meterRegistry);
+        for (Priority priority : Priority.values()) {
+            Gauge.builder("bank.load-shedding.queued", limiter, l -> l.getQueued(priority))
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith(TRANSACTIONS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        Priority priority = "GET".equals(request.getMethod()) ? Priority.READ : Priority.WRITE;
+        boolean admitted;
+        try {
+            admitted = limiter.acquire(priority, TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMs));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            log.warn("Request shed: priority={}, path={}, limit={}", priority, request.getRequestURI(), (int) limiter.getLimit());
+            meterRegistry.counter("bank.load-shedding.rejected", "priority", priority.name().toLowerCase()).increment();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.getWriter().write("Service overloaded");
+            return;
+        }
+
+        long started = System.nanoTime();
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            // Stream (async) cavabin muddeti baza gecikmesini eks etdirmir; xeta ile bitenler de olcuye dusmur
+            limiter.release(completed && !request.isAsyncStarted() ? System.nanoTime() - started : -1);
+        }
+    }
+}
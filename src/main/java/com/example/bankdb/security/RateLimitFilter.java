@@ -0,0 +1,155 @@
+package com.example.bankdb.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String LOGIN_PATH = "/api/auth/login";
+    private static final String TRANSACTIONS_PATH = "/api/transactions";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rate-limit.max-buckets:100000}")
+    private int maxBuckets;
+
+    @Value("${rate-limit.login.capacity:5}")
+    private int loginCapacity;
+
+    @Value("${rate-limit.login.refill-per-minute:10}")
+    private int loginRefillPerMinute;
+
+    @Value("${rate-limit.posting.capacity:10}")
+    private int postingCapacity;
+
+    @Value("${rate-limit.posting.refill-per-minute:60}")
+    private int postingRefillPerMinute;
+
+    @Value("${rate-limit.default.capacity:50}")
+    private int defaultCapacity;
+
+    @Value("${rate-limit.default.refill-per-minute:600}")
+    private int defaultRefillPerMinute;
+
+    private TokenBucketRateLimiter loginLimiter;
+    private TokenBucketRateLimiter postingLimiter;
+    private TokenBucketRateLimiter defaultLimiter;
+
+    @PostConstruct
+    void init() {
+        loginLimiter = new TokenBucketRateLimiter(loginCapacity, loginRefillPerMinute, maxBuckets);
+        postingLimiter = new TokenBucketRateLimiter(postingCapacity, postingRefillPerMinute, maxBuckets);
+        defaultLimiter = new TokenBucketRateLimiter(defaultCapacity, defaultRefillPerMinute, maxBuckets);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String path = request.getRequestURI();
+        TokenBucketRateLimiter limiter;
+        String tier;
+        String key;
+        if (path.startsWith(LOGIN_PATH)) {
+            limiter = loginLimiter;
+            tier = "login";
+            key = clientAddress(request.getRemoteAddr());
+        } else if (path.startsWith(TRANSACTIONS_PATH) && "POST".equals(request.getMethod())) {
+            limiter = postingLimiter;
+            tier = "posting";
+            key = clientKey(request);
+        } else {
+            limiter = defaultLimiter;
+            tier = "default";
+            key = clientKey(request);
+        }
+
+        long waitNanos = limiter.tryAcquire(key, System.nanoTime());
+        if (waitNanos > 0) {
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            log.warn("Rate limit exceeded: key={}, path={}", key, path);
+            meterRegistry.counter("bank.rate-limit.rejected", "tier", tier).increment();
+            response.setStatus(429);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.getWriter().write("Too many requests");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        int evicted = loginLimiter.evictIdle(now) + postingLimiter.evictIdle(now) + defaultLimiter.evictIdle(now);
+        if (evicted > 0) {
+            log.debug("Evicted {} idle rate limit buckets", evicted);
+        }
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + clientAddress(request.getRemoteAddr());
+    }
+
+    // IPv6 musterisi adeten butov /64 alir ve her sorgunu yeni unvandan gondere biler:
+    // bucket /64 prefiksine gore acilir. IPv4 (ve IPv4-mapped IPv6) unvan oldugu kimi qalir.
+    static String clientAddress(String remoteAddr) {
+        if (remoteAddr == null || remoteAddr.indexOf(':') < 0) {
+            return remoteAddr;
+        }
+        InetAddress address;
+        try {
+            // Literal unvan oldugu ucun DNS sorgusu edilmir
+            address = InetAddress.getByName(remoteAddr);
+        } catch (UnknownHostException e) {
+            return remoteAddr;
+        }
+        byte[] bytes = address.getAddress();
+        if (bytes.length != 16) {
+            return address.getHostAddress();
+        }
+        StringBuilder prefix = new StringBuilder(24);
+        for (int i = 0; i < 8; i += 2) {
+            prefix.append(Integer.toHexString(((bytes[i] & 0xFF) << 8) | (bytes[i + 1] & 0xFF))).append(':');
+        }
+        return prefix.append(":/64").toString();
+    }
+}
@@ -1,17 +1,23 @@
 package com.example.bankdb.security;
 
 import com.example.bankdb.service.CustomUserDetailsService;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -20,6 +26,8 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @RequiredArgsConstructor
 public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final LoadSheddingFilter loadSheddingFilter;
     private final CustomUserDetailsService customUserDetailsService;
 
     @Bean
@@ -27,6 +35,8 @@ public class SecurityConfig {
         return http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                        // Streaming cavablarin async dispatch-i artiq yoxlanilmis sorgunun davamidir
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(
                                 "/api/auth/**",               // açık endpoint
                                 "/swagger-ui/**",             // swagger UI
@@ -40,16 +50,52 @@ public class SecurityConfig {
                 .userDetailsService(customUserDetailsService)
                 .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class)
+                // Limitden kecmeyen sorgu limit yerini tutmasin deye rate limit-den sonra
+                .addFilterAfter(loadSheddingFilter, RateLimitFilter.class)
                 .build();
     }
 
+    // Actuator ayrica zencirdedir: health aciqdir, Prometheus yalniz ADMIN-e ve scrape hesabina (HTTP Basic),
+    // qalan endpoint-ler yalniz ADMIN-e. Scrape parolu muhitden gelir; verilmeyibse Basic sondurulur.
+    @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorFilterChain(
+            HttpSecurity http,
+            PasswordEncoder passwordEncoder,
+            @Value("${metrics-scrape.username:prometheus}") String scrapeUsername,
+            @Value("${metrics-scrape.password:}") String scrapePassword
+    ) throws Exception {
+        http
+                .securityMatcher("/actuator/**")
+                .csrf(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/prometheus").hasAnyRole("ADMIN", "METRICS")
+                        .anyRequest().hasRole("ADMIN")
+                )
+                .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+        if (scrapePassword.isBlank()) {
+            http.httpBasic(AbstractHttpConfigurer::disable);
+        } else {
+            http
+                    .userDetailsService(new InMemoryUserDetailsManager(User.withUsername(scrapeUsername)
+                            .password(passwordEncoder.encode(scrapePassword))
+                            .roles("METRICS")
+                            .build()))
+                    .httpBasic(Customizer.withDefaults());
+        }
+        return http.build();
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
         return config.getAuthenticationManager();
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 }
@@ -0,0 +1,78 @@
+package com.example.bankdb.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+// GCRA formasinda token bucket: her bucket bir AtomicLong-dur (theoretical arrival time),
+// yoxlama tek CAS ile, kilidsiz icra olunur.
+// Bucket-ler maximumSize ile mehdudlasdirilmis Caffeine kesindedir: xerite dolanda en az/en kohne istifade
+// olunan bucket cixarilir, yeni acarlar ortaq bucket bolusmur (bir ofisin/NAT-in musterileri bir-birini bloklamir).
+// Bos bucket-lerin temizlenmesi request thread-inde deyil, planli evictIdle-da (RateLimitFilter) edilir.
+public class TokenBucketRateLimiter {
+
+    private final Cache<String, AtomicLong> buckets;
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+
+    public TokenBucketRateLimiter(int capacity, int refillPerMinute, int maxBuckets) {
+        this(capacity, refillPerMinute, maxBuckets, ForkJoinPool.commonPool());
+    }
+
+    // Testler olcu ile cixarmani eyni thread-de gormek ucun Runnable::run verir
+    TokenBucketRateLimiter(int capacity, int refillPerMinute, int maxBuckets, Executor maintenanceExecutor) {
+        if (capacity <= 0 || refillPerMinute <= 0 || maxBuckets <= 0) {
+            throw new IllegalArgumentException("capacity, refillPerMinute and maxBuckets must be positive");
+        }
+        this.emissionIntervalNanos = 60_000_000_000L / refillPerMinute;
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .executor(maintenanceExecutor)
+                .build();
+    }
+
+    /**
+     * @return 0 if the request is admitted, otherwise nanoseconds until the next token is available
+     */
+    public long tryAcquire(String key, long nowNanos) {
+        AtomicLong bucket = buckets.getIfPresent(key);
+        if (bucket == null) {
+            bucket = buckets.get(key, k -> new AtomicLong(nowNanos));
+        }
+
+        while (true) {
+            long tat = bucket.get();
+            long base = Math.max(tat, nowNanos);
+            long allowAt = base - burstToleranceNanos;
+            if (allowAt > nowNanos) {
+                return allowAt - nowNanos;
+            }
+            if (bucket.compareAndSet(tat, base + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    // TAT artiq kecmisdirse bucket tam doludur ve silinmesi limit veziyyetini deyismir.
+    public int evictIdle(long nowNanos) {
+        int evicted = 0;
+        Map<String, AtomicLong> map = buckets.asMap();
+        for (Map.Entry<String, AtomicLong> entry : map.entrySet()) {
+            if (entry.getValue().get() <= nowNanos && map.remove(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public long size() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.bankdb.service;
+
+import com.example.bankdb.exception.AccountNotFoundException;
+import com.example.bankdb.model.dto.AccountBalanceDto;
+import com.example.bankdb.repository.BankAccountRepository;
+import com.example.bankdb.util.TransactionCallbacks;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Tez-tez sorgulanan balanslar ucun read-through kes. Posting yazilan tranzaksiya commit olanda
+// hesabin yazisi silinir, ona gore emeliyyatdan sonraki ilk oxuma DB-den teze deyeri getirir.
+// TTL yalniz kesden kenar yazilar (mes. birbasa SQL) ucun tehlukesizlik toridir.
+@Service
+public class AccountBalanceCache {
+
+    private final BankAccountRepository bankAccountRepository;
+    private final Cache<Long, BigDecimal> balances;
+
+    public AccountBalanceCache(BankAccountRepository bankAccountRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${balance-cache.ttl-seconds:60}") long ttlSeconds,
+                               @Value("${balance-cache.max-size:100000}") long maxSize) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.balances = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, balances, "accountBalances");
+    }
+
+    public AccountBalanceDto getBalance(Long accountId) {
+        BigDecimal balance = balances.get(accountId, id -> bankAccountRepository.findBalanceById(id).orElse(null));
+        if (balance == null) {
+            throw new AccountNotFoundException("Account with ID " + accountId + " not found");
+        }
+        return new AccountBalanceDto(accountId, balance, LocalDateTime.now());
+    }
+
+    // Cari tranzaksiya commit olandan sonra (tranzaksiya yoxdursa derhal) silinir.
+    public void evictAfterCommit(Long accountId) {
+        TransactionCallbacks.afterCommit(() -> balances.invalidate(accountId));
+    }
+}
@@ -1,17 +1,29 @@
 package com.example.bankdb.service;
 
-import com.example.bankdb.exception.UserNotFoundException;
+import com.example.bankdb.exception.DeletionJobNotFoundException;
+import com.example.bankdb.exception.InvalidSearchQueryException;
 import com.example.bankdb.model.dto.SystemStatisticsDto;
-import com.example.bankdb.model.dto.UserProfileDto;
-import com.example.bankdb.model.entity.User;
+import com.example.bankdb.model.dto.UserDeletionJobDto;
+import com.example.bankdb.model.dto.UserPageDto;
+import com.example.bankdb.model.dto.UserSummaryDto;
+import com.example.bankdb.model.projection.UserSummaryView;
 import com.example.bankdb.repository.BankAccountRepository;
 import com.example.bankdb.repository.TransactionRepository;
 import com.example.bankdb.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
 
 @Slf4j
 @Service
@@ -21,21 +33,70 @@ public class AdminService {
     private final UserRepository userRepository;
     private final BankAccountRepository bankAccountRepository;
     private final TransactionRepository transactionRepository;
+    private final UserDeletionService userDeletionService;
 
-    public List<UserProfileDto> getAllUsers() {
-        log.info("Fetching all users");
-        return userRepository.findAll().stream()
-                .map(this::mapToUserProfileDto)
-                .toList();
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int EXPORT_BATCH_SIZE = 1000;
+    private static final int MIN_CONTAINS_QUERY_LENGTH = 3;
+
+    public UserPageDto getUsers(Long afterId, int size) {
+        int pageSize = pageSize(size);
+        List<UserSummaryView> users = userRepository.findByIdGreaterThanOrderByIdAsc(cursor(afterId), Limit.of(pageSize));
+        return toPage(users, pageSize);
     }
 
-    public void deleteUser(Long userId) {
-        if (!userRepository.existsById(userId)) {
-            throw new UserNotFoundException("User with ID " + userId + " not found");
+    // Prefix axtarisi btree (text_pattern_ops), substring axtarisi trigram GIN indeksinden istifade edir.
+    // Trigram indeksi 3 simvoldan qisa sorgularda islemir, ona gore bele sorgular qebul olunmur.
+    public UserPageDto searchUsers(String query, boolean contains, Long afterId, int size) {
+        String term = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (term.isEmpty()) {
+            throw new InvalidSearchQueryException("Search query must not be empty");
+        }
+        if (contains && term.length() < MIN_CONTAINS_QUERY_LENGTH) {
+            throw new InvalidSearchQueryException("Substring search requires at least " + MIN_CONTAINS_QUERY_LENGTH + " characters");
         }
+        String pattern = (contains ? "%" : "") + escapeLike(term) + "%";
+        int pageSize = pageSize(size);
+        List<UserSummaryView> users = userRepository.searchByPattern(pattern, cursor(afterId), PageRequest.ofSize(pageSize));
+        return toPage(users, pageSize);
+    }
+
+    // Butun istifadeciler id uzre hisse-hisse oxunur ve derhal yazilir; yaddas istifadesi sabitdir.
+    public void exportUsersCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("id,username,email,role\n");
+        long afterId = 0;
+        long exported = 0;
+        List<UserSummaryView> batch;
+        do {
+            batch = userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(EXPORT_BATCH_SIZE));
+            for (UserSummaryView user : batch) {
+                writer.write(user.getId() + "," + csv(user.getUsername()) + "," + csv(user.getEmail())
+                        + "," + (user.getRole() != null ? user.getRole().name() : "") + "\n");
+                afterId = user.getId();
+            }
+            writer.flush();
+            exported += batch.size();
+        } while (batch.size() == EXPORT_BATCH_SIZE);
+        log.info("Exported {} users to CSV", exported);
+    }
+
+    public void deleteUser(Long userId) {
         log.info("Deleting user with id: {}", userId);
-        userRepository.deleteById(userId);
-        log.info("User with id: {} deleted successfully", userId);
+        long affectedRows = userDeletionService.deleteNow(userId);
+        log.info("User with id: {} deleted successfully, {} rows affected", userId, affectedRows);
+    }
+
+    public UserDeletionJobDto deleteUsers(List<Long> userIds) {
+        return userDeletionService.submit(userIds);
+    }
+
+    public UserDeletionJobDto getDeletionJob(String jobId) {
+        UserDeletionJobDto job = userDeletionService.getJob(jobId);
+        if (job == null) {
+            throw new DeletionJobNotFoundException("Deletion job " + jobId + " not found");
+        }
+        return job;
     }
 
     public SystemStatisticsDto getSystemStatistics() {
@@ -46,11 +107,34 @@ public class AdminService {
         return new SystemStatisticsDto(totalUsers, totalAccounts, totalTransactions);
     }
 
-    private UserProfileDto mapToUserProfileDto(User user) {
-        return new UserProfileDto(
-                user.getUsername(),
-                user.getEmail(),
-                user.getRole().name()
-        );
+    private UserPageDto toPage(List<UserSummaryView> users, int pageSize) {
+        List<UserSummaryDto> dtos = users.stream()
+                .map(user -> new UserSummaryDto(user.getId(), user.getUsername(), user.getEmail(),
+                        user.getRole() != null ? user.getRole().name() : null))
+                .toList();
+        Long nextCursor = users.size() == pageSize ? users.get(users.size() - 1).getId() : null;
+        return new UserPageDto(dtos, nextCursor);
+    }
+
+    private static int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private static long cursor(Long afterId) {
+        return afterId != null ? afterId : 0L;
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
     }
 }
@@ -1,7 +1,9 @@
 package com.example.bankdb.service;
 
 import com.example.bankdb.exception.AccountNotFoundException;
+import com.example.bankdb.exception.InvalidAccountUpdateException;
 import com.example.bankdb.exception.UserNotFoundException;
+import com.example.bankdb.model.dto.AccountBalanceDto;
 import com.example.bankdb.model.dto.BankAccountDto;
 import com.example.bankdb.model.dto.CardSummaryDto;
 import com.example.bankdb.model.dto.CreateAccountRequest;
@@ -9,7 +11,9 @@ import com.example.bankdb.model.entity.BankAccount;
 import com.example.bankdb.model.entity.enums.CurrencyType;
 import com.example.bankdb.model.entity.User;
 import com.example.bankdb.repository.BankAccountRepository;
+import com.example.bankdb.repository.CardRepository;
 import com.example.bankdb.repository.UserRepository;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -28,6 +32,15 @@ public class BankAccountService {
 
     private final UserRepository userRepository;
 
+    private final CardRepository cardRepository;
+
+    private final SecurityService securityService;
+
+    private final TransactionService transactionService;
+
+    private final AccountBalanceCache accountBalanceCache;
+
+    @Transactional
     public String createAccount(CreateAccountRequest request) {
         log.info("Creating bank account for username: {}", request.getUsername());
         User user = userRepository.findByUsername(request.getUsername())
@@ -39,9 +52,20 @@ public class BankAccountService {
         account.setAccountNumber(UUID.randomUUID().toString());
         account.setAccountType(request.getAccountType());
         account.setBalance(request.getInitialBalance());
-        account.setCurrencyType(CurrencyType.AZN);
+        account.setCurrencyType(request.getCurrencyType() != null ? request.getCurrencyType() : CurrencyType.AZN);
         account.setOwner(user);
-        switch (request.getAccountType()) {
+        applyAccountTypeDefaults(account, LocalDate.now());
+
+        bankAccountRepository.save(account);
+        transactionService.recordOpeningBalance(account);
+        log.info("Bank account created successfully for username: {}, account number: {}", request.getUsername(), account.getAccountNumber());
+
+        return "Bank account created succesfully";
+    }
+
+    // Hesab novune gore kredit limiti, faiz ve depozit muddeti; toplu import da eyni qaydalari istifade edir
+    public static void applyAccountTypeDefaults(BankAccount account, LocalDate today) {
+        switch (account.getAccountType()) {
             case DEBIT -> {
                 account.setCreditLimit(BigDecimal.ZERO);
                 account.setInterestRate(BigDecimal.ZERO);
@@ -60,16 +84,10 @@ public class BankAccountService {
                 account.setDepositTermInMonths(12);
                 account.setLocked(true);
 
-                LocalDate now = LocalDate.now();
-                account.setDepositStartDate(now);
-                account.setDepositUnlockDate(now.plusMonths(12));
+                account.setDepositStartDate(today);
+                account.setDepositUnlockDate(today.plusMonths(12));
             }
         }
-
-        bankAccountRepository.save(account);
-        log.info("Bank account created successfully for username: {}, account number: {}", request.getUsername(), account.getAccountNumber());
-
-        return "Bank account created succesfully";
     }
 
     public List<BankAccount> getAccountByUsername(String username) {
@@ -91,10 +109,13 @@ public class BankAccountService {
             }
         }
         bankAccountRepository.deleteById(accountId);
+        securityService.evictAccount(accountId);
+        accountBalanceCache.evictAfterCommit(accountId);
         log.info("Bank account with id: {} deleted successfully", accountId);
     }
 
-    public BankAccount updateAccount(Long accountId, BankAccount updatedAccount) {
+    @Transactional
+    public BankAccountDto updateAccount(Long accountId, BankAccount updatedAccount) {
         log.info("Updating bank account with id: {}", accountId);
         BankAccount existing = bankAccountRepository.findById(accountId)
                 .orElseThrow(() -> {
@@ -103,7 +124,10 @@ public class BankAccountService {
                     return new AccountNotFoundException("Account with ID " + accountId + " not found");
                 });
 
-        existing.setBalance(updatedAccount.getBalance());
+        // Balans yalniz emeliyyatlarla (posting-le) deyisir; birbasa yazilsa ledger ve reconciliation uygun gelmez
+        if (updatedAccount.getBalance() != null && updatedAccount.getBalance().compareTo(existing.getBalance()) != 0) {
+            throw new InvalidAccountUpdateException("Balance cannot be changed directly; use a deposit, withdrawal or transfer");
+        }
         existing.setCreditLimit(updatedAccount.getCreditLimit());
         existing.setInterestRate(updatedAccount.getInterestRate());
         existing.setDepositTermInMonths(updatedAccount.getDepositTermInMonths());
@@ -114,8 +138,21 @@ public class BankAccountService {
         existing.setAccountType(updatedAccount.getAccountType());
 
         BankAccount saved = bankAccountRepository.save(existing);
+        securityService.evictAccount(accountId);
+        accountBalanceCache.evictAfterCommit(accountId);
         log.info("Bank account with id: {} updated successfully", accountId);
-        return saved;
+        return mapToDto(saved);
+    }
+
+    // Hesab siyahisi kartlari da qaytarir, ona gore ETag her iki cedvelin versiyasindan qurulur.
+    // Entity yuklenmir, yalniz iki aqreqat sorgu icra olunur.
+    public String getAccountsETag(String username) {
+        return bankAccountRepository.findVersionStampByOwnerUsername(username).toETag("a")
+                + "." + cardRepository.findVersionStampByOwnerUsername(username).toETag("c");
+    }
+
+    public AccountBalanceDto getBalance(Long accountId) {
+        return accountBalanceCache.getBalance(accountId);
     }
 
     private BankAccountDto mapToDto(BankAccount account) {
@@ -137,7 +174,8 @@ public class BankAccountService {
         dto.setCards(account.getCards().stream().map(card -> {
             CardSummaryDto c = new CardSummaryDto();
             c.setId(card.getId());
-            c.setCardNumber(card.getCardNumber());
+            c.setCardNumber(PanTokenizationService.mask(card.getLastFour()));
+            c.setCardToken(card.getPanToken());
             c.setExpiryDate(card.getExpiryDate());
             return c;
         }).toList());
@@ -146,6 +184,8 @@ public class BankAccountService {
     }
 
 
+    // Kartlar LAZY-dir, DTO tranzaksiya daxilinde qurulur (open-in-view sonduruldu)
+    @Transactional
     public List<BankAccountDto> getAccountDtosByUsername(String username) {
         List<BankAccount> accounts = getAccountByUsername(username);
         return accounts.stream()
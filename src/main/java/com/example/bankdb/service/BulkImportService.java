@@ -0,0 +1,512 @@
+package com.example.bankdb.service;
+
+import com.example.bankdb.config.SecondLevelCacheConfig;
+import com.example.bankdb.exception.InvalidImportFileException;
+import com.example.bankdb.model.dto.ImportReport;
+import com.example.bankdb.model.dto.ImportRowError;
+import com.example.bankdb.model.entity.BankAccount;
+import com.example.bankdb.model.entity.enums.AccountType;
+import com.example.bankdb.model.entity.enums.CurrencyType;
+import com.example.bankdb.model.entity.enums.Role;
+import com.example.bankdb.util.CardValidator;
+import com.example.bankdb.util.CsvReader;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+// Partnyor bankin istifadeci, hesab ve kartlarinin CSV-den toplu yuklenmesi.
+// Fayl axinla oxunur ve batch-size setirlik hisselerle islenir, ona gore yaddas fayl olcusunden asili deyil.
+// Her hisse ucun sahibler/hesablar/movcud dublikatlar bir ANY(?) sorgusu ile tapilir ve setirler
+// bir tranzaksiyada batch insert ile yazilir (perf profilinde reWriteBatchedInserts hesablari multi-row INSERT edir).
+// Kart nomresinin yoxlanmasi, HMAC fingerprint ve sifrelenmesi ayri ForkJoinPool-da paralel hesablanir.
+@Slf4j
+@Service
+public class BulkImportService {
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\$2[aby]\\$\\d{2}\\$[./A-Za-z0-9]{53}");
+    private static final int MAX_CARDS_PER_ACCOUNT = 2;
+
+    // VALUES yox, SELECT: reWriteBatchedInserts bu statement-i multi-row INSERT-e cevirmir ve batch her setir
+    // ucun deqiq say qaytarir (0 - paralel yazilmis dublikat)
+    private static final String INSERT_USER =
+            "INSERT INTO users (username, email, password, role) SELECT ?, ?, ?, ? ON CONFLICT DO NOTHING";
+
+    private static final String INSERT_ACCOUNT = """
+            INSERT INTO bank_accounts (account_number, balance, credit_limit, interest_rate, deposit_term_in_months,
+                                       is_locked, deposit_start_date, deposit_unlock_date, currency_type, account_type, user_id)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    // Ilkin balans BankAccountService-deki kimi DEPOSIT emeliyyati ve posting olaraq ledger-e yazilir
+    private static final String INSERT_OPENING_BALANCES = """
+            WITH opened AS (
+                INSERT INTO transaction (to_account_id, amount, description, transaction_type, timestamp)
+                SELECT id, balance, 'Opening balance', 'DEPOSIT', ? FROM bank_accounts
+                WHERE account_number = ANY (?) AND balance > 0
+                RETURNING id, to_account_id, amount, timestamp)
+            INSERT INTO postings (id, transaction_id, account_id, amount, balance_after, posted_at)
+            SELECT nextval('postings_seq'), id, to_account_id, amount, amount, timestamp FROM opened
+            """;
+
+    // Sifrelenmis nomre kesdeki cards setrine deyil, card_secrets-e yazilir; ikisi bir statement-dedir.
+    // Say card_secrets setirleridir: kart conflict-e gore yazilmayibsa 0
+    private static final String INSERT_CARD = """
+            WITH card AS (
+                INSERT INTO cards (expiry_date, pan_fingerprint, pan_token, last_four, account_id)
+                VALUES (?, ?, ?, ?, ?) ON CONFLICT DO NOTHING
+                RETURNING id
+            )
+            INSERT INTO card_secrets (card_id, pan_ciphertext)
+            SELECT id, ? FROM card
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PanTokenizationService panTokenizationService;
+    private final PanEncryptionService panEncryptionService;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ForkJoinPool validationPool;
+
+    @Value("${bulk-import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${bulk-import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public BulkImportService(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             PanTokenizationService panTokenizationService,
+                             PanEncryptionService panEncryptionService,
+                             EntityManagerFactory entityManagerFactory,
+                             @Value("${bulk-import.parallelism:0}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.panTokenizationService = panTokenizationService;
+        this.panEncryptionService = panEncryptionService;
+        this.entityManagerFactory = entityManagerFactory;
+        this.validationPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    // Sutunlar: username, email, password_hash (bcrypt), role (istege bagli, default USER)
+    public ImportReport importUsers(InputStream in) throws IOException {
+        return run(ImportReport.Type.USERS, in, List.of("username", "email", "password_hash"), List.of(), this::importUserBatch);
+    }
+
+    // Sutunlar: username, account_type, initial_balance, currency (istege bagli), account_number (istege bagli)
+    public ImportReport importAccounts(InputStream in) throws IOException {
+        return run(ImportReport.Type.ACCOUNTS, in, List.of("username", "account_type", "initial_balance"), List.of(),
+                this::importAccountBatch);
+    }
+
+    // Sutunlar: account_number, card_number, expiry_date (yyyy-MM-dd). CVV saxlanilmir: cvv sutunlu fayl
+    // oxunmadan redd olunur ki, kodlar ne bazaya, ne de xeta hesabatina dussun
+    public ImportReport importCards(InputStream in) throws IOException {
+        return run(ImportReport.Type.CARDS, in, List.of("account_number", "card_number", "expiry_date"), List.of("cvv"),
+                this::importCardBatch);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        validationPool.shutdown();
+    }
+
+    private ImportReport run(ImportReport.Type type, InputStream in, List<String> requiredColumns,
+                             List<String> forbiddenColumns, BatchHandler handler) throws IOException {
+        ImportReport report = new ImportReport();
+        report.setType(type);
+        report.setStartedAt(LocalDateTime.now());
+        long started = System.nanoTime();
+
+        CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16));
+        List<String> header = reader.next();
+        if (header == null) {
+            throw new InvalidImportFileException("CSV file is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            columns.putIfAbsent(name, i);
+        }
+        List<String> missing = requiredColumns.stream().filter(column -> !columns.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new InvalidImportFileException("CSV header is missing columns: " + String.join(", ", missing));
+        }
+        List<String> forbidden = forbiddenColumns.stream().filter(columns::containsKey).toList();
+        if (!forbidden.isEmpty()) {
+            throw new InvalidImportFileException("CSV must not contain columns: " + String.join(", ", forbidden));
+        }
+
+        List<Row> batch = new ArrayList<>(batchSize);
+        List<String> values;
+        while ((values = reader.next()) != null) {
+            report.setRowsRead(report.getRowsRead() + 1);
+            batch.add(new Row(reader.recordLine(), values, columns));
+            if (batch.size() == batchSize) {
+                handler.handle(batch, report);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            handler.handle(batch, report);
+        }
+
+        report.setFinishedAt(LocalDateTime.now());
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        report.setRowsPerSecond(Math.round(report.getRowsRead() / Math.max(seconds, 0.001) * 10) / 10.0);
+        log.info("{} import finished: read={}, imported={}, failed={}, {} rows/s", type, report.getRowsRead(),
+                report.getRowsImported(), report.getRowsFailed(), report.getRowsPerSecond());
+        return report;
+    }
+
+    private void importUserBatch(List<Row> rows, ImportReport report) {
+        List<UserRow> candidates = new ArrayList<>(rows.size());
+        Set<String> batchUsernames = new HashSet<>();
+        Set<String> batchEmails = new HashSet<>();
+        for (Row row : rows) {
+            String username = row.get("username");
+            String email = row.get("email");
+            String passwordHash = row.get("password_hash");
+            String roleValue = row.get("role");
+            if (username.isEmpty() || email.isEmpty()) {
+                reject(report, row.line(), "username and email are required");
+            } else if (email.indexOf('@') < 1) {
+                reject(report, row.line(), "Invalid email: " + email);
+            } else if (!BCRYPT_HASH.matcher(passwordHash).matches()) {
+                reject(report, row.line(), "password_hash must be a bcrypt hash");
+            } else if (!batchUsernames.add(username) || !batchEmails.add(email)) {
+                reject(report, row.line(), "Duplicate username or email in file");
+            } else {
+                Role role = roleValue.isEmpty() ? Role.USER : parseEnum(Role.class, roleValue);
+                if (role == null) {
+                    reject(report, row.line(), "Unknown role: " + roleValue);
+                } else {
+                    candidates.add(new UserRow(row.line(), username, email, passwordHash, role));
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        Set<String> taken = new HashSet<>(queryByArrays("SELECT username FROM users WHERE username = ANY (?) " +
+                        "UNION ALL SELECT email FROM users WHERE email = ANY (?)", "varchar",
+                (rs, i) -> rs.getString(1),
+                candidates.stream().map(UserRow::username).toArray(),
+                candidates.stream().map(UserRow::email).toArray()));
+        List<UserRow> accepted = new ArrayList<>(candidates.size());
+        for (UserRow user : candidates) {
+            if (taken.contains(user.username()) || taken.contains(user.email())) {
+                reject(report, user.line(), "User with this username or email already exists");
+            } else {
+                accepted.add(user);
+            }
+        }
+        write(report, accepted.stream().map(UserRow::line).toList(), "User with this username or email already exists", () ->
+                jdbcTemplate.batchUpdate(INSERT_USER, accepted, accepted.size(), (ps, user) -> {
+                    ps.setString(1, user.username());
+                    ps.setString(2, user.email());
+                    ps.setString(3, user.passwordHash());
+                    ps.setString(4, user.role().name());
+                })[0]);
+    }
+
+    private void importAccountBatch(List<Row> rows, ImportReport report) {
+        LocalDate today = LocalDate.now();
+        List<AccountRow> candidates = new ArrayList<>(rows.size());
+        Set<String> batchNumbers = new HashSet<>();
+        for (Row row : rows) {
+            String username = row.get("username");
+            AccountType accountType = parseEnum(AccountType.class, row.get("account_type"));
+            String currencyValue = row.get("currency");
+            CurrencyType currency = currencyValue.isEmpty() ? CurrencyType.AZN : parseEnum(CurrencyType.class, currencyValue);
+            BigDecimal balance = parseAmount(row.get("initial_balance"));
+            String accountNumber = row.get("account_number");
+            if (accountNumber.isEmpty()) {
+                accountNumber = UUID.randomUUID().toString();
+            }
+
+            if (username.isEmpty()) {
+                reject(report, row.line(), "username is required");
+            } else if (accountType == null) {
+                reject(report, row.line(), "Unknown account_type: " + row.get("account_type"));
+            } else if (currency == null) {
+                reject(report, row.line(), "Unknown currency: " + currencyValue);
+            } else if (balance == null || balance.signum() < 0) {
+                reject(report, row.line(), "initial_balance must be a non-negative amount");
+            } else if (!batchNumbers.add(accountNumber)) {
+                reject(report, row.line(), "Duplicate account_number in file");
+            } else {
+                BankAccount account = new BankAccount();
+                account.setAccountNumber(accountNumber);
+                account.setAccountType(accountType);
+                account.setCurrencyType(currency);
+                account.setBalance(balance);
+                BankAccountService.applyAccountTypeDefaults(account, today);
+                candidates.add(new AccountRow(row.line(), username, account));
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> owners = new HashMap<>();
+        queryByArrays("SELECT username, id FROM users WHERE username = ANY (?)", "varchar",
+                (rs, i) -> owners.put(rs.getString(1), rs.getLong(2)),
+                candidates.stream().map(AccountRow::username).distinct().toArray());
+        Set<String> existingNumbers = new HashSet<>(queryByArrays(
+                "SELECT account_number FROM bank_accounts WHERE account_number = ANY (?)", "varchar",
+                (rs, i) -> rs.getString(1),
+                candidates.stream().map(row -> row.account().getAccountNumber()).toArray()));
+
+        List<AccountRow> accepted = new ArrayList<>(candidates.size());
+        for (AccountRow row : candidates) {
+            if (!owners.containsKey(row.username())) {
+                reject(report, row.line(), "User not found: " + row.username());
+            } else if (existingNumbers.contains(row.account().getAccountNumber())) {
+                reject(report, row.line(), "Account number already exists");
+            } else {
+                accepted.add(row);
+            }
+        }
+        Timestamp openedAt = Timestamp.valueOf(LocalDateTime.now());
+        write(report, accepted.stream().map(AccountRow::line).toList(), "Account number already exists", () -> {
+            int[] inserted = jdbcTemplate.batchUpdate(INSERT_ACCOUNT, accepted, accepted.size(), (ps, row) -> {
+                BankAccount account = row.account();
+                ps.setString(1, account.getAccountNumber());
+                ps.setBigDecimal(2, account.getBalance());
+                ps.setBigDecimal(3, account.getCreditLimit());
+                ps.setBigDecimal(4, account.getInterestRate());
+                ps.setObject(5, account.getDepositTermInMonths(), Types.INTEGER);
+                ps.setBoolean(6, account.isLocked());
+                ps.setDate(7, account.getDepositStartDate() != null ? Date.valueOf(account.getDepositStartDate()) : null);
+                ps.setDate(8, account.getDepositUnlockDate() != null ? Date.valueOf(account.getDepositUnlockDate()) : null);
+                ps.setString(9, account.getCurrencyType().name());
+                ps.setString(10, account.getAccountType().name());
+                ps.setLong(11, owners.get(row.username()));
+            })[0];
+            Object[] numbers = accepted.stream().map(row -> row.account().getAccountNumber()).toArray();
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(INSERT_OPENING_BALANCES);
+                ps.setTimestamp(1, openedAt);
+                ps.setArray(2, con.createArrayOf("varchar", numbers));
+                return ps;
+            });
+            return inserted;
+        });
+    }
+
+    private void importCardBatch(List<Row> rows, ImportReport report) {
+        // Luhn, format yoxlamasi, HMAC fingerprint ve sifreleme paralel; qalan addimlar fayl sirasi ile
+        List<CardRow> parsed = validationPool.submit(() -> rows.parallelStream().map(this::parseCard).toList()).join();
+
+        List<CardRow> candidates = new ArrayList<>(parsed.size());
+        Set<String> batchFingerprints = new HashSet<>();
+        for (CardRow card : parsed) {
+            if (card.error() != null) {
+                reject(report, card.line(), card.error());
+            } else if (!batchFingerprints.add(card.fingerprint())) {
+                reject(report, card.line(), "Duplicate card number in file");
+            } else {
+                candidates.add(card);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> accounts = new HashMap<>();
+        queryByArrays("SELECT account_number, id FROM bank_accounts WHERE account_number = ANY (?)", "varchar",
+                (rs, i) -> accounts.putIfAbsent(rs.getString(1), rs.getLong(2)),
+                candidates.stream().map(CardRow::accountNumber).distinct().toArray());
+        Set<String> existingFingerprints = new HashSet<>(queryByArrays(
+                "SELECT pan_fingerprint FROM cards WHERE pan_fingerprint = ANY (?)", "varchar",
+                (rs, i) -> rs.getString(1),
+                candidates.stream().map(CardRow::fingerprint).toArray()));
+        Map<Long, Integer> cardCounts = new HashMap<>();
+        if (!accounts.isEmpty()) {
+            queryByArrays("SELECT account_id, COUNT(*) FROM cards WHERE account_id = ANY (?) GROUP BY account_id", "bigint",
+                    (rs, i) -> cardCounts.put(rs.getLong(1), rs.getInt(2)),
+                    accounts.values().toArray());
+        }
+
+        List<CardRow> accepted = new ArrayList<>(candidates.size());
+        List<Long> accountIds = new ArrayList<>(candidates.size());
+        for (CardRow card : candidates) {
+            Long accountId = accounts.get(card.accountNumber());
+            if (accountId == null) {
+                reject(report, card.line(), "Account not found: " + card.accountNumber());
+            } else if (existingFingerprints.contains(card.fingerprint())) {
+                reject(report, card.line(), "Card number is already registered");
+            } else if (cardCounts.merge(accountId, 1, Integer::sum) > MAX_CARDS_PER_ACCOUNT) {
+                cardCounts.merge(accountId, -1, Integer::sum);
+                reject(report, card.line(), "Maximum " + MAX_CARDS_PER_ACCOUNT + " cards allowed per account");
+            } else {
+                accepted.add(card);
+                accountIds.add(accountId);
+            }
+        }
+        write(report, accepted.stream().map(CardRow::line).toList(), "Card number is already registered", () ->
+                jdbcTemplate.batchUpdate(INSERT_CARD, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        CardRow card = accepted.get(i);
+                        ps.setString(1, card.expiryDate());
+                        ps.setString(2, card.fingerprint());
+                        ps.setString(3, panTokenizationService.newToken());
+                        ps.setString(4, card.lastFour());
+                        ps.setLong(5, accountIds.get(i));
+                        ps.setString(6, card.panCiphertext());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return accepted.size();
+                    }
+                }));
+    }
+
+    private CardRow parseCard(Row row) {
+        String accountNumber = row.get("account_number");
+        String cardNumber = row.get("card_number").replace(" ", "");
+        String error = null;
+        String expiryDate = null;
+        if (accountNumber.isEmpty()) {
+            error = "account_number is required";
+        } else if (!CardValidator.isValidCardNumber(cardNumber)) {
+            error = "Invalid card number";
+        } else {
+            try {
+                expiryDate = LocalDate.parse(row.get("expiry_date")).toString();
+            } catch (DateTimeParseException e) {
+                error = "expiry_date must be in yyyy-MM-dd format";
+            }
+        }
+        if (error != null) {
+            return new CardRow(row.line(), accountNumber, null, null, null, null, error);
+        }
+        return new CardRow(row.line(), accountNumber, panEncryptionService.encrypt(cardNumber), expiryDate,
+                panTokenizationService.fingerprint(cardNumber), PanTokenizationService.lastFour(cardNumber), null);
+    }
+
+    // Hisse bir tranzaksiyada yazilir; baza hisseni redd ederse onun butun setirleri xeta kimi qeyd olunur.
+    // insert setirlerle eyni sirada batch saylarini qaytarir: 0 - ON CONFLICT DO NOTHING setri atlayib (yoxlamadan
+    // sonra paralel yazilib), setir duplicateMessage ile redd olunur. SUCCESS_NO_INFO yalniz multi-row INSERT-e
+    // cevrilmis, conflict-siz statement-de (INSERT_ACCOUNT) ola biler: orada setir ya yazilir, ya butun hisse dusur.
+    // Yazma Hibernate-den kenardadir, ona gore query cache-deki (meselen "istifadeci tapilmadi") neticeler
+    // ve hesablarin kesdeki kart siyahilari silinir.
+    private void write(ImportReport report, List<Long> lines, String duplicateMessage, Supplier<int[]> insert) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        try {
+            int[] counts = transactionTemplate.execute(status -> insert.get());
+            for (int i = 0; i < lines.size(); i++) {
+                if (counts[i] == 0) {
+                    reject(report, lines.get(i), duplicateMessage);
+                } else {
+                    report.setRowsImported(report.getRowsImported() + 1);
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("{} import batch of {} rows failed", report.getType(), lines.size(), e);
+            String message = "Batch rejected by database: " + e.getMostSpecificCause().getMessage();
+            lines.forEach(line -> reject(report, line, message));
+        }
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictQueryRegions();
+        cache.evictCollectionData(SecondLevelCacheConfig.ACCOUNT_CARDS_ROLE);
+    }
+
+    private void reject(ImportReport report, long line, String message) {
+        report.setRowsFailed(report.getRowsFailed() + 1);
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.getErrors().add(new ImportRowError(line, message));
+        }
+    }
+
+    private <T> List<T> queryByArrays(String sql, String sqlType, RowMapper<T> mapper, Object[]... arrays) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            for (int i = 0; i < arrays.length; i++) {
+                ps.setArray(i + 1, con.createArrayOf(sqlType, arrays[i]));
+            }
+            return ps;
+        }, mapper);
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static BigDecimal parseAmount(String value) {
+        try {
+            return new BigDecimal(value).setScale(2, RoundingMode.UNNECESSARY);
+        } catch (NumberFormatException | ArithmeticException e) {
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface BatchHandler {
+        void handle(List<Row> rows, ImportReport report);
+    }
+
+    private record Row(long line, List<String> values, Map<String, Integer> columns) {
+        String get(String column) {
+            Integer index = columns.get(column);
+            return index == null || index >= values.size() ? "" : values.get(index).trim();
+        }
+    }
+
+    private record UserRow(long line, String username, String email, String passwordHash, Role role) {
+    }
+
+    private record AccountRow(long line, String username, BankAccount account) {
+    }
+
+    // Xam nomre setirde saxlanilmir: yalniz sifreli metn, fingerprint ve son 4 reqem
+    private record CardRow(long line, String accountNumber, String panCiphertext, String expiryDate,
+                           String fingerprint, String lastFour, String error) {
+    }
+}
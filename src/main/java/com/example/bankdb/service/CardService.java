@@ -8,16 +8,26 @@ import com.example.bankdb.model.dto.CardDto;
 import com.example.bankdb.model.dto.CreateCardRequest;
 import com.example.bankdb.model.entity.BankAccount;
 import com.example.bankdb.model.entity.Card;
+import com.example.bankdb.model.entity.CardSecret;
 import com.example.bankdb.repository.BankAccountRepository;
 import com.example.bankdb.repository.CardRepository;
+import com.example.bankdb.repository.CardSecretRepository;
 import com.example.bankdb.util.CardValidator;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -27,7 +37,12 @@ public class CardService {
 
     private final CardRepository cardRepository;
     private final BankAccountRepository bankAccountRepository;
+    private final SecurityService securityService;
+    private final PanTokenizationService panTokenizationService;
+    private final PanEncryptionService panEncryptionService;
+    private final CardSecretRepository cardSecretRepository;
 
+    @Transactional
     public String createCard(CreateCardRequest request, String userEmail) {
         log.info("Create card for accountId: {} by userEmail: {}", request.getAccountId(), userEmail);
         BankAccount account = bankAccountRepository.findById(request.getAccountId())
@@ -48,21 +63,32 @@ public class CardService {
         }
 
         if (!CardValidator.isValidCardNumber(request.getCardNumber())) {
-            log.error("Invalid card number provided: {}", request.getCardNumber());
+            log.error("Invalid card number provided for accountId: {}", request.getAccountId());
             throw new InvalidCardNumberException("Invalid card number.");
         }
 
+        String fingerprint = panTokenizationService.fingerprint(request.getCardNumber());
+        if (cardRepository.existsByPanFingerprint(fingerprint)) {
+            log.error("Card number already registered, accountId: {}", request.getAccountId());
+            throw new InvalidCardNumberException("Card number is already registered.");
+        }
+
         Card card = new Card();
-        card.setCardNumber(request.getCardNumber());
+        card.setPanFingerprint(fingerprint);
+        card.setPanToken(panTokenizationService.newToken());
+        card.setLastFour(PanTokenizationService.lastFour(request.getCardNumber()));
         card.setExpiryDate(request.getExpiryDate().toString());
-        card.setCvv(request.getCvv());
         card.setLinkedAccount(account);
 
-        cardRepository.save(card);
+        cardSecretRepository.save(new CardSecret(cardRepository.save(card), panEncryptionService.encrypt(request.getCardNumber())));
         log.info("Card created successfully for accountId: {}", request.getAccountId());
         return "Card created successfully";
     }
 
+    public String getCardsETag(Long accountId) {
+        return cardRepository.findVersionStampByAccountId(accountId).toETag("c");
+    }
+
     public List<CardDto> getCardsByAccount(Long accountId) {
         log.info("Fetching cards for accountId: {}", accountId);
         List<Card> cards = cardRepository.findByLinkedAccount_Id(accountId);
@@ -75,11 +101,65 @@ public class CardService {
     private CardDto mapToDto(Card card) {
         CardDto dto = new CardDto();
         dto.setId(card.getId());
-        dto.setCardNumber(card.getCardNumber());
+        dto.setCardNumber(PanTokenizationService.mask(card.getLastFour()));
+        dto.setCardToken(card.getPanToken());
         dto.setExpiryDate(card.getExpiryDate());
         return dto;
     }
 
+    // Fingerprint-i olmayan kohne kartlar id sirasi ile hisse-hisse doldurulur. Qisa ve ya tekrarlanan
+    // nomreli setirler atlanir ve loglanir ki, unikal indeks xetasi startup-i dayandirmasin.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillPanFingerprints() {
+        long lastId = 0;
+        long total = 0;
+        long skipped = 0;
+        List<CardSecret> batch;
+        while (!(batch = cardSecretRepository.findWithoutFingerprint(lastId, PageRequest.ofSize(500))).isEmpty()) {
+            lastId = batch.get(batch.size() - 1).getCardId();
+
+            Map<String, CardSecret> byFingerprint = new LinkedHashMap<>();
+            Map<Long, String> pans = new HashMap<>();
+            for (CardSecret secret : batch) {
+                String pan = panEncryptionService.decrypt(secret.getPanCiphertext());
+                if (PanTokenizationService.lastFour(pan) == null) {
+                    log.warn("Skipping PAN backfill for card id={}: card number is too short", secret.getCardId());
+                    skipped++;
+                    continue;
+                }
+                pans.put(secret.getCardId(), pan);
+                CardSecret previous = byFingerprint.putIfAbsent(panTokenizationService.fingerprint(pan), secret);
+                if (previous != null) {
+                    log.warn("Skipping PAN backfill for card id={}: same card number as card id={}",
+                            secret.getCardId(), previous.getCardId());
+                    skipped++;
+                }
+            }
+            if (!byFingerprint.isEmpty()) {
+                for (String existing : cardRepository.findExistingPanFingerprints(byFingerprint.keySet())) {
+                    CardSecret secret = byFingerprint.remove(existing);
+                    log.warn("Skipping PAN backfill for card id={}: card number already belongs to another card",
+                            secret.getCardId());
+                    skipped++;
+                }
+            }
+
+            List<Card> cards = new ArrayList<>(byFingerprint.size());
+            for (Map.Entry<String, CardSecret> entry : byFingerprint.entrySet()) {
+                Card card = entry.getValue().getCard();
+                card.setPanFingerprint(entry.getKey());
+                card.setPanToken(panTokenizationService.newToken());
+                card.setLastFour(PanTokenizationService.lastFour(pans.get(entry.getValue().getCardId())));
+                cards.add(card);
+            }
+            cardRepository.saveAll(cards);
+            total += cards.size();
+        }
+        if (total > 0 || skipped > 0) {
+            log.info("Backfilled PAN fingerprints for {} cards, skipped {}", total, skipped);
+        }
+    }
+
     public void deleteCard(Long cardId) {
         log.info("Delete card with id: {}", cardId);
         if (!cardRepository.existsById(cardId)) {
@@ -87,9 +167,11 @@ public class CardService {
             throw new CardNotFoundException("Card not found");
         }
         cardRepository.deleteById(cardId);
+        securityService.evictCard(cardId);
         log.info("Card deleted successfully with id: {}", cardId);
     }
 
+    @Transactional
     public Card updateCard(Long cardId, CreateCardRequest request) {
         log.info("Updating card with id: {}", cardId);
         Card existingCard = cardRepository.findById(cardId)
@@ -104,12 +186,28 @@ public class CardService {
                     return new EntityNotFoundException("Bank account not found with id: " + request.getAccountId());
                 });
 
-        existingCard.setCardNumber(request.getCardNumber());
+        // Nomre fingerprint ile muqayise olunur, saxlanilan nomre desifre edilmir
+        String fingerprint = panTokenizationService.fingerprint(request.getCardNumber());
+        boolean numberChanged = !fingerprint.equals(existingCard.getPanFingerprint());
+        if (numberChanged) {
+            if (!CardValidator.isValidCardNumber(request.getCardNumber())) {
+                log.error("Invalid card number provided for card id: {}", cardId);
+                throw new InvalidCardNumberException("Invalid card number.");
+            }
+            existingCard.setPanFingerprint(fingerprint);
+            existingCard.setPanToken(panTokenizationService.newToken());
+            existingCard.setLastFour(PanTokenizationService.lastFour(request.getCardNumber()));
+        }
         existingCard.setExpiryDate(request.getExpiryDate().toString());
-        existingCard.setCvv(request.getCvv());
         existingCard.setLinkedAccount(linkedAccount);
 
         Card updated = cardRepository.save(existingCard);
+        if (numberChanged) {
+            CardSecret secret = cardSecretRepository.findById(cardId).orElseGet(() -> new CardSecret(existingCard, null));
+            secret.setPanCiphertext(panEncryptionService.encrypt(request.getCardNumber()));
+            cardSecretRepository.save(secret);
+        }
+        securityService.evictCard(cardId);
         log.info("Card updated successfully with id: {}", cardId);
         return updated;
     }
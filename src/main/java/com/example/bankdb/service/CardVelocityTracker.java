@@ -0,0 +1,202 @@
+package com.example.bankdb.service;
+
+import com.example.bankdb.exception.VelocityLimitExceededException;
+import com.example.bankdb.model.projection.CardSpendView;
+import com.example.bankdb.repository.TransactionRepository;
+import com.example.bankdb.util.TransactionCallbacks;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// Kart uzre son N saatliq xerclerin yaddasda saxlanilan surusen pencereleri.
+// Her kart ucun sabit olculu ring buffer istifade olunur, ledger-e sorgu getmir.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CardVelocityTracker {
+
+    private final TransactionRepository transactionRepository;
+
+    @Value("${card-velocity.enabled:true}")
+    private boolean enabled;
+
+    @Value("${card-velocity.window-minutes:1440}")
+    private long windowMinutes;
+
+    @Value("${card-velocity.bucket-count:24}")
+    private int bucketCount;
+
+    @Value("${card-velocity.max-count:20}")
+    private int maxCount;
+
+    @Value("${card-velocity.max-amount:5000.00}")
+    private BigDecimal maxAmount;
+
+    private final ConcurrentHashMap<Long, CardWindow> windows = new ConcurrentHashMap<>();
+
+    private long bucketMillis;
+    private long maxAmountMinor;
+
+    @PostConstruct
+    void init() {
+        bucketMillis = windowMinutes * 60_000L / bucketCount;
+        maxAmountMinor = toMinor(maxAmount);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime since = LocalDateTime.now().minusMinutes(windowMinutes);
+        long loaded = 0;
+        try (Stream<CardSpendView> spends = transactionRepository.streamCardSpendSince(since)) {
+            for (CardSpendView spend : (Iterable<CardSpendView>) spends::iterator) {
+                long epochMillis = spend.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                record(spend.getCardId(), epochMillis / bucketMillis, toMinor(spend.getAmount()));
+                loaded++;
+            }
+        }
+        log.info("Card velocity windows warmed up from {} ledger rows, tracking {} cards", loaded, windows.size());
+    }
+
+    // Limit yoxlanilir ve mebleg rezerv olunur; tranzaksiya geri qayidarsa rezerv azad edilir.
+    public void reserve(Long cardId, BigDecimal amount) {
+        if (!enabled) {
+            return;
+        }
+        long bucket = System.currentTimeMillis() / bucketMillis;
+        long amountMinor = toMinor(amount);
+        while (true) {
+            CardWindow window = window(cardId);
+            Admission admission = window.tryAdd(bucket, amountMinor, maxCount, maxAmountMinor);
+            if (admission == Admission.EVICTED) {
+                // Pencere bu arada bos kimi silinib; yenisi yaradilir
+                windows.remove(cardId, window);
+                continue;
+            }
+            if (admission == Admission.LIMIT_EXCEEDED) {
+                log.warn("Velocity limit exceeded for cardId={}, amount={}", cardId, amount);
+                throw new VelocityLimitExceededException("Card spending limit exceeded for the current period");
+            }
+            TransactionCallbacks.afterRollback(() -> window.remove(bucket, amountMinor));
+            return;
+        }
+    }
+
+    // Bosluq pencerenin oz kilidi altinda yeniden yoxlanilir: paralel reserve ya evvel yazir (pencere qalir),
+    // ya da silinmis pencereni gorub yenisine kecir, rezerv itmir.
+    @Scheduled(fixedDelayString = "${card-velocity.eviction-interval:300000}")
+    public void evictIdleCards() {
+        long oldestLiveBucket = System.currentTimeMillis() / bucketMillis - bucketCount + 1;
+        windows.forEach((cardId, window) -> {
+            if (window.evictIfIdle(oldestLiveBucket)) {
+                windows.remove(cardId, window);
+            }
+        });
+    }
+
+    private void record(Long cardId, long bucket, long amountMinor) {
+        CardWindow window = window(cardId);
+        while (!window.add(bucket, amountMinor)) {
+            windows.remove(cardId, window);
+            window = window(cardId);
+        }
+    }
+
+    private CardWindow window(Long cardId) {
+        return windows.computeIfAbsent(cardId, id -> new CardWindow(bucketCount));
+    }
+
+    private static long toMinor(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    enum Admission { ADDED, LIMIT_EXCEEDED, EVICTED }
+
+    static final class CardWindow {
+
+        private final long[] bucketIds;
+        private final int[] counts;
+        private final long[] amounts;
+        private long lastBucket = Long.MIN_VALUE;
+        private boolean evicted;
+
+        CardWindow(int size) {
+            bucketIds = new long[size];
+            counts = new int[size];
+            amounts = new long[size];
+            Arrays.fill(bucketIds, Long.MIN_VALUE);
+        }
+
+        synchronized Admission tryAdd(long bucket, long amountMinor, int maxCount, long maxAmountMinor) {
+            if (evicted) {
+                return Admission.EVICTED;
+            }
+            long oldest = bucket - bucketIds.length + 1;
+            int totalCount = 0;
+            long totalAmount = 0;
+            for (int i = 0; i < bucketIds.length; i++) {
+                if (bucketIds[i] >= oldest) {
+                    totalCount += counts[i];
+                    totalAmount += amounts[i];
+                }
+            }
+            if (totalCount + 1 > maxCount || totalAmount + amountMinor > maxAmountMinor) {
+                return Admission.LIMIT_EXCEEDED;
+            }
+            add(bucket, amountMinor);
+            return Admission.ADDED;
+        }
+
+        // Silinmis pencereye yazilmir (false); cox kohne bucket ise sessizce atilir
+        synchronized boolean add(long bucket, long amountMinor) {
+            if (evicted) {
+                return false;
+            }
+            int slot = (int) Math.floorMod(bucket, (long) bucketIds.length);
+            if (bucketIds[slot] != bucket) {
+                if (bucketIds[slot] > bucket) {
+                    return true;
+                }
+                bucketIds[slot] = bucket;
+                counts[slot] = 0;
+                amounts[slot] = 0;
+            }
+            counts[slot]++;
+            amounts[slot] += amountMinor;
+            lastBucket = Math.max(lastBucket, bucket);
+            return true;
+        }
+
+        synchronized void remove(long bucket, long amountMinor) {
+            int slot = (int) Math.floorMod(bucket, (long) bucketIds.length);
+            if (bucketIds[slot] == bucket) {
+                counts[slot]--;
+                amounts[slot] -= amountMinor;
+            }
+        }
+
+        synchronized boolean evictIfIdle(long oldestLiveBucket) {
+            if (lastBucket < oldestLiveBucket) {
+                evicted = true;
+            }
+            return evicted;
+        }
+    }
+}
@@ -3,12 +3,14 @@ package com.example.bankdb.service;
 import com.example.bankdb.exception.EmailSendingException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.mail.MailException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
 @Slf4j
+@Lazy
 @Service
 @RequiredArgsConstructor
 public class EmailSenderService {
@@ -0,0 +1,89 @@
+package com.example.bankdb.service;
+
+import com.example.bankdb.exception.ExchangeRateNotAvailableException;
+import com.example.bankdb.exception.InvalidExchangeRateException;
+import com.example.bankdb.model.entity.ExchangeRate;
+import com.example.bankdb.model.entity.enums.CurrencyType;
+import com.example.bankdb.repository.ExchangeRateRepository;
+import com.example.bankdb.util.TransactionCallbacks;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FxRateService {
+
+    // exchange_rates.rate sutununun scale-i
+    private static final int RATE_SCALE = 16;
+
+    private final ExchangeRateRepository exchangeRateRepository;
+
+    private final AtomicReference<FxRateSnapshot> snapshot = new AtomicReference<>(FxRateSnapshot.empty());
+
+    @PostConstruct
+    void init() {
+        reload();
+    }
+
+    // Yeni cedvel tam qurulur ve bir defeye deyisdirilir, oxuyanlar kilid gormur.
+    @Scheduled(fixedDelayString = "${fx.refresh-interval:60000}")
+    public void reload() {
+        List<ExchangeRate> rates = exchangeRateRepository.findLatestRates();
+        snapshot.set(FxRateSnapshot.of(rates));
+        log.debug("Loaded {} exchange rates", rates.size());
+    }
+
+    public FxRateSnapshot.Quote quote(CurrencyType from, CurrencyType to) {
+        FxRateSnapshot.Quote quote = snapshot.get().quote(currencyOrDefault(from), currencyOrDefault(to));
+        if (quote == null) {
+            throw new ExchangeRateNotAvailableException("No exchange rate available for " + from + " -> " + to);
+        }
+        return quote;
+    }
+
+    public List<ExchangeRate> getAllRates() {
+        return exchangeRateRepository.findLatestRates();
+    }
+
+    // Movcud setir deyisdirilmir, yeni setir elave olunur. Ters istiqamet ucun admin ozu kurs vermeyibse
+    // (son ters setir yoxdur ve ya hesablanmisdir), bu kursdan hesablanan ters setir de yazilir.
+    @Transactional
+    public ExchangeRate updateRate(CurrencyType baseCurrency, CurrencyType quoteCurrency, BigDecimal rate) {
+        if (baseCurrency == null || quoteCurrency == null || baseCurrency == quoteCurrency) {
+            throw new InvalidExchangeRateException("Base and quote currencies must be different");
+        }
+        if (rate == null || rate.signum() <= 0) {
+            throw new InvalidExchangeRateException("Exchange rate must be positive");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        ExchangeRate saved = exchangeRateRepository.save(
+                new ExchangeRate(null, baseCurrency, quoteCurrency, rate, now, null));
+
+        boolean reverseIsDerived = exchangeRateRepository
+                .findFirstByBaseCurrencyAndQuoteCurrencyOrderByIdDesc(quoteCurrency, baseCurrency)
+                .map(reverse -> reverse.getInverseOfId() != null)
+                .orElse(true);
+        if (reverseIsDerived) {
+            BigDecimal inverse = BigDecimal.ONE.divide(rate, RATE_SCALE, RoundingMode.HALF_EVEN);
+            exchangeRateRepository.save(new ExchangeRate(null, quoteCurrency, baseCurrency, inverse, now, saved.getId()));
+        }
+        log.info("Exchange rate updated: {} -> {} = {}", baseCurrency, quoteCurrency, rate);
+        TransactionCallbacks.afterCommit(this::reload);
+        return saved;
+    }
+
+    private CurrencyType currencyOrDefault(CurrencyType currency) {
+        return currency != null ? currency : CurrencyType.AZN;
+    }
+}
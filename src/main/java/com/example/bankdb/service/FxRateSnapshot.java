@@ -0,0 +1,54 @@
+package com.example.bankdb.service;
+
+import com.example.bankdb.model.entity.ExchangeRate;
+import com.example.bankdb.model.entity.enums.CurrencyType;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+// Deyismez kurs cedveli. Quote obyektleri yuklenende yaradilir, lookup yalniz massiv indeksidir.
+public final class FxRateSnapshot {
+
+    public record Quote(Long rateId, BigDecimal rate) {
+    }
+
+    public static final Quote IDENTITY = new Quote(null, BigDecimal.ONE);
+
+    private static final CurrencyType[] CURRENCIES = CurrencyType.values();
+
+    private final Quote[][] quotes;
+
+    private FxRateSnapshot(Quote[][] quotes) {
+        this.quotes = quotes;
+    }
+
+    public static FxRateSnapshot empty() {
+        return of(List.of());
+    }
+
+    public static FxRateSnapshot of(Collection<ExchangeRate> rates) {
+        int n = CURRENCIES.length;
+        Quote[][] quotes = new Quote[n][n];
+        for (int i = 0; i < n; i++) {
+            quotes[i][i] = IDENTITY;
+        }
+        // Her istiqametin (ters kurslar da daxil) oz setri var: Quote.rateId tetbiq olunan kursu birmenali gosterir.
+        for (ExchangeRate rate : rates) {
+            int base = rate.getBaseCurrency().ordinal();
+            int quote = rate.getQuoteCurrency().ordinal();
+            if (base == quote || rate.getRate().signum() <= 0) {
+                continue;
+            }
+            quotes[base][quote] = new Quote(rate.getId(), rate.getRate());
+        }
+        return new FxRateSnapshot(quotes);
+    }
+
+    /**
+     * @return the quote converting {@code from} into {@code to}, or {@code null} when no rate is loaded
+     */
+    public Quote quote(CurrencyType from, CurrencyType to) {
+        return quotes[from.ordinal()][to.ordinal()];
+    }
+}
@@ -91,7 +91,7 @@ public class JwtService {
         if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
             return bearerToken.substring(7);
         }
-        log.warn("Bearer token was missing or malformed: {}", bearerToken);
+        log.warn("Bearer token was missing or malformed");
         return bearerToken;
     }
 }
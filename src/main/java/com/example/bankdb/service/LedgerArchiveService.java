@@ -0,0 +1,336 @@
+package com.example.bankdb.service;
+
+import com.example.bankdb.model.dto.PostingDto;
+import com.example.bankdb.model.dto.TransactionDto;
+import com.example.bankdb.model.entity.enums.TransactionType;
+import com.example.bankdb.util.LedgerArchiveFile;
+import com.example.bankdb.util.LongLongHashMap;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Kohne ledger-in (transaction + postings) lokal diskde sutunlu fayllara kocurulmesi.
+// Cutoff-dan kohne emeliyyatlar id sirasi ile hisse-hisse secilir, bir fayla yazilir, sonra bazadan
+// delete-batch-size-lik tranzaksiyalarla silinir (postings FK cascade ile gedir).
+// Fayl yazilmamisdan evvel ".pending" marker yaradilir ve silme bitende silinir; restart-dan sonra marker
+// qalmis fayllarin silinmesi tamamlanir. Bu pencerede setir hem bazada, hem faylda ola biler, ona gore
+// oxuyan teref id uzre tekrarlari atir.
+// Tarixce/cixaris/balans sorgulari fayl footer-indeki chunk statistikasina gore yalniz aid chunk-lari oxuyur.
+@Slf4j
+@Service
+public class LedgerArchiveService {
+
+    private static final String FILE_SUFFIX = ".lca";
+    private static final String PENDING_SUFFIX = ".lca.pending";
+
+    // Posting-i olmayan (hele backfill olunmamis) emeliyyat arxivlenmir, yoxsa ledger-den itir
+    private static final String ARCHIVE_BATCH_SQL = """
+            SELECT p.id, p.account_id, p.posted_at, p.amount, p.balance_after,
+                   t.id, t.amount, t.converted_amount, t.exchange_rate_id, t.description,
+                   t.from_account_id, t.to_account_id, t.from_card_id, t.to_card_id, t.transaction_type
+            FROM postings p
+            JOIN transaction t ON t.id = p.transaction_id
+            WHERE t.id IN (SELECT c.id FROM transaction c
+                           WHERE c.timestamp < ?
+                             AND EXISTS (SELECT 1 FROM postings cp WHERE cp.transaction_id = c.id)
+                           ORDER BY c.id
+                           LIMIT ?)
+            ORDER BY p.account_id, p.posted_at, p.id
+            """;
+
+    private static final String DELETE_TRANSACTIONS_SQL = "DELETE FROM transaction WHERE id = ANY (?)";
+
+    private static final RowMapper<LedgerArchiveFile.Row> ROW_MAPPER = (rs, rowNum) -> new LedgerArchiveFile.Row(
+            rs.getLong(1), rs.getLong(2), rs.getTimestamp(3).toLocalDateTime(), rs.getBigDecimal(4), rs.getBigDecimal(5),
+            rs.getLong(6), rs.getBigDecimal(7), rs.getBigDecimal(8), rs.getObject(9, Long.class), rs.getString(10),
+            rs.getObject(11, Long.class), rs.getObject(12, Long.class), rs.getObject(13, Long.class),
+            rs.getObject(14, Long.class), rs.getString(15));
+
+    private static final Comparator<LedgerArchiveFile.Row> LEDGER_ORDER =
+            Comparator.comparing(LedgerArchiveFile.Row::postedAt).thenComparingLong(LedgerArchiveFile.Row::postingId);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    // Arxivleme ve tutusdurma eyni anda islemesin: yarimciq arxiv ledger-i iki defe ve ya hec saymaz
+    private final ReentrantLock archiveLock = new ReentrantLock();
+    private final List<LedgerArchiveFile> files = new CopyOnWriteArrayList<>();
+
+    @Value("${ledger-archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ledger-archive.directory:ledger-archive}")
+    private Path directory;
+
+    @Value("${ledger-archive.retention-days:365}")
+    private int retentionDays;
+
+    @Value("${ledger-archive.transactions-per-file:50000}")
+    private int transactionsPerFile;
+
+    @Value("${ledger-archive.chunk-rows:8192}")
+    private int chunkRows;
+
+    @Value("${ledger-archive.delete-batch-size:1000}")
+    private int deleteBatchSize;
+
+    @Value("${ledger-archive.max-files-per-run:20}")
+    private int maxFilesPerRun;
+
+    public LedgerArchiveService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Arxiv sondurulse de movcud fayllar oxunur, yoxsa kohne tarixce gorunmez olar
+    @PostConstruct
+    void loadFiles() throws IOException {
+        meterRegistry.gauge("bank.ledger-archive.files", files, List::size);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        for (Path path : listFiles(directory)) {
+            files.add(LedgerArchiveFile.open(path));
+        }
+        log.info("Loaded {} ledger archive files from {}", files.size(), directory.toAbsolutePath());
+    }
+
+    // Qovluqdaki arxiv fayllari ad sirasi ile; bean yaradilmadan (Flyway miqrasiyasindan) da cagirilir
+    public static List<Path> listFiles(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(p -> p.getFileName().toString().endsWith(FILE_SUFFIX)).sorted().toList();
+        }
+    }
+
+    // Marker qalibsa faylin setirlerinin bir hissesi bazada hele silinmeyib
+    public static boolean isPending(Path file) {
+        return Files.exists(file.resolveSibling(file.getFileName() + ".pending"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void completePendingArchives() {
+        archiveLock.lock();
+        try {
+            recoverPending();
+        } catch (IOException e) {
+            log.error("Failed to complete pending ledger archives in {}", directory, e);
+        } finally {
+            archiveLock.unlock();
+        }
+    }
+
+    @Scheduled(cron = "${ledger-archive.cron:0 30 3 * * *}")
+    public void archiveScheduled() {
+        if (enabled) {
+            archive(LocalDate.now().minusDays(retentionDays).atStartOfDay());
+        }
+    }
+
+    // cutoff-dan evvelki emeliyyatlari arxivleyir; yazilan fayl sayini qaytarir
+    public int archive(LocalDateTime cutoff) {
+        if (!archiveLock.tryLock()) {
+            log.info("Ledger archive skipped: archive or reconciliation is already running");
+            return 0;
+        }
+        try {
+            recoverPending();
+            Files.createDirectories(directory);
+            int written = 0;
+            while (written < maxFilesPerRun) {
+                List<LedgerArchiveFile.Row> rows = jdbcTemplate.query(ARCHIVE_BATCH_SQL, ROW_MAPPER,
+                        Timestamp.valueOf(cutoff), transactionsPerFile);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                archiveBatch(rows);
+                written++;
+            }
+            return written;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ledger archive failed in " + directory, e);
+        } finally {
+            archiveLock.unlock();
+        }
+    }
+
+    // Arxiv fayllari bu mueddet erzinde deyismir
+    public <T> T whileIdle(Supplier<T> action) {
+        archiveLock.lock();
+        try {
+            return action.get();
+        } finally {
+            archiveLock.unlock();
+        }
+    }
+
+    // Chunk statistikasina gore hesabin arxivde setri ola bilermi (disk oxunmur)
+    public boolean mayContain(long accountId) {
+        for (LedgerArchiveFile file : files) {
+            if (file.mayContain(accountId, null, null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Hesabin arxivdeki emeliyyatlari, yeniden kohneye
+    public List<TransactionDto> findTransactions(long accountId) {
+        List<LedgerArchiveFile.Row> rows = scan(accountId, null, null);
+        List<TransactionDto> transactions = new ArrayList<>(rows.size());
+        for (int i = rows.size() - 1; i >= 0; i--) {
+            transactions.add(toTransactionDto(rows.get(i)));
+        }
+        return transactions;
+    }
+
+    // Hesabin [from, to) araligindaki arxiv posting-leri, kohneden yeniye
+    public List<PostingDto> findPostings(long accountId, LocalDateTime from, LocalDateTime to) {
+        return scan(accountId, from, to).stream().map(LedgerArchiveService::toPostingDto).toList();
+    }
+
+    // Verilen andan evvelki son arxiv posting-inin balansi
+    public Optional<BigDecimal> findBalanceBefore(long accountId, LocalDateTime at) {
+        List<LedgerArchiveFile.Row> rows = scan(accountId, null, at);
+        return rows.isEmpty() ? Optional.empty() : Optional.ofNullable(rows.get(rows.size() - 1).balanceAfter());
+    }
+
+    // Hesab uzre arxivlenmis ledger cemleri (qepikle), tutusdurma ucun
+    public LongLongHashMap accountTotals() {
+        LongLongHashMap totals = new LongLongHashMap();
+        for (LedgerArchiveFile file : files) {
+            try {
+                file.forEach(row -> totals.addTo(row.accountId(), row.amount().movePointRight(2).longValueExact()));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read ledger archive " + file.path(), e);
+            }
+        }
+        return totals;
+    }
+
+    private List<LedgerArchiveFile.Row> scan(long accountId, LocalDateTime from, LocalDateTime to) {
+        List<LedgerArchiveFile.Row> rows = new ArrayList<>();
+        for (LedgerArchiveFile file : files) {
+            if (!file.mayContain(accountId, from, to)) {
+                continue;
+            }
+            try {
+                file.scan(accountId, from, to, rows::add);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read ledger archive " + file.path(), e);
+            }
+        }
+        rows.sort(LEDGER_ORDER);
+        return rows;
+    }
+
+    private void archiveBatch(List<LedgerArchiveFile.Row> rows) throws IOException {
+        long[] transactionIds = rows.stream().mapToLong(LedgerArchiveFile.Row::transactionId).distinct().sorted().toArray();
+        String name = String.format("ledger-%019d-%019d", transactionIds[0], transactionIds[transactionIds.length - 1]);
+        Path marker = directory.resolve(name + PENDING_SUFFIX);
+        Path target = directory.resolve(name + FILE_SUFFIX);
+
+        long started = System.nanoTime();
+        Files.write(marker, new byte[0]);
+        LedgerArchiveFile file = LedgerArchiveFile.write(target, rows, chunkRows);
+        files.removeIf(existing -> existing.path().equals(target));
+        files.add(file);
+        deleteTransactions(transactionIds);
+        Files.delete(marker);
+
+        meterRegistry.counter("bank.ledger-archive.transactions").increment(transactionIds.length);
+        log.info("Archived {} transactions ({} postings) to {} ({} bytes) in {} ms", transactionIds.length, rows.size(),
+                target.getFileName(), Files.size(target), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Marker-i qalmis fayllarin emeliyyatlari bazadan silinir; fayl yazilmamisdan dusen marker sadece silinir
+    private void recoverPending() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> markers;
+        try (Stream<Path> paths = Files.list(directory)) {
+            markers = paths.filter(p -> p.getFileName().toString().endsWith(PENDING_SUFFIX)).sorted().toList();
+        }
+        for (Path marker : markers) {
+            String fileName = marker.getFileName().toString();
+            Path target = marker.resolveSibling(fileName.substring(0, fileName.length() - PENDING_SUFFIX.length()) + FILE_SUFFIX);
+            if (Files.exists(target)) {
+                LedgerArchiveFile file = LedgerArchiveFile.open(target);
+                List<Long> ids = new ArrayList<>();
+                file.forEach(row -> ids.add(row.transactionId()));
+                deleteTransactions(ids.stream().mapToLong(Long::longValue).distinct().sorted().toArray());
+                log.info("Completed pending ledger archive {}", target.getFileName());
+            }
+            Files.delete(marker);
+        }
+    }
+
+    private void deleteTransactions(long[] transactionIds) {
+        for (int from = 0; from < transactionIds.length; from += deleteBatchSize) {
+            Long[] batch = Arrays.stream(transactionIds, from, Math.min(transactionIds.length, from + deleteBatchSize))
+                    .boxed()
+                    .toArray(Long[]::new);
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(DELETE_TRANSACTIONS_SQL);
+                ps.setArray(1, con.createArrayOf("bigint", batch));
+                return ps;
+            }));
+        }
+    }
+
+    private static TransactionDto toTransactionDto(LedgerArchiveFile.Row row) {
+        TransactionDto dto = new TransactionDto();
+        dto.setId(row.transactionId());
+        dto.setAmount(row.transactionAmount());
+        dto.setConvertedAmount(row.convertedAmount());
+        dto.setExchangeRateId(row.exchangeRateId());
+        dto.setDescription(row.description());
+        dto.setTimestamp(row.postedAt());
+        dto.setFromAccountId(row.fromAccountId());
+        dto.setToAccountId(row.toAccountId());
+        dto.setFromCardId(row.fromCardId());
+        dto.setToCardId(row.toCardId());
+        dto.setTransactionType(row.transactionType());
+        return dto;
+    }
+
+    private static PostingDto toPostingDto(LedgerArchiveFile.Row row) {
+        return new PostingDto(row.postingId(), row.transactionId(), row.amount(), row.balanceAfter(), row.postedAt(),
+                row.transactionType() != null ? TransactionType.valueOf(row.transactionType()) : null,
+                row.description());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.bankdb.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+// Kart nomresinin (PAN) bazada AES-256-GCM ile sifrelenmesi. Acar muhitden gelir ve fingerprint ucun
+// istifade olunan card.pan-hmac-key-den ayridir. Saxlanilan format: "v1:" + Base64(IV || sifreli metn || tag).
+// Xam PAN yalniz fingerprint backfill-inde desifre olunur.
+@Service
+public class PanEncryptionService {
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final String VERSION_PREFIX = "v1:";
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${card.pan-encryption-key}")
+    private String panEncryptionKey;
+
+    @Value("${card.pan-hmac-key}")
+    private String panHmacKey;
+
+    private SecretKeySpec keySpec;
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = Base64.getDecoder().decode(panEncryptionKey);
+        if (keyBytes.length != 32) {
+            throw new IllegalStateException("card.pan-encryption-key must be a base64-encoded 256-bit key");
+        }
+        if (panEncryptionKey.equals(panHmacKey)) {
+            throw new IllegalStateException("card.pan-encryption-key must differ from card.pan-hmac-key");
+        }
+        keySpec = new SecretKeySpec(keyBytes, "AES");
+    }
+
+    public String encrypt(String pan) {
+        byte[] iv = new byte[IV_BYTES];
+        secureRandom.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, keySpec, new GCMParameterSpec(TAG_BITS, iv));
+            byte[] encrypted = cipher.doFinal(pan.getBytes(StandardCharsets.US_ASCII));
+            byte[] stored = ByteBuffer.allocate(IV_BYTES + encrypted.length).put(iv).put(encrypted).array();
+            return VERSION_PREFIX + Base64.getEncoder().encodeToString(stored);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to encrypt card number", e);
+        }
+    }
+
+    public String decrypt(String ciphertext) {
+        if (ciphertext == null || !ciphertext.startsWith(VERSION_PREFIX)) {
+            throw new IllegalArgumentException("Unsupported card number ciphertext format");
+        }
+        byte[] stored = Base64.getDecoder().decode(ciphertext.substring(VERSION_PREFIX.length()));
+        if (stored.length <= IV_BYTES) {
+            throw new IllegalArgumentException("Card number ciphertext is truncated");
+        }
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, keySpec, new GCMParameterSpec(TAG_BITS, stored, 0, IV_BYTES));
+            byte[] pan = cipher.doFinal(stored, IV_BYTES, stored.length - IV_BYTES);
+            return new String(pan, StandardCharsets.US_ASCII);
+        } catch (GeneralSecurityException e) {
+            // Yanlis acar ve ya deyisdirilmis setir: GCM tag-i uygun gelmir
+            throw new IllegalStateException("Failed to decrypt card number", e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.bankdb.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+
+// Kart nomresi (PAN) ucun acarli HMAC fingerprint ve API-de istifade olunan token.
+// Fingerprint axtaris ucun unikal indeksde saxlanilir, xam PAN API-ye qaytarilmir.
+@Slf4j
+@Service
+public class PanTokenizationService {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String TOKEN_PREFIX = "tok_";
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${card.pan-hmac-key}")
+    private String panHmacKey;
+
+    private SecretKeySpec keySpec;
+
+    private final ThreadLocal<Mac> mac = ThreadLocal.withInitial(this::newMac);
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = Base64.getDecoder().decode(panHmacKey);
+        if (keyBytes.length < 32) {
+            throw new IllegalStateException("card.pan-hmac-key must be at least 256 bits");
+        }
+        keySpec = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+    }
+
+    public String fingerprint(String pan) {
+        Mac hmac = mac.get();
+        hmac.reset();
+        return HexFormat.of().formatHex(hmac.doFinal(pan.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    public String newToken() {
+        byte[] bytes = new byte[24];
+        secureRandom.nextBytes(bytes);
+        return TOKEN_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    // Kohne setirlerde 4 reqemden qisa nomre ola biler; onlar maskalanmir, null qaytarilir
+    public static String lastFour(String pan) {
+        if (pan == null || pan.length() < 4) {
+            return null;
+        }
+        return pan.substring(pan.length() - 4);
+    }
+
+    public static String mask(String lastFour) {
+        return lastFour == null ? null : "**** **** **** " + lastFour;
+    }
+
+    private Mac newMac() {
+        try {
+            Mac hmac = Mac.getInstance(HMAC_ALGORITHM);
+            hmac.init(keySpec);
+            return hmac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to initialize " + HMAC_ALGORITHM, e);
+        }
+    }
+}
@@ -8,9 +8,14 @@ import com.example.bankdb.repository.RefreshTokenRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.HexFormat;
 import java.util.UUID;
 
 @Slf4j
@@ -18,26 +23,34 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class RefreshTokenService {
 
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
     private final RefreshTokenRepository refreshTokenRepository;
 
     @Value("${jwt.refresh-token.expiration:36000000}")
     private Long refreshTokenExpiration;
 
-    public RefreshToken createOrUpdateRefreshToken(User user) {
-        refreshTokenRepository.findByUser(user).ifPresent(existing -> {
-            log.info("Deleting existing refresh token for user: {}", user.getEmail());
-            refreshTokenRepository.delete(existing);
-        });
+    @Value("${jwt.refresh-token.sweep-batch-size:1000}")
+    private int sweepBatchSize;
 
+    public RefreshToken createOrUpdateRefreshToken(User user) {
+        String rawToken = UUID.randomUUID().toString();
         RefreshToken refreshToken = RefreshToken.builder()
                 .user(user)
-                .token(UUID.randomUUID().toString())
+                .token(rawToken)
+                .tokenHash(hash(rawToken))
                 .expiryDate(Instant.now().plusMillis(refreshTokenExpiration))
                 .build();
 
-        RefreshToken saved = refreshTokenRepository.save(refreshToken);
-        log.info("Refresh token created for user: {}", user.getEmail());
-        return saved;
+        refreshTokenRepository.upsert(user.getId(), refreshToken.getTokenHash(), refreshToken.getExpiryDate());
+        log.info("Refresh token issued for user: {}", user.getEmail());
+        return refreshToken;
     }
 
     public boolean isRefreshTokenValid(RefreshToken token) {
@@ -49,15 +62,13 @@ public class RefreshTokenService {
     }
 
     public RefreshToken getValidRefreshToken(String token) {
-        log.info("Looking up refresh token: {}", token);
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(token)
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(hash(token))
                 .orElseThrow(() -> {
-                    log.error("Refresh token not found: {}", token);
+                    log.error("Refresh token not found");
                     return new RefreshTokenNotFoundException("Refresh token not found");
                 });
 
         if (!isRefreshTokenValid(refreshToken)) {
-            log.error("Refresh token is expired: {}", token);
             throw new RefreshTokenExpiredException("Refresh token expired");
         }
 
@@ -70,5 +81,26 @@ public class RefreshTokenService {
         log.info("Deleting refresh token for user: {}", token.getUser().getEmail());
         refreshTokenRepository.delete(token);
     }
-}
 
+    // Her batch oz tranzaksiyasinda silinir ki, cedvel uzun muddet kilidlenmesin.
+    @Scheduled(fixedDelayString = "${jwt.refresh-token.sweep-interval:3600000}")
+    public void purgeExpiredTokens() {
+        Instant now = Instant.now();
+        long total = 0;
+        int deleted;
+        do {
+            deleted = refreshTokenRepository.deleteExpiredBatch(now, sweepBatchSize);
+            total += deleted;
+        } while (deleted == sweepBatchSize);
+
+        if (total > 0) {
+            log.info("Purged {} expired refresh tokens", total);
+        }
+    }
+
+    private String hash(String token) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -1,31 +1,93 @@
 package com.example.bankdb.service;
 
+import com.example.bankdb.model.entity.User;
 import com.example.bankdb.repository.BankAccountRepository;
 import com.example.bankdb.repository.CardRepository;
-import lombok.RequiredArgsConstructor;
+import com.example.bankdb.repository.StandingOrderRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+
+// @PreAuthorize ifadeleri ucun sahiblik yoxlamasi. Entity zenciri yuklenmir, yalniz owner id
+// oxunur ve qisa muddetli kesde saxlanilir. Istifadeci artiq JWT filter-de yuklenib, onun id-si istifade olunur.
 @Service("securityService")
-@RequiredArgsConstructor
 public class SecurityService {
 
     private final BankAccountRepository bankAccountRepository;
     private final CardRepository cardRepository;
+    private final StandingOrderRepository standingOrderRepository;
 
-    public boolean isAccountOwner(Authentication authentication, Long accountId) {
-        String email = authentication.getName();
+    private final Cache<Long, Long> accountOwners;
+    private final Cache<Long, Long> cardOwners;
 
-        return bankAccountRepository.findById(accountId)
-                .map(account -> account.getOwner().getEmail().equals(email))
-                .orElse(false);
+    public SecurityService(BankAccountRepository bankAccountRepository,
+                           CardRepository cardRepository,
+                           StandingOrderRepository standingOrderRepository,
+                           @Value("${ownership-cache.ttl-seconds:30}") long ttlSeconds,
+                           @Value("${ownership-cache.max-size:100000}") long maxSize) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.cardRepository = cardRepository;
+        this.standingOrderRepository = standingOrderRepository;
+        this.accountOwners = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .build();
+        this.cardOwners = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public boolean isAccountOwner(Authentication authentication, Long accountId) {
+        Long userId = currentUserId(authentication);
+        if (userId == null || accountId == null) {
+            return false;
+        }
+        Long ownerId = accountOwners.get(accountId, id -> bankAccountRepository.findOwnerIdById(id).orElse(null));
+        return userId.equals(ownerId);
     }
 
     public boolean isCardOwner(Authentication authentication, Long cardId) {
-        String email = authentication.getName();
+        Long userId = currentUserId(authentication);
+        if (userId == null || cardId == null) {
+            return false;
+        }
+        Long ownerId = cardOwners.get(cardId, id -> cardRepository.findOwnerIdById(id).orElse(null));
+        return userId.equals(ownerId);
+    }
+
+    // Tapsiriq emeliyyatlari seyrekdir, sahib kessiz oxunur
+    public boolean isStandingOrderOwner(Authentication authentication, Long orderId) {
+        Long userId = currentUserId(authentication);
+        if (userId == null || orderId == null) {
+            return false;
+        }
+        return standingOrderRepository.findOwnerIdById(orderId).map(userId::equals).orElse(false);
+    }
+
+    // Hesab silinende ona bagli kartlar da silinir, ona gore kart kesi tam temizlenir.
+    public void evictAccount(Long accountId) {
+        accountOwners.invalidate(accountId);
+        cardOwners.invalidateAll();
+    }
+
+    public void evictCard(Long cardId) {
+        cardOwners.invalidate(cardId);
+    }
+
+    public void evictAll() {
+        accountOwners.invalidateAll();
+        cardOwners.invalidateAll();
+    }
 
-        return cardRepository.findById(cardId)
-                .map(card -> card.getLinkedAccount().getOwner().getEmail().equals(email))
-                .orElse(false);
+    private Long currentUserId(Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            return user.getId();
+        }
+        return null;
     }
 }
@@ -0,0 +1,310 @@
+package com.example.bankdb.service;
+
+import com.example.bankdb.exception.AccountLockedException;
+import com.example.bankdb.exception.AccountNotFoundException;
+import com.example.bankdb.exception.ExchangeRateNotAvailableException;
+import com.example.bankdb.exception.InsufficientFundsException;
+import com.example.bankdb.exception.InvalidTransactionRequestException;
+import com.example.bankdb.model.dto.TransactionRequest;
+import com.example.bankdb.model.entity.StandingOrder;
+import com.example.bankdb.model.entity.enums.TransactionType;
+import com.example.bankdb.model.projection.ScheduledOrderView;
+import com.example.bankdb.repository.StandingOrderRepository;
+import com.example.bankdb.util.HierarchicalTimingWheel;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Daimi tapsiriqlarin icra mexanizmi.
+// Yukleyici yalniz yaxin pencereye (horizon) dusen tapsiriqlari (next_execution_at indeksi uzre) oxuyub
+// timing wheel-e qoyur, ticker vaxti catanlari partisiyalara paylayir. Bir hesabin tapsiriqlari hemise
+// eyni tek-thread partisiyada icra olunur, ona gore hesab uzre sira qorunur ve eyni setir ucun kilid yarisi olmur.
+// Icra zamani setir next_execution_at uzre sertli yenilenir, ona gore tapsiriq iki defe icra olunmur.
+// Sistem dayanibsa, kecmis vaxtli tapsiriqlar ilk yuklemede derhal icra olunur ve novbeti vaxt da
+// kecmisdedirse tapsiriq yeniden novbeye qoyulur (catch-up).
+@Slf4j
+@Service
+public class StandingOrderScheduler {
+
+    private static final LocalDateTime SCAN_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    // Tapsirigin ozune aid redd: bu dovrde tekrar cehd eyni neticeni verir
+    private static final List<Class<? extends RuntimeException>> BUSINESS_REJECTIONS = List.of(
+            InsufficientFundsException.class, AccountNotFoundException.class, AccountLockedException.class,
+            InvalidTransactionRequestException.class, ExchangeRateNotAvailableException.class);
+
+    private final StandingOrderRepository standingOrderRepository;
+    private final TransactionService transactionService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate failureTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${standing-orders.enabled:true}")
+    private boolean enabled;
+
+    @Value("${standing-orders.tick-millis:1000}")
+    private long tickMillis;
+
+    @Value("${standing-orders.wheel-size:64}")
+    private int wheelSize;
+
+    @Value("${standing-orders.horizon-minutes:10}")
+    private long horizonMinutes;
+
+    @Value("${standing-orders.load-batch-size:1000}")
+    private int loadBatchSize;
+
+    @Value("${standing-orders.partitions:8}")
+    private int partitionCount;
+
+    @Value("${standing-orders.max-failures:3}")
+    private int maxFailures;
+
+    @Value("${standing-orders.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${standing-orders.retry-backoff-millis:1000}")
+    private long retryBackoffMillis;
+
+    // orderId -> wheel-e qoyulmus icra vaxti; yukleyici eyni icrani tekrar qoymur
+    private final Map<Long, LocalDateTime> scheduled = new ConcurrentHashMap<>();
+
+    private volatile HierarchicalTimingWheel<ScheduledExecution> wheel;
+    private ScheduledExecutorService ticker;
+    private ExecutorService[] partitions;
+
+    public StandingOrderScheduler(StandingOrderRepository standingOrderRepository,
+                                  TransactionService transactionService,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.standingOrderRepository = standingOrderRepository;
+        this.transactionService = transactionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.failureTemplate = new TransactionTemplate(transactionManager);
+        this.failureTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        wheel = new HierarchicalTimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+        partitions = new ExecutorService[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            String name = "standing-orders-" + i;
+            partitions[i] = Executors.newSingleThreadExecutor(r -> daemon(r, name));
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "standing-orders-ticker"));
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        meterRegistry.gauge("bank.standing-orders.scheduled", scheduled, Map::size);
+        loadDueOrders();
+    }
+
+    @Scheduled(fixedDelayString = "${standing-orders.load-interval:60000}")
+    public void loadDueOrders() {
+        if (wheel == null) {
+            return;
+        }
+        LocalDateTime until = LocalDateTime.now().plusMinutes(horizonMinutes);
+        LocalDateTime afterTime = SCAN_START;
+        long afterId = 0;
+        int loaded = 0;
+        List<ScheduledOrderView> page;
+        do {
+            page = standingOrderRepository.findDueBefore(until, afterTime, afterId, PageRequest.ofSize(loadBatchSize));
+            for (ScheduledOrderView order : page) {
+                if (enqueue(order.getId(), order.getSourceAccountId(), order.getNextExecutionAt())) {
+                    loaded++;
+                }
+                afterTime = order.getNextExecutionAt();
+                afterId = order.getId();
+            }
+        } while (page.size() == loadBatchSize);
+        if (loaded > 0) {
+            log.info("Scheduled {} standing order executions due before {}", loaded, until);
+        }
+    }
+
+    // Yaradilan tapsiriq yaxin penceredirse novbeti yuklemeni gozlemir
+    public void register(StandingOrder order) {
+        if (wheel != null && order.getNextExecutionAt().isBefore(LocalDateTime.now().plusMinutes(horizonMinutes))) {
+            enqueue(order.getId(), order.getSourceAccount().getId(), order.getNextExecutionAt());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        if (partitions != null) {
+            for (ExecutorService partition : partitions) {
+                partition.shutdown();
+            }
+        }
+    }
+
+    private boolean enqueue(Long orderId, Long sourceAccountId, LocalDateTime executionAt) {
+        if (executionAt.equals(scheduled.put(orderId, executionAt))) {
+            return false;
+        }
+        long deadline = executionAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        wheel.schedule(new ScheduledExecution(orderId, sourceAccountId, executionAt), deadline);
+        return true;
+    }
+
+    private void tick() {
+        try {
+            wheel.advance(System.currentTimeMillis(), execution ->
+                    partitions[(int) Math.floorMod(execution.sourceAccountId(), (long) partitionCount)]
+                            .execute(() -> execute(execution)));
+        } catch (RuntimeException e) {
+            log.error("Standing order ticker failed", e);
+        }
+    }
+
+    private void execute(ScheduledExecution execution) {
+        String outcome = "success";
+        LocalDateTime next = null;
+        boolean retrying = false;
+        try {
+            next = transactionTemplate.execute(status -> executeOnce(execution));
+            if (next == null) {
+                outcome = "skipped";
+            }
+        } catch (RuntimeException e) {
+            if (isTransient(e) && execution.attempt() < maxRetries) {
+                outcome = "retry";
+                retrying = true;
+                long delay = retryBackoffMillis << execution.attempt();
+                log.info("Standing order {} hit a transient failure at {}, retrying in {} ms: {}",
+                        execution.orderId(), execution.executionAt(), delay, e.getMessage());
+                wheel.schedule(execution.nextAttempt(), System.currentTimeMillis() + delay);
+            } else {
+                outcome = "failure";
+                log.warn("Standing order {} failed at {}: {}", execution.orderId(), execution.executionAt(), e.getMessage());
+                recordFailure(execution, e);
+            }
+        } finally {
+            // Tekrar cehd gozleyen icra yukleyici ucun planlasdirilmis qalir
+            if (!retrying) {
+                scheduled.remove(execution.orderId(), execution.executionAt());
+            }
+            meterRegistry.counter("bank.standing-orders.executions", "outcome", outcome).increment();
+        }
+        if (next != null && next.isBefore(LocalDateTime.now().plusMinutes(horizonMinutes))) {
+            enqueue(execution.orderId(), execution.sourceAccountId(), next);
+        }
+    }
+
+    // Kilid/versiya toqqusmasi, lock ve ya sorgu timeout-u, connection alinmamasi: eyni dovrde yeniden cehd olunur
+    static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException || cause instanceof CannotCreateTransactionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isBusinessRejection(Throwable e) {
+        return BUSINESS_REJECTIONS.stream().anyMatch(type -> type.isInstance(e));
+    }
+
+    // Novbeti icra vaxtini qaytarir; tapsiriq icra olunmayibsa ve ya bitibse null
+    private LocalDateTime executeOnce(ScheduledExecution execution) {
+        StandingOrder order = standingOrderRepository.findById(execution.orderId()).orElse(null);
+        if (order == null || !order.isActive() || !execution.executionAt().equals(order.getNextExecutionAt())) {
+            return null;
+        }
+        LocalDateTime next = order.getFrequency().next(execution.executionAt());
+        boolean active = order.getEndDate() == null || !next.isAfter(order.getEndDate());
+
+        TransactionRequest request = new TransactionRequest();
+        request.setSourceAccountId(order.getSourceAccount().getId());
+        request.setDestinationAccountId(order.getDestinationAccount().getId());
+        request.setAmount(order.getAmount());
+        request.setDescription(order.getDescription() != null ? order.getDescription() : "Standing order #" + order.getId());
+        request.setType(TransactionType.TRANSFER);
+
+        if (standingOrderRepository.claim(order.getId(), execution.executionAt(), next, LocalDateTime.now(), active) == 0) {
+            return null;
+        }
+        try {
+            transactionService.processTransaction(request);
+        } catch (javax.security.auth.login.AccountNotFoundException e) {
+            throw new AccountNotFoundException(e.getMessage());
+        }
+        return active ? next : null;
+    }
+
+    // Icra tranzaksiyasi geri qaytarilib, sehv ayri tranzaksiyada yazilir.
+    // Yalniz biznes reddi (balans catmir, hesab baglanib/kilidlidir) bu icrani buraxir ve tapsirigi novbeti dovre
+    // (gunluk ucun novbeti gun) kecirir ki, her yuklemede yeniden cehd olunub limiti tez bitirmesin.
+    // Tekrar cehdleri bitmis kecici xeta dovru deyismir ve sayilmir: novbeti yukleme eyni icrani yeniden goturur.
+    // Gozlenilmeyen xeta da dovru deyismir, amma sayilir. Ardicil maxFailures ugursuzluqdan sonra tapsiriq dayandirilir.
+    private void recordFailure(ScheduledExecution execution, RuntimeException e) {
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        String truncated = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        try {
+            if (isTransient(e)) {
+                failureTemplate.executeWithoutResult(status -> standingOrderRepository.recordTransientFailure(
+                        execution.orderId(), execution.executionAt(), truncated));
+                return;
+            }
+            boolean business = isBusinessRejection(e);
+            failureTemplate.executeWithoutResult(status -> standingOrderRepository.findById(execution.orderId())
+                    .ifPresent(order -> {
+                        LocalDateTime next = business
+                                ? order.getFrequency().next(execution.executionAt()) : execution.executionAt();
+                        boolean ended = order.getEndDate() != null && next.isAfter(order.getEndDate());
+                        standingOrderRepository.recordFailure(
+                                execution.orderId(), execution.executionAt(), next, ended, truncated, maxFailures);
+                    }));
+        } catch (RuntimeException ex) {
+            log.error("Could not record failure of standing order {}", execution.orderId(), ex);
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    // attempt: eyni icranin kecici xetadan sonraki tekrar cehd nomresi (ilk cehd 0)
+    private record ScheduledExecution(Long orderId, Long sourceAccountId, LocalDateTime executionAt, int attempt) {
+
+        ScheduledExecution(Long orderId, Long sourceAccountId, LocalDateTime executionAt) {
+            this(orderId, sourceAccountId, executionAt, 0);
+        }
+
+        ScheduledExecution nextAttempt() {
+            return new ScheduledExecution(orderId, sourceAccountId, executionAt, attempt + 1);
+        }
+    }
+}
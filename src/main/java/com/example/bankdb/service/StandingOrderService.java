@@ -0,0 +1,97 @@
+package com.example.bankdb.service;
+
+import com.example.bankdb.exception.AccountNotFoundException;
+import com.example.bankdb.exception.InvalidTransactionRequestException;
+import com.example.bankdb.exception.StandingOrderNotFoundException;
+import com.example.bankdb.model.dto.CreateStandingOrderRequest;
+import com.example.bankdb.model.dto.StandingOrderDto;
+import com.example.bankdb.model.entity.BankAccount;
+import com.example.bankdb.model.entity.StandingOrder;
+import com.example.bankdb.repository.BankAccountRepository;
+import com.example.bankdb.repository.StandingOrderRepository;
+import com.example.bankdb.util.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StandingOrderService {
+
+    private final StandingOrderRepository standingOrderRepository;
+    private final BankAccountRepository bankAccountRepository;
+    private final StandingOrderScheduler standingOrderScheduler;
+
+    @Transactional
+    public StandingOrderDto create(CreateStandingOrderRequest request) {
+        if (request.getSourceAccountId().equals(request.getDestinationAccountId())) {
+            throw new InvalidTransactionRequestException("Source and destination accounts must differ");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime firstExecutionAt = request.getFirstExecutionAt() != null ? request.getFirstExecutionAt() : now;
+        if (firstExecutionAt.isBefore(now.minusMinutes(1))) {
+            throw new InvalidTransactionRequestException("First execution time must not be in the past");
+        }
+        if (request.getEndDate() != null && request.getEndDate().isBefore(firstExecutionAt)) {
+            throw new InvalidTransactionRequestException("End date must not be before the first execution");
+        }
+
+        BankAccount source = bankAccountRepository.findById(request.getSourceAccountId())
+                .orElseThrow(() -> new AccountNotFoundException("Source account not found."));
+        BankAccount destination = bankAccountRepository.findById(request.getDestinationAccountId())
+                .orElseThrow(() -> new AccountNotFoundException("Destination account not found."));
+
+        StandingOrder order = standingOrderRepository.save(StandingOrder.builder()
+                .sourceAccount(source)
+                .destinationAccount(destination)
+                .amount(request.getAmount())
+                .description(request.getDescription())
+                .frequency(request.getFrequency())
+                .nextExecutionAt(firstExecutionAt)
+                .endDate(request.getEndDate())
+                .active(true)
+                .createdAt(now)
+                .build());
+        TransactionCallbacks.afterCommit(() -> standingOrderScheduler.register(order));
+        log.info("Standing order created: id={}, sourceAccountId={}, frequency={}, nextExecutionAt={}",
+                order.getId(), source.getId(), order.getFrequency(), firstExecutionAt);
+        return convertToDto(order);
+    }
+
+    @Transactional(readOnly = true)
+    public List<StandingOrderDto> getByAccountId(Long accountId) {
+        return standingOrderRepository.findBySourceAccountId(accountId).stream()
+                .map(this::convertToDto)
+                .toList();
+    }
+
+    // Planlanmis icra wheel-de qalsa da, aktiv olmayan tapsiriq icra zamani buraxilir
+    @Transactional
+    public void cancel(Long orderId) {
+        StandingOrder order = standingOrderRepository.findById(orderId)
+                .orElseThrow(() -> new StandingOrderNotFoundException("Standing order not found with id: " + orderId));
+        order.setActive(false);
+        log.info("Standing order cancelled: id={}", orderId);
+    }
+
+    private StandingOrderDto convertToDto(StandingOrder order) {
+        return new StandingOrderDto(
+                order.getId(),
+                order.getSourceAccount().getId(),
+                order.getDestinationAccount().getId(),
+                order.getAmount(),
+                order.getDescription(),
+                order.getFrequency(),
+                order.getNextExecutionAt(),
+                order.getEndDate(),
+                order.isActive(),
+                order.getFailureCount(),
+                order.getLastError(),
+                order.getLastExecutedAt());
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.bankdb.service;
+
+import com.example.bankdb.exception.InvalidSearchQueryException;
+import com.example.bankdb.model.dto.TransactionDto;
+import com.example.bankdb.model.dto.TransactionPageDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Destek komandasi ucun emeliyyat axtarisi: tesvir (substring), mebleg ve tarix araligi.
+// Tesvir sorgusu lower(description) uzre trigram GIN indeksinden, tarix araligi ve sehifeleme (timestamp, id)
+// indeksinden istifade edir (V12 miqrasiyasi): neticeler (timestamp, id) uzre yeniden kohneye siralanir,
+// novbeti sehife (beforeTimestamp, beforeId) keyset kursoru ile oxunur.
+// Yalniz verilen filtrler WHERE-e elave olunur ki, planlayici uygun indeksi secsin.
+// Genis sorgular ledger-i uzun muddet skan etmesin deye sorgu muddeti mehdudlasdirilir.
+@Slf4j
+@Service
+public class TransactionSearchService {
+
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MIN_QUERY_LENGTH = 3;
+
+    private static final RowMapper<TransactionDto> ROW_MAPPER = (rs, rowNum) -> {
+        TransactionDto dto = new TransactionDto();
+        dto.setId(rs.getLong("id"));
+        dto.setAmount(rs.getBigDecimal("amount"));
+        dto.setConvertedAmount(rs.getBigDecimal("converted_amount"));
+        dto.setExchangeRateId(rs.getObject("exchange_rate_id", Long.class));
+        dto.setDescription(rs.getString("description"));
+        Timestamp timestamp = rs.getTimestamp("timestamp");
+        dto.setTimestamp(timestamp != null ? timestamp.toLocalDateTime() : null);
+        dto.setFromAccountId(rs.getObject("from_account_id", Long.class));
+        dto.setToAccountId(rs.getObject("to_account_id", Long.class));
+        dto.setFromCardId(rs.getObject("from_card_id", Long.class));
+        dto.setToCardId(rs.getObject("to_card_id", Long.class));
+        dto.setTransactionType(rs.getString("transaction_type"));
+        return dto;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionSearchService(DataSource dataSource,
+                                    @Value("${transaction-search.timeout-seconds:2}") int timeoutSeconds) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setQueryTimeout(timeoutSeconds);
+    }
+
+    public TransactionPageDto search(String query, BigDecimal minAmount, BigDecimal maxAmount,
+                                     LocalDateTime from, LocalDateTime to,
+                                     LocalDateTime beforeTimestamp, Long beforeId, int size) {
+        String term = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (term.isEmpty() && from == null && to == null) {
+            throw new InvalidSearchQueryException("Search requires a description query or a date range");
+        }
+        if (!term.isEmpty() && term.length() < MIN_QUERY_LENGTH) {
+            throw new InvalidSearchQueryException("Description query requires at least " + MIN_QUERY_LENGTH + " characters");
+        }
+        if (minAmount != null && maxAmount != null && minAmount.compareTo(maxAmount) > 0) {
+            throw new InvalidSearchQueryException("minAmount must not be greater than maxAmount");
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new InvalidSearchQueryException("'from' must be before 'to'");
+        }
+        if ((beforeTimestamp == null) != (beforeId == null)) {
+            throw new InvalidSearchQueryException("beforeTimestamp and beforeId must be given together");
+        }
+
+        StringBuilder sql = new StringBuilder("""
+                SELECT id, amount, converted_amount, exchange_rate_id, description, timestamp,
+                       from_account_id, to_account_id, from_card_id, to_card_id, transaction_type
+                FROM transaction WHERE timestamp IS NOT NULL""");
+        List<Object> args = new ArrayList<>();
+        if (!term.isEmpty()) {
+            sql.append(" AND lower(description) LIKE ? ESCAPE '\\'");
+            args.add("%" + escapeLike(term) + "%");
+        }
+        if (minAmount != null) {
+            sql.append(" AND amount >= ?");
+            args.add(minAmount);
+        }
+        if (maxAmount != null) {
+            sql.append(" AND amount <= ?");
+            args.add(maxAmount);
+        }
+        if (from != null) {
+            sql.append(" AND timestamp >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND timestamp < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        if (beforeId != null) {
+            sql.append(" AND (timestamp, id) < (?, ?)");
+            args.add(Timestamp.valueOf(beforeTimestamp));
+            args.add(beforeId);
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        sql.append(" ORDER BY timestamp DESC, id DESC LIMIT ?");
+        args.add(pageSize);
+
+        List<TransactionDto> transactions;
+        try {
+            transactions = jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+        } catch (QueryTimeoutException e) {
+            log.warn("Transaction search timed out: query='{}', from={}, to={}", term, from, to);
+            throw new InvalidSearchQueryException("Search is too broad, please narrow the filters");
+        }
+        if (transactions.size() < pageSize) {
+            return new TransactionPageDto(transactions, null, null);
+        }
+        TransactionDto last = transactions.get(transactions.size() - 1);
+        return new TransactionPageDto(transactions, last.getTimestamp(), last.getId());
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
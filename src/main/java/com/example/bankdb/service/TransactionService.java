@@ -1,26 +1,45 @@
 package com.example.bankdb.service;
 
+import com.example.bankdb.exception.AccountLockedException;
 import com.example.bankdb.exception.CardNotFoundException;
 import com.example.bankdb.exception.InsufficientFundsException;
 import com.example.bankdb.exception.InvalidTransactionRequestException;
+import com.example.bankdb.model.dto.AccountBalanceDto;
+import com.example.bankdb.model.dto.AccountStatementDto;
+import com.example.bankdb.model.dto.PostingDto;
 import com.example.bankdb.model.dto.TransactionDto;
 import com.example.bankdb.model.dto.TransactionRequest;
 import com.example.bankdb.model.entity.BankAccount;
 import com.example.bankdb.model.entity.Card;
+import com.example.bankdb.model.entity.Posting;
 import com.example.bankdb.model.entity.Transaction;
 import com.example.bankdb.model.entity.enums.TransactionType;
 import com.example.bankdb.repository.BankAccountRepository;
 import com.example.bankdb.repository.CardRepository;
+import com.example.bankdb.repository.PostingRepository;
+import com.example.bankdb.repository.ReactiveTransactionHistoryRepository;
 import com.example.bankdb.repository.TransactionRepository;
+import com.example.bankdb.util.TransactionCallbacks;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 
 import javax.security.auth.login.AccountNotFoundException;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Service
@@ -29,72 +48,236 @@ public class TransactionService {
 
     private final BankAccountRepository bankAccountRepository;
     private final TransactionRepository transactionRepository;
+    private final PostingRepository postingRepository;
     private final CardRepository cardRepository;
-
-    // Balans yoxlama ve guncelleme
-    private void updateBalances(BankAccount from, BankAccount to, BigDecimal amount) {
+    private final MeterRegistry meterRegistry;
+    private final FxRateService fxRateService;
+    private final CardVelocityTracker cardVelocityTracker;
+    private final PanTokenizationService panTokenizationService;
+    private final AccountBalanceCache accountBalanceCache;
+    private final LedgerArchiveService ledgerArchiveService;
+    private final ReactiveTransactionHistoryRepository reactiveTransactionHistoryRepository;
+
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_COMMIT_FAILED = "CommitFailed";
+
+    // Balans yoxlama ve guncelleme. Qebul eden hesabin valyutasi ferqlidirse mebleg konvertasiya olunur.
+    private FxRateSnapshot.Quote updateBalances(BankAccount from, BankAccount to, BigDecimal amount) {
+        requireUnlocked(from);
+        requireUnlocked(to);
         if (from.getBalance().compareTo(amount) < 0) {
             throw new InsufficientFundsException("Insufficient funds");
         }
+        FxRateSnapshot.Quote quote = fxRateService.quote(from.getCurrencyType(), to.getCurrencyType());
+        BigDecimal credited = convert(amount, quote);
+
         from.setBalance(from.getBalance().subtract(amount));
-        to.setBalance(to.getBalance().add(amount));
+        to.setBalance(to.getBalance().add(credited));
 
         bankAccountRepository.save(from);
         bankAccountRepository.save(to);
-        log.info("Updated balances: fromAccountId={}, toAccountId={}, amount={}", from.getId(), to.getId(), amount);
+        log.info("Updated balances: fromAccountId={}, toAccountId={}, amount={}, credited={}",
+                from.getId(), to.getId(), amount, credited);
+        return quote;
+    }
+
+    // Kilidli hesaba (muddetli depozit, silinmekde olan istifadeci) posting yazilmir. Hesab JDBC ile kilidlenende
+    // versiya da artir, ona gore kilidden evvel yuklenmis entity ile baslayan emeliyyat commit-de optimistic lock-la dusur.
+    private static void requireUnlocked(BankAccount account) {
+        if (account.isLocked()) {
+            throw new AccountLockedException("Account " + account.getId() + " is locked");
+        }
+    }
+
+    private BigDecimal convert(BigDecimal amount, FxRateSnapshot.Quote quote) {
+        if (quote == FxRateSnapshot.IDENTITY) {
+            return amount;
+        }
+        return amount.multiply(quote.rate()).setScale(2, RoundingMode.HALF_EVEN);
     }
 
     private Transaction createTransaction(BankAccount fromAccount, BankAccount toAccount,
                                           Card fromCard, Card toCard,
                                           BigDecimal amount, String description, TransactionType type) {
+        return createTransaction(fromAccount, toAccount, fromCard, toCard, amount, FxRateSnapshot.IDENTITY, description, type);
+    }
+
+    private Transaction createTransaction(BankAccount fromAccount, BankAccount toAccount,
+                                          Card fromCard, Card toCard,
+                                          BigDecimal amount, FxRateSnapshot.Quote quote,
+                                          String description, TransactionType type) {
         Transaction ta = new Transaction();
         ta.setFromAccount(fromAccount);
         ta.setToAccount(toAccount);
         ta.setFromCard(fromCard);
         ta.setToCard(toCard);
         ta.setAmount(amount);
+        if (quote != FxRateSnapshot.IDENTITY) {
+            ta.setConvertedAmount(convert(amount, quote));
+            ta.setExchangeRateId(quote.rateId());
+        }
         ta.setDescription(description);
         ta.setTransactionType(type);
         ta.setTimestamp(LocalDateTime.now());
 
         Transaction saved = transactionRepository.save(ta);
+        writePostings(saved);
         log.info("Transaction created: id={}, type={}, amount={}", saved.getId(), type, amount);
         return saved;
     }
 
-    public String topUp(Long accountId, BigDecimal amount, String description) {
-        BankAccount account = bankAccountRepository.findById(accountId)
-                .orElseThrow(() -> {
-                    log.error("Top-up failed: account not found with id={}", accountId);
-                    return new RuntimeException("Account not found");
-                });
+    // Balanslar artiq yenilenib, ona gore hesabin cari balansi bu terefden sonraki balansdir.
+    private void writePostings(Transaction transaction) {
+        List<Posting> postings = new ArrayList<>(2);
+        if (transaction.getFromAccount() != null) {
+            postings.add(posting(transaction, transaction.getFromAccount(), transaction.getAmount().negate()));
+        }
+        if (transaction.getToAccount() != null) {
+            BigDecimal credited = transaction.getConvertedAmount() != null
+                    ? transaction.getConvertedAmount() : transaction.getAmount();
+            postings.add(posting(transaction, transaction.getToAccount(), credited));
+        }
+        postingRepository.saveAll(postings);
+        postings.forEach(posting -> accountBalanceCache.evictAfterCommit(posting.getAccount().getId()));
+    }
 
-        account.setBalance(account.getBalance().add(amount));
-        bankAccountRepository.save(account);
+    private Posting posting(Transaction transaction, BankAccount account, BigDecimal amount) {
+        return Posting.builder()
+                .transaction(transaction)
+                .account(account)
+                .amount(amount)
+                .balanceAfter(account.getBalance())
+                .postedAt(transaction.getTimestamp())
+                .build();
+    }
 
-        createTransaction(null, account, null, null, amount, description, TransactionType.DEPOSIT);
-        log.info("Top-up successful: accountId={}, amount={}", accountId, amount);
-        return "Top-up successful";
+    // Hesab acilanda ilkin balans ledger-e DEPOSIT kimi yazilir ki, reconciliation ve cixarislar uygun gelsin.
+    @Transactional
+    public void recordOpeningBalance(BankAccount account) {
+        if (account.getBalance() == null || account.getBalance().signum() <= 0) {
+            return;
+        }
+        createTransaction(null, account, null, null, account.getBalance(), "Opening balance", TransactionType.DEPOSIT);
+    }
+
+    public String topUp(Long accountId, BigDecimal amount, String description) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = OUTCOME_SUCCESS;
+        try {
+            BankAccount account = bankAccountRepository.findById(accountId)
+                    .orElseThrow(() -> {
+                        log.error("Top-up failed: account not found with id={}", accountId);
+                        return new RuntimeException("Account not found");
+                    });
+
+            requireUnlocked(account);
+            account.setBalance(account.getBalance().add(amount));
+            bankAccountRepository.save(account);
+
+            createTransaction(null, account, null, null, amount, description, TransactionType.DEPOSIT);
+            log.info("Top-up successful: accountId={}, amount={}", accountId, amount);
+            return "Top-up successful";
+        } catch (RuntimeException e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            recordPosting(sample, TransactionType.DEPOSIT.name(), outcome);
+        }
     }
 
     public String transfer(Long fromAccountId, Long toAccountId, BigDecimal amount, String description) {
-        BankAccount fromAccount = bankAccountRepository.findById(fromAccountId)
-                .orElseThrow(() -> new RuntimeException("Sender account not found"));
-        BankAccount toAccount = bankAccountRepository.findById(toAccountId)
-                .orElseThrow(() -> new RuntimeException("Receiver account not found"));
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = OUTCOME_SUCCESS;
+        try {
+            BankAccount fromAccount = bankAccountRepository.findById(fromAccountId)
+                    .orElseThrow(() -> new RuntimeException("Sender account not found"));
+            BankAccount toAccount = bankAccountRepository.findById(toAccountId)
+                    .orElseThrow(() -> new RuntimeException("Receiver account not found"));
+
+            FxRateSnapshot.Quote quote = updateBalances(fromAccount, toAccount, amount);
+
+            createTransaction(fromAccount, toAccount, null, null, amount, quote, description, TransactionType.TRANSFER);
+
+            return "Transfer successful";
+        } catch (RuntimeException e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            recordPosting(sample, TransactionType.TRANSFER.name(), outcome);
+        }
+    }
 
-        updateBalances(fromAccount, toAccount, amount);
+    public List<TransactionDto> getTransactionHistoryByAccountId(Long accountId) {
+        List<TransactionDto> history = new ArrayList<>(postingRepository.findHistoryByAccountId(accountId));
+        // Arxivdeki emeliyyatlar bazadakilardan kohnedir, sona elave olunur; arxivleme anindaki tekrarlar atilir
+        Set<Long> seen = new HashSet<>();
+        history.forEach(dto -> seen.add(dto.getId()));
+        for (TransactionDto archived : ledgerArchiveService.findTransactions(accountId)) {
+            if (seen.add(archived.getId())) {
+                history.add(archived);
+            }
+        }
+        return history;
+    }
 
-        createTransaction(fromAccount, toAccount, null, null, amount, description, TransactionType.TRANSFER);
+    // getTransactionHistoryByAccountId-in reaktiv varianti: bazadaki setirler istemci oxuduqca axinla verilir,
+    // arxiv (fayl oxunusu bloklayandir) boundedElastic-de sona elave olunur
+    public Flux<TransactionDto> streamTransactionHistory(Long accountId) {
+        Flux<TransactionDto> hot = reactiveTransactionHistoryRepository.findHistory(accountId);
+        if (!ledgerArchiveService.mayContain(accountId)) {
+            return hot;
+        }
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        Flux<TransactionDto> archived = Flux.defer(() -> Flux.fromIterable(ledgerArchiveService.findTransactions(accountId)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .filter(dto -> seen.add(dto.getId()));
+        return Flux.concat(hot.doOnNext(dto -> seen.add(dto.getId())), archived);
+    }
 
-        return "Transfer successful";
+    public String getHistoryETag(Long accountId) {
+        return postingRepository.findVersionStampByAccountId(accountId).toETag("h");
     }
 
-    public List<TransactionDto> getTransactionHistoryByAccountId(Long accountId) {
-        List<Transaction> transactions = transactionRepository.findByFromAccountIdOrToAccountId(accountId, accountId);
-        return transactions.stream()
-                .map(this::convertToDTO)
-                .toList();
+    public AccountStatementDto getStatement(Long accountId, LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            throw new InvalidTransactionRequestException("Statement start must not be after its end");
+        }
+        BigDecimal opening = getBalanceAt(accountId, from).getBalance();
+        List<PostingDto> postings = new ArrayList<>(ledgerArchiveService.findPostings(accountId, from, to));
+        Set<Long> seen = new HashSet<>();
+        postings.forEach(posting -> seen.add(posting.getId()));
+        for (PostingDto posting : postingRepository.findStatement(accountId, from, to)) {
+            if (seen.add(posting.getId())) {
+                postings.add(posting);
+            }
+        }
+        BigDecimal closing = opening;
+        for (PostingDto posting : postings) {
+            closing = closing.add(posting.getAmount());
+        }
+        return new AccountStatementDto(accountId, from, to, opening, closing, postings);
+    }
+
+    // Verilen andan evvelki son posting-in balansi; bazada yoxdursa arxivde axtarilir, orada da yoxdursa hesab hele bos idi.
+    public AccountBalanceDto getBalanceAt(Long accountId, LocalDateTime at) {
+        BigDecimal balance = postingRepository.findFirstByAccountIdAndPostedAtBeforeOrderByPostedAtDescIdDesc(accountId, at)
+                .map(Posting::getBalanceAfter)
+                .or(() -> ledgerArchiveService.findBalanceBefore(accountId, at))
+                .orElse(BigDecimal.ZERO);
+        return new AccountBalanceDto(accountId, balance, at);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillPostings() {
+        if (!postingRepository.alignIdSequence().isEmpty()) {
+            log.info("Posting id sequence moved past existing postings");
+        }
+        if (!postingRepository.existsTransactionWithoutPostings()) {
+            return;
+        }
+        int inserted = postingRepository.backfillMissingPostings();
+        log.info("Backfilled {} ledger postings for existing transactions", inserted);
     }
 
     @Transactional
@@ -102,24 +285,53 @@ public class TransactionService {
         log.info("Processing card-to-card transaction: fromCard={}, toCard={}, amount={}",
                 request.getSourceCardId(), request.getDestinationCardId(), request.getAmount());
 
-        Card fromCard = cardRepository.findById(request.getSourceCardId())
-                .orElseThrow(() -> new CardNotFoundException("Source card not found"));
-        Card toCard = cardRepository.findById(request.getDestinationCardId())
-                .orElseThrow(() -> new CardNotFoundException("Destination card not found"));
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = OUTCOME_SUCCESS;
+        try {
+            if (request.getSourceCardId() == null) {
+                throw new InvalidTransactionRequestException("Source card ID is required");
+            }
+            Card fromCard = cardRepository.findById(request.getSourceCardId())
+                    .orElseThrow(() -> new CardNotFoundException("Source card not found"));
+            Card toCard = resolveDestinationCard(request.getDestinationCardId(), request.getDestinationCardNumber());
+
+            BankAccount fromAccount = fromCard.getLinkedAccount();
+            BankAccount toAccount = toCard.getLinkedAccount();
 
-        BankAccount fromAccount = fromCard.getLinkedAccount();
-        BankAccount toAccount = toCard.getLinkedAccount();
+            cardVelocityTracker.reserve(fromCard.getId(), request.getAmount());
 
-        updateBalances(fromAccount, toAccount, request.getAmount());
+            FxRateSnapshot.Quote quote = updateBalances(fromAccount, toAccount, request.getAmount());
 
-        return createTransaction(fromAccount, toAccount, fromCard, toCard,
-                request.getAmount(), request.getDescription(), TransactionType.TRANSFER);
+            return createTransaction(fromAccount, toAccount, fromCard, toCard,
+                    request.getAmount(), quote, request.getDescription(), TransactionType.TRANSFER);
+        } catch (RuntimeException e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            recordPosting(sample, "CARD_TO_CARD", outcome);
+        }
+    }
+
+    // Qebul eden kart id ile ve ya nomre ile (fingerprint unikal indeksi uzre tek sorgu) tapilir.
+    // Gonderen kart yalniz id ile verilir ki, sahiblik @PreAuthorize-da yoxlanilsin.
+    private Card resolveDestinationCard(Long cardId, String cardNumber) {
+        if (cardId != null) {
+            return cardRepository.findById(cardId)
+                    .orElseThrow(() -> new CardNotFoundException("Destination card not found"));
+        }
+        if (cardNumber != null && !cardNumber.isBlank()) {
+            return cardRepository.findByPanFingerprint(panTokenizationService.fingerprint(cardNumber))
+                    .orElseThrow(() -> new CardNotFoundException("Destination card not found"));
+        }
+        throw new InvalidTransactionRequestException("Destination card ID or card number is required");
     }
 
     public TransactionDto convertToDTO(Transaction transaction) {
         TransactionDto dto = new TransactionDto();
         dto.setId(transaction.getId());
         dto.setAmount(transaction.getAmount());
+        dto.setConvertedAmount(transaction.getConvertedAmount());
+        dto.setExchangeRateId(transaction.getExchangeRateId());
         dto.setDescription(transaction.getDescription());
         dto.setTimestamp(transaction.getTimestamp());
         dto.setTransactionType(transaction.getTransactionType().name());
@@ -145,6 +357,19 @@ public class TransactionService {
     public Transaction processTransaction(TransactionRequest request) throws AccountNotFoundException {
         log.info("Processing transaction: type={}, amount={}", request.getType(), request.getAmount());
 
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = OUTCOME_SUCCESS;
+        try {
+            return doProcessTransaction(request);
+        } catch (AccountNotFoundException | RuntimeException e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            recordPosting(sample, String.valueOf(request.getType()), outcome);
+        }
+    }
+
+    private Transaction doProcessTransaction(TransactionRequest request) throws AccountNotFoundException {
         BankAccount source = null;
         BankAccount destination = null;
 
@@ -167,6 +392,7 @@ public class TransactionService {
             case DEPOSIT -> {
                 if (destination == null)
                     throw new IllegalArgumentException("Destination account required for deposit");
+                requireUnlocked(destination);
                 destination.setBalance(destination.getBalance().add(amount));
                 bankAccountRepository.save(destination);
                 transaction = createTransaction(null, destination, null, null, amount, description, type);
@@ -174,6 +400,7 @@ public class TransactionService {
             case WITHDRAW -> {
                 if (source == null)
                     throw new InvalidTransactionRequestException("Source account required for withdraw");
+                requireUnlocked(source);
                 if (source.getBalance().compareTo(amount) < 0)
                     throw new InsufficientFundsException("Insufficient funds");
                 source.setBalance(source.getBalance().subtract(amount));
@@ -183,14 +410,23 @@ public class TransactionService {
             case TRANSFER -> {
                 if (source == null || destination == null)
                     throw new InvalidTransactionRequestException("Both accounts required for transfer");
-                updateBalances(source, destination, amount);
-                transaction = createTransaction(source, destination, null, null, amount, description, type);
+                FxRateSnapshot.Quote quote = updateBalances(source, destination, amount);
+                transaction = createTransaction(source, destination, null, null, amount, quote, description, type);
             }
             default -> throw new InvalidTransactionRequestException("Unsupported transaction type");
         }
         return transaction;
     }
 
+    // Tranzaksiya daxilinde timer commit-den sonra dayanir: flush, @Version yoxlamasi ve commit gecikmesi de
+    // olcuye dusur, commit-de ugursuz olan emeliyyat success kimi sayilmir.
+    private void recordPosting(Timer.Sample sample, String type, String outcome) {
+        TransactionCallbacks.afterCompletion(committed -> {
+            String finalOutcome = committed || !OUTCOME_SUCCESS.equals(outcome) ? outcome : OUTCOME_COMMIT_FAILED;
+            sample.stop(meterRegistry.timer("bank.transaction.posting", "type", type, "outcome", finalOutcome));
+        });
+    }
+
     public Transaction getTransactionById(Long id) throws AccountNotFoundException {
         return transactionRepository.findById(id)
                 .orElseThrow(() -> {
@@ -0,0 +1,366 @@
+package com.example.bankdb.service;
+
+import com.example.bankdb.config.SecondLevelCacheConfig;
+import com.example.bankdb.exception.UserNotFoundException;
+import com.example.bankdb.model.dto.UserDeletionJobDto;
+import com.example.bankdb.model.entity.Card;
+import com.example.bankdb.model.entity.User;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Istifadecinin asili setirleri entity-entity yox, hisse-hisse set esasli SQL ile silinir.
+// Her hisse ayri qisa emeliyyatdir, ona gore kilidler butun silme boyu saxlanilmir.
+// Evvelce istifadecinin hesablari kilidlenir (is_locked, versiya artir): TransactionService kilidli hesaba
+// posting yazmir, ona gore silme davam ederken yeni emeliyyat yaranmir.
+// Qarsi terefi basqa istifadeci olan emeliyyatlar silinmir: yalniz bu istifadecinin hesab/kart
+// istinadlari NULL edilir ki, qarsi terefin tarixcesi ve balansinin ledger-i pozulmasin.
+// Posting-ler ayrica silinmir: postings.transaction_id ve postings.account_id ON DELETE CASCADE-dir.
+// Toplu isler user_deletion_jobs cedvelindedir: her istifadeci oz son silme tranzaksiyasinda DELETED isarelenir,
+// addimlar tekrar isledilende eyni neticeni verir, ona gore restart-dan sonra is PENDING istifadecilerden davam edir.
+@Slf4j
+@Service
+public class UserDeletionService {
+
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private static final String LOCK_ACCOUNTS =
+            "UPDATE bank_accounts SET is_locked = true, version = version + 1 WHERE user_id = ?";
+
+    private static final String DETACH_OUTGOING = """
+            UPDATE transaction SET from_account_id = NULL, from_card_id = NULL WHERE id IN (
+                SELECT id FROM transaction
+                WHERE from_account_id = ANY (?) AND to_account_id IS NOT NULL AND NOT (to_account_id = ANY (?))
+                LIMIT ?)
+            """;
+
+    private static final String DETACH_INCOMING = """
+            UPDATE transaction SET to_account_id = NULL, to_card_id = NULL WHERE id IN (
+                SELECT id FROM transaction
+                WHERE to_account_id = ANY (?) AND from_account_id IS NOT NULL AND NOT (from_account_id = ANY (?))
+                LIMIT ?)
+            """;
+
+    private static final String DELETE_OWN_TRANSACTIONS = """
+            DELETE FROM transaction WHERE id IN (
+                SELECT id FROM transaction WHERE from_account_id = ANY (?) OR to_account_id = ANY (?) LIMIT ?)
+            """;
+
+    private static final String DETACH_CARDS = """
+            UPDATE transaction SET from_card_id = CASE WHEN from_card_id = ANY (?) THEN NULL ELSE from_card_id END,
+                                   to_card_id = CASE WHEN to_card_id = ANY (?) THEN NULL ELSE to_card_id END
+            WHERE id IN (
+                SELECT id FROM transaction WHERE from_card_id = ANY (?) OR to_card_id = ANY (?) LIMIT ?)
+            """;
+
+    private static final String INSERT_JOB =
+            "INSERT INTO user_deletion_jobs (id, status, created_at) VALUES (?, 'QUEUED', ?)";
+
+    private static final String INSERT_JOB_USER =
+            "INSERT INTO user_deletion_job_users (job_id, user_id, status) VALUES (?, ?, 'PENDING')";
+
+    // Isi yalniz bitmemis ve icaresi olmayan (ve ya icaresi kecmis) halda goturur; iki nusxe eyni isi islemir
+    private static final String CLAIM_JOB = """
+            UPDATE user_deletion_jobs SET status = 'RUNNING', lease_until = ?
+            WHERE id = ? AND finished_at IS NULL AND (lease_until IS NULL OR lease_until < ?)
+            """;
+
+    private static final String RENEW_LEASE = "UPDATE user_deletion_jobs SET lease_until = ? WHERE id = ?";
+
+    private static final String NEXT_PENDING_USER = """
+            SELECT user_id FROM user_deletion_job_users
+            WHERE job_id = ? AND status = 'PENDING'
+            ORDER BY user_id
+            LIMIT 1
+            """;
+
+    private static final String MARK_DELETED =
+            "UPDATE user_deletion_job_users SET status = 'DELETED', affected_rows = ? WHERE job_id = ? AND user_id = ?";
+
+    private static final String MARK_FAILED =
+            "UPDATE user_deletion_job_users SET status = 'FAILED', error = ? WHERE job_id = ? AND user_id = ?";
+
+    // Yalniz butun istifadeciler ugursuz olubsa is FAILED sayilir
+    private static final String FINISH_JOB = """
+            UPDATE user_deletion_jobs j SET finished_at = ?, lease_until = NULL,
+                status = CASE WHEN EXISTS (SELECT 1 FROM user_deletion_job_users u
+                                           WHERE u.job_id = j.id AND u.status = 'FAILED')
+                               AND NOT EXISTS (SELECT 1 FROM user_deletion_job_users u
+                                               WHERE u.job_id = j.id AND u.status = 'DELETED')
+                              THEN 'FAILED' ELSE 'COMPLETED' END
+            WHERE j.id = ?
+            """;
+
+    private static final String ABANDONED_JOBS = """
+            SELECT id FROM user_deletion_jobs
+            WHERE finished_at IS NULL AND (lease_until IS NULL OR lease_until < ?)
+            ORDER BY created_at
+            """;
+
+    private static final String JOB_SQL = """
+            SELECT j.status, j.created_at, j.finished_at, COUNT(u.user_id),
+                   COUNT(u.user_id) FILTER (WHERE u.status = 'DELETED'),
+                   COUNT(u.user_id) FILTER (WHERE u.status = 'FAILED'),
+                   COALESCE(SUM(u.affected_rows), 0)
+            FROM user_deletion_jobs j
+            LEFT JOIN user_deletion_job_users u ON u.job_id = j.id
+            WHERE j.id = ?
+            GROUP BY j.id
+            """;
+
+    private static final String JOB_ERRORS = """
+            SELECT user_id, error FROM user_deletion_job_users
+            WHERE job_id = ? AND status = 'FAILED'
+            ORDER BY user_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SecurityService securityService;
+    private final AccountBalanceCache accountBalanceCache;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "user-deletion");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Bu nusxede novbeye qoyulmus isler: berpa skani eyni isi tekrar novbeye qoymasin
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+
+    @Value("${user-deletion.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${user-deletion.job-retention-minutes:60}")
+    private long jobRetentionMinutes;
+
+    @Value("${user-deletion.lease-seconds:300}")
+    private long leaseSeconds;
+
+    public UserDeletionService(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               SecurityService securityService,
+                               AccountBalanceCache accountBalanceCache,
+                               EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.securityService = securityService;
+        this.accountBalanceCache = accountBalanceCache;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    // Isler bir-bir icra olunur ki, silme bazani ve connection pool-u doldurmasin.
+    public UserDeletionJobDto submit(List<Long> userIds) {
+        String jobId = UUID.randomUUID().toString();
+        List<Long> distinct = userIds.stream().distinct().toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(INSERT_JOB, jobId, Timestamp.valueOf(LocalDateTime.now()));
+            jdbcTemplate.batchUpdate(INSERT_JOB_USER, distinct.stream().map(userId -> new Object[]{jobId, userId}).toList());
+        });
+        enqueue(jobId);
+        log.info("User deletion job {} queued for {} users", jobId, distinct.size());
+        return getJob(jobId);
+    }
+
+    public UserDeletionJobDto getJob(String jobId) {
+        List<UserDeletionJobDto> jobs = jdbcTemplate.query(JOB_SQL, (rs, i) -> {
+            UserDeletionJobDto dto = new UserDeletionJobDto();
+            dto.setJobId(jobId);
+            dto.setStatus(UserDeletionJobDto.Status.valueOf(rs.getString(1)));
+            dto.setCreatedAt(rs.getTimestamp(2).toLocalDateTime());
+            Timestamp finishedAt = rs.getTimestamp(3);
+            dto.setFinishedAt(finishedAt != null ? finishedAt.toLocalDateTime() : null);
+            dto.setTotalUsers(rs.getInt(4));
+            dto.setDeletedUsers(rs.getInt(5));
+            dto.setFailedUsers(rs.getInt(6));
+            dto.setAffectedRows(rs.getLong(7));
+            return dto;
+        }, jobId);
+        if (jobs.isEmpty()) {
+            return null;
+        }
+        UserDeletionJobDto job = jobs.get(0);
+        job.setErrors(jdbcTemplate.query(JOB_ERRORS, (rs, i) -> "User " + rs.getLong(1) + ": " + rs.getString(2), jobId));
+        return job;
+    }
+
+    // Tek istifadeci sorgu axininda silinir, amma eyni hisse-hisse yolla.
+    public long deleteNow(Long userId) {
+        return deleteUser(userId, null);
+    }
+
+    // Dayanmis nusxenin (ve ya restart-dan evvelki) yarimciq isleri icaresi bitenden sonra burada goturulur
+    @Scheduled(fixedDelayString = "${user-deletion.resume-interval:60000}")
+    public void resumeAbandonedJobs() {
+        for (String jobId : jdbcTemplate.queryForList(ABANDONED_JOBS, String.class, Timestamp.valueOf(LocalDateTime.now()))) {
+            if (enqueue(jobId)) {
+                log.info("User deletion job {} resumed", jobId);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${user-deletion.cleanup-interval:600000}")
+    public void removeFinishedJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minusMinutes(jobRetentionMinutes);
+        jdbcTemplate.update("DELETE FROM user_deletion_jobs WHERE finished_at < ?", Timestamp.valueOf(threshold));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private boolean enqueue(String jobId) {
+        if (!queued.add(jobId)) {
+            return false;
+        }
+        executor.submit(() -> run(jobId));
+        return true;
+    }
+
+    // Dayandirilan (shutdownNow) is yarimciq qalir; icaresi bitende bu ve ya basqa nusxe davam edir
+    private void run(String jobId) {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            if (jdbcTemplate.update(CLAIM_JOB, Timestamp.valueOf(now.plusSeconds(leaseSeconds)), jobId,
+                    Timestamp.valueOf(now)) == 0) {
+                return;
+            }
+            Long userId;
+            while (!Thread.currentThread().isInterrupted() && (userId = nextPendingUser(jobId)) != null) {
+                renewLease(jobId);
+                try {
+                    deleteUser(userId, jobId);
+                } catch (RuntimeException e) {
+                    log.error("User deletion job {} failed for userId={}", jobId, userId, e);
+                    String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                    jdbcTemplate.update(MARK_FAILED,
+                            error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error, jobId, userId);
+                }
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            jdbcTemplate.update(FINISH_JOB, Timestamp.valueOf(LocalDateTime.now()), jobId);
+            UserDeletionJobDto job = getJob(jobId);
+            log.info("User deletion job {} finished: deleted={}, failed={}, affectedRows={}",
+                    jobId, job.getDeletedUsers(), job.getFailedUsers(), job.getAffectedRows());
+        } catch (RuntimeException e) {
+            log.error("User deletion job {} stopped; it resumes once its lease expires", jobId, e);
+        } finally {
+            queued.remove(jobId);
+        }
+    }
+
+    private void renewLease(String jobId) {
+        jdbcTemplate.update(RENEW_LEASE, Timestamp.valueOf(LocalDateTime.now().plusSeconds(leaseSeconds)), jobId);
+    }
+
+    private Long nextPendingUser(String jobId) {
+        List<Long> next = jdbcTemplate.queryForList(NEXT_PENDING_USER, Long.class, jobId);
+        return next.isEmpty() ? null : next.get(0);
+    }
+
+    // jobId null deyilse istifadeci isde DELETED kimi eyni (son) tranzaksiyada isarelenir
+    private long deleteUser(Long userId, String jobId) {
+        Integer exists = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE id = ?", Integer.class, userId);
+        if (exists == null || exists == 0) {
+            throw new UserNotFoundException("User with ID " + userId + " not found");
+        }
+        Long[] accountIds = jdbcTemplate.queryForList("SELECT id FROM bank_accounts WHERE user_id = ?", Long.class, userId)
+                .toArray(Long[]::new);
+        Long[] cardIds = accountIds.length == 0 ? new Long[0] : jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id FROM cards WHERE account_id = ANY (?)");
+            ps.setArray(1, con.createArrayOf("bigint", accountIds));
+            return ps;
+        }, (rs, i) -> rs.getLong(1)).toArray(Long[]::new);
+
+        long affected = 0;
+        if (accountIds.length > 0) {
+            jdbcTemplate.update(LOCK_ACCOUNTS, userId);
+            affected += repeatUntilDone(jobId, DETACH_OUTGOING, accountIds, accountIds);
+            affected += repeatUntilDone(jobId, DETACH_INCOMING, accountIds, accountIds);
+            affected += repeatUntilDone(jobId, DELETE_OWN_TRANSACTIONS, accountIds, accountIds);
+        }
+        if (cardIds.length > 0) {
+            affected += repeatUntilDone(jobId, DETACH_CARDS, cardIds, cardIds, cardIds, cardIds);
+        }
+
+        // Qalan setirler az ve istifadeciye mexsusdur, bir qisa tranzaksiyada silinir
+        long detached = affected;
+        Long removed = transactionTemplate.execute(status -> {
+            long rows = jdbcTemplate.update("DELETE FROM refresh_token WHERE user_id = ?", userId);
+            rows += jdbcTemplate.update("DELETE FROM cards WHERE account_id IN (SELECT id FROM bank_accounts WHERE user_id = ?)", userId);
+            rows += jdbcTemplate.update("DELETE FROM bank_accounts WHERE user_id = ?", userId);
+            rows += jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+            if (jobId != null) {
+                jdbcTemplate.update(MARK_DELETED, detached + rows, jobId, userId);
+            }
+            return rows;
+        });
+        affected += removed != null ? removed : 0;
+
+        for (Long accountId : accountIds) {
+            securityService.evictAccount(accountId);
+            accountBalanceCache.evictAfterCommit(accountId);
+        }
+        evictSecondLevelCache(userId, accountIds, cardIds);
+        log.info("Deleted userId={} with {} accounts and {} cards", userId, accountIds.length, cardIds.length);
+        return affected;
+    }
+
+    // Silme JDBC ile edilir ve Hibernate ikinci seviyye kesinden xebersizdir
+    private void evictSecondLevelCache(Long userId, Long[] accountIds, Long[] cardIds) {
+        jakarta.persistence.Cache cache = entityManagerFactory.getCache();
+        cache.evict(User.class, userId);
+        for (Long cardId : cardIds) {
+            cache.evict(Card.class, cardId);
+        }
+        org.hibernate.Cache hibernateCache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        for (Long accountId : accountIds) {
+            hibernateCache.evictCollectionData(SecondLevelCacheConfig.ACCOUNT_CARDS_ROLE, accountId);
+        }
+        hibernateCache.evictQueryRegions();
+    }
+
+    // Her cagiris autocommit rejiminde ayri qisa emeliyyatdir; 0 setir qalana qeder tekrarlanir.
+    // Isin icaresi her hisseden evvel uzadilir ki, boyuk istifadeci silinerken is basqa nusxeye kecmesin.
+    private long repeatUntilDone(String jobId, String sql, Long[]... arrays) {
+        long total = 0;
+        int updated;
+        do {
+            if (jobId != null) {
+                renewLease(jobId);
+            }
+            updated = jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(sql);
+                int index = 1;
+                for (Long[] array : arrays) {
+                    ps.setArray(index++, con.createArrayOf("bigint", array));
+                }
+                ps.setInt(index, chunkSize);
+                return ps;
+            });
+            total += updated;
+        } while (updated > 0);
+        return total;
+    }
+}
@@ -14,9 +14,9 @@ import com.example.bankdb.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Optional;
 
 @Slf4j
@@ -25,7 +25,7 @@ import java.util.Optional;
 public class UserService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
 
     public String register(RegisterRequest request) {
         String username = request.getUsername();
@@ -41,7 +41,7 @@ public class UserService {
         User user = new User();
         user.setUsername(request.getUsername());
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
         user.setRole(Role.USER);
 
         userRepository.save(user);
@@ -49,16 +49,35 @@ public class UserService {
         return "User registered successfully...";
     }
 
-    public String login(LoginRequest request) {
-        Optional<User> userOpt = userRepository.findByUsername(request.getIdentifier());
+    public User authenticate(LoginRequest request) {
+        String identifier = request.getIdentifier();
+        // Email ve username bir sorguda yoxlanilir, email uygunlugu ustundur.
+        List<User> candidates = userRepository.findAllByEmailOrUsername(identifier);
+        Optional<User> userOpt = candidates.stream()
+                .filter(u -> identifier.equals(u.getEmail()))
+                .findFirst()
+                .or(() -> candidates.stream().findFirst());
 
-        if (userOpt.isPresent() && userOpt.get().getPassword().equals(request.getPassword())) {
-            log.info("Login successful for user: {}", request.getIdentifier());
-            return "Login successful." + request.getIdentifier();
-        } else {
-            log.warn("Login failed for user: {}", request.getIdentifier());
+        if (userOpt.isEmpty()) {
+            passwordHashingService.simulateMatch(request.getPassword());
+            log.warn("Login failed for user: {}", identifier);
             throw new InvalidCredentialsException("Invalid username or password");
         }
+
+        User user = userOpt.get();
+        if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
+            log.warn("Login failed for user: {}", identifier);
+            throw new InvalidCredentialsException("Invalid username or password");
+        }
+
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            user.setPassword(passwordHashingService.encode(request.getPassword()));
+            userRepository.save(user);
+            log.info("Password rehashed with current cost for user: {}", identifier);
+        }
+
+        log.info("Login successful for user: {}", identifier);
+        return user;
     }
 
     public UserProfileDto getCurrencyUserProfile(String email) {
@@ -74,12 +93,12 @@ public class UserService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-        if (!passwordEncoder.matches(request.getOldPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(request.getOldPassword(), user.getPassword())) {
             log.warn("Password change failed: incorrect old password for user: {}", email);
             throw new IncorrectPasswordException("Old password is incorrect");
         }
 
-        user.setPassword(passwordEncoder.encode(request.getNewPassword()));
+        user.setPassword(passwordHashingService.encode(request.getNewPassword()));
         userRepository.save(user);
         log.info("Password changed successfully for user: {}", email);
     }
@@ -2,8 +2,11 @@ package com.example.bankdb.util;
 
 public class CardValidator {
 
+    private static final int CARD_NUMBER_LENGTH = 16;
+
+    // Luhn yoxlamasi; regex ve Character.getNumericValue istifade olunmur ki, toplu importda ucuz olsun
     public static boolean isValidCardNumber(String cardNumber) {
-        if (cardNumber == null || !cardNumber.matches("\\d{16}")) {
+        if (cardNumber == null || cardNumber.length() != CARD_NUMBER_LENGTH) {
             return false;
         }
 
@@ -12,15 +15,15 @@ public class CardValidator {
 
         for (int i = cardNumber.length() - 1; i >= 0; i--) {
             char ch = cardNumber.charAt(i);
-            if (!Character.isDigit(ch)) {
+            if (ch < '0' || ch > '9') {
                 return false;
             }
-            int digit = Character.getNumericValue(ch);
+            int digit = ch - '0';
 
             if (doubleDigit) {
                 digit *= 2;
                 if (digit > 9) {
-                    digit = (digit / 10) + (digit % 10);
+                    digit -= 9;
                 }
             }
             sum += digit;
@@ -0,0 +1,96 @@
+package com.example.bankdb.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Axinli RFC 4180 oxuyucu: bir defede yalniz bir setir yaddasda saxlanilir.
+// Dirnaq daxilinde vergul, "" ve setir kecidi desteklenir; \r\n ve \n setir sonu sayilir.
+public class CsvReader {
+
+    private final Reader reader;
+    private final StringBuilder field = new StringBuilder();
+    private long lineNumber = 1;
+    private long recordLine;
+    private int pushedBack = -2;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    // Novbeti setri qaytarir, fayl bitibse null. Bos setirler atlanir.
+    public List<String> next() throws IOException {
+        List<String> record = new ArrayList<>();
+        field.setLength(0);
+        recordLine = lineNumber;
+        boolean quoted = false;
+        boolean fieldStarted = false;
+        int ch;
+        while ((ch = read()) != -1) {
+            if (quoted) {
+                if (ch == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(following);
+                    }
+                } else {
+                    if (ch == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) ch);
+                }
+            } else if (ch == '"' && field.isEmpty()) {
+                quoted = true;
+                fieldStarted = true;
+            } else if (ch == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+                fieldStarted = true;
+            } else if (ch == '\r' || ch == '\n') {
+                if (ch == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        unread(following);
+                    }
+                }
+                lineNumber++;
+                if (!fieldStarted && field.isEmpty() && record.isEmpty()) {
+                    recordLine = lineNumber;
+                    continue;
+                }
+                record.add(field.toString());
+                return record;
+            } else {
+                field.append((char) ch);
+                fieldStarted = true;
+            }
+        }
+        if (!fieldStarted && field.isEmpty() && record.isEmpty()) {
+            return null;
+        }
+        record.add(field.toString());
+        return record;
+    }
+
+    // Son qaytarilan setrin faylda basladigi setir nomresi (1-den)
+    public long recordLine() {
+        return recordLine;
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int ch = pushedBack;
+            pushedBack = -2;
+            return ch;
+        }
+        return reader.read();
+    }
+
+    private void unread(int ch) {
+        pushedBack = ch;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.bankdb.util;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+// Ierarxik timing wheel: her seviyye sabit sayda yuvadan ibaretdir, bir yuvanin muddeti
+// evvelki seviyyenin tam dovrune beraberdir. Elave etme ve vaxti catanlarin cixarilmasi O(1)-dir,
+// uzaq gelecek ucun yuxari seviyyeler yalniz lazim olanda yaradilir.
+// Bir thread (ticker) advance cagirir, schedule ise istenilen thread-den cagirila biler.
+public class HierarchicalTimingWheel<T> {
+
+    private final Level<T> root;
+    private final ArrayDeque<T> expired = new ArrayDeque<>();
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        this.root = new Level<>(tickMillis, wheelSize, startMillis);
+    }
+
+    // Element vaxti catdigi yuva bitende (en cox bir tick gec) qaytarilir; vaxti kecibse novbeti advance-da.
+    public synchronized void schedule(T item, long deadlineMillis) {
+        insert(new Entry<>(item, deadlineMillis));
+        size++;
+    }
+
+    public synchronized int advance(long nowMillis, Consumer<T> onExpired) {
+        while (root.currentTime + root.tickMillis <= nowMillis) {
+            long passedSlot = root.currentTime;
+            root.currentTime = passedSlot + root.tickMillis;
+            // Kecmis yuvadaki butun elementlerin vaxti catib; yuva bosaldilmamis yuxaridan element enmemelidir,
+            // cunki hemin yuva indi dovrun sonuncu yuvasidir
+            drain(root.bucketFor(passedSlot));
+            cascade(root.overflow, root.currentTime);
+        }
+        int fired = expired.size();
+        while (!expired.isEmpty()) {
+            size--;
+            onExpired.accept(expired.poll());
+        }
+        return fired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void insert(Entry<T> entry) {
+        if (!root.add(entry)) {
+            expired.add(entry.item);
+        }
+    }
+
+    // Yuxari seviyyede yeni baslayan yuvanin elementleri asagi seviyyelere paylanir.
+    // Evvelce daha yuxari seviyye enir ki, onun elementleri de bu yuvaya dusse eyni addimda paylansin.
+    private void cascade(Level<T> level, long time) {
+        if (level == null || time % level.tickMillis != 0) {
+            return;
+        }
+        level.currentTime = time;
+        cascade(level.overflow, time);
+        drain(level.bucketFor(time));
+    }
+
+    private void drain(ArrayDeque<Entry<T>> bucket) {
+        while (!bucket.isEmpty()) {
+            insert(bucket.poll());
+        }
+    }
+
+    private record Entry<T>(T item, long deadline) {
+    }
+
+    private static final class Level<T> {
+        private final long tickMillis;
+        private final int wheelSize;
+        private final long intervalMillis;
+        private final ArrayDeque<Entry<T>>[] buckets;
+        private long currentTime;
+        private Level<T> overflow;
+
+        @SuppressWarnings("unchecked")
+        private Level(long tickMillis, int wheelSize, long startMillis) {
+            this.tickMillis = tickMillis;
+            this.wheelSize = wheelSize;
+            this.intervalMillis = tickMillis * wheelSize;
+            this.currentTime = startMillis - Math.floorMod(startMillis, tickMillis);
+            this.buckets = new ArrayDeque[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new ArrayDeque<>();
+            }
+        }
+
+        private boolean add(Entry<T> entry) {
+            if (entry.deadline < currentTime) {
+                return false;
+            }
+            if (entry.deadline < currentTime + intervalMillis) {
+                bucketFor(entry.deadline).add(entry);
+                return true;
+            }
+            // Yuxari seviyyenin saati bu seviyyeninkinden geri qalmir, ona gore element orada expired ola bilmez
+            if (overflow == null) {
+                overflow = new Level<>(intervalMillis, wheelSize, currentTime);
+            }
+            return overflow.add(entry);
+        }
+
+        private ArrayDeque<Entry<T>> bucketFor(long time) {
+            return buckets[(int) Math.floorMod(time / tickMillis, (long) wheelSize)];
+        }
+    }
+}
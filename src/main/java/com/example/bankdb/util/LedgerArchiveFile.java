@@ -0,0 +1,459 @@
+package com.example.bankdb.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+// Arxivlenmis ledger setirleri ucun sutunlu, sixilmis fayl.
+// Setirler (accountId, postedAt, postingId) uzre sirali verilir ve chunk-lara bolunur. Chunk daxilinde her sutun
+// ardicil yazilir (id ve vaxtlar delta + varint, meblegler qepikle, metnler lugetle) ve butov chunk Deflater ile sixilir.
+// Footer-de her chunk ucun hesab ve vaxt min/max statistikasi saxlanilir; sorguya aid olmayan chunk diskden oxunmur.
+//
+// Fayl: MAGIC, VERSION, chunk-lar..., footer (chunk sayi, her chunk ucun offset/uzunluq/setir/statistika), footer offset, MAGIC
+public final class LedgerArchiveFile {
+
+    private static final int MAGIC = 0x42444C41;
+    private static final int FORMAT_VERSION = 1;
+    private static final int TRAILER_BYTES = Long.BYTES + Integer.BYTES;
+    private static final int CHUNK_STATS_BYTES = 5 * Long.BYTES + 2 * Integer.BYTES;
+
+    // Posting ve onun emeliyyati bir setirde; vaxt posting-in vaxtidir (emeliyyatin timestamp-i ile eynidir)
+    public record Row(long postingId, long accountId, LocalDateTime postedAt, BigDecimal amount, BigDecimal balanceAfter,
+                      long transactionId, BigDecimal transactionAmount, BigDecimal convertedAmount, Long exchangeRateId,
+                      String description, Long fromAccountId, Long toAccountId, Long fromCardId, Long toCardId,
+                      String transactionType) {
+    }
+
+    public record ChunkStats(long offset, int length, int rowCount,
+                             long minAccountId, long maxAccountId, long minPostedAt, long maxPostedAt) {
+
+        boolean overlaps(long accountId, long fromMicros, long toMicros) {
+            return accountId >= minAccountId && accountId <= maxAccountId
+                    && maxPostedAt >= fromMicros && minPostedAt < toMicros;
+        }
+    }
+
+    private final Path path;
+    private final List<ChunkStats> chunks;
+
+    private LedgerArchiveFile(Path path, List<ChunkStats> chunks) {
+        this.path = path;
+        this.chunks = chunks;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public List<ChunkStats> chunks() {
+        return chunks;
+    }
+
+    public long rowCount() {
+        long rows = 0;
+        for (ChunkStats chunk : chunks) {
+            rows += chunk.rowCount();
+        }
+        return rows;
+    }
+
+    // Setirler evvelce muveqqeti fayla yazilib diske sinxronlasdirilir, sonra atomik olaraq path-e kocurulur
+    public static LedgerArchiveFile write(Path path, List<Row> rows, int chunkRows) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        List<ChunkStats> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(2 * Integer.BYTES).putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+            writeFully(channel, header);
+            for (int start = 0; start < rows.size(); start += chunkRows) {
+                List<Row> chunkRowsList = rows.subList(start, Math.min(rows.size(), start + chunkRows));
+                long offset = channel.position();
+                byte[] block = encodeChunk(chunkRowsList);
+                writeFully(channel, ByteBuffer.wrap(block));
+                chunks.add(stats(offset, block.length, chunkRowsList));
+            }
+
+            long footerOffset = channel.position();
+            ByteArrayOutputStream footerBytes = new ByteArrayOutputStream();
+            DataOutputStream footer = new DataOutputStream(footerBytes);
+            footer.writeInt(chunks.size());
+            for (ChunkStats chunk : chunks) {
+                footer.writeLong(chunk.offset());
+                footer.writeInt(chunk.length());
+                footer.writeInt(chunk.rowCount());
+                footer.writeLong(chunk.minAccountId());
+                footer.writeLong(chunk.maxAccountId());
+                footer.writeLong(chunk.minPostedAt());
+                footer.writeLong(chunk.maxPostedAt());
+            }
+            footer.writeLong(footerOffset);
+            footer.writeInt(MAGIC);
+            writeFully(channel, ByteBuffer.wrap(footerBytes.toByteArray()));
+            channel.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return new LedgerArchiveFile(path, List.copyOf(chunks));
+    }
+
+    public static LedgerArchiveFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 2 * Integer.BYTES + Integer.BYTES + TRAILER_BYTES) {
+                throw new IOException("Ledger archive file is truncated: " + path);
+            }
+            ByteBuffer header = readFully(channel, 0, 2 * Integer.BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION) {
+                throw new IOException("Not a ledger archive file (or unsupported version): " + path);
+            }
+            ByteBuffer trailer = readFully(channel, size - TRAILER_BYTES, TRAILER_BYTES);
+            long footerOffset = trailer.getLong();
+            if (trailer.getInt() != MAGIC || footerOffset < 0 || footerOffset > size - TRAILER_BYTES) {
+                throw new IOException("Ledger archive footer is corrupt: " + path);
+            }
+            ByteBuffer footer = readFully(channel, footerOffset, (int) (size - TRAILER_BYTES - footerOffset));
+            int chunkCount = footer.remaining() >= Integer.BYTES ? footer.getInt() : -1;
+            if (chunkCount < 0 || footer.remaining() != (long) chunkCount * CHUNK_STATS_BYTES) {
+                throw new IOException("Ledger archive footer is corrupt: " + path);
+            }
+            List<ChunkStats> chunks = new ArrayList<>(chunkCount);
+            long expectedOffset = 2 * Integer.BYTES;
+            for (int i = 0; i < chunkCount; i++) {
+                ChunkStats chunk = new ChunkStats(footer.getLong(), footer.getInt(), footer.getInt(),
+                        footer.getLong(), footer.getLong(), footer.getLong(), footer.getLong());
+                // Chunk-lar header ile footer arasinda bosluqsuz ardicil yerlesir
+                if (chunk.offset() != expectedOffset || chunk.length() <= 0 || chunk.rowCount() <= 0) {
+                    throw new IOException("Ledger archive chunk " + i + " is out of bounds: " + path);
+                }
+                expectedOffset += chunk.length();
+                chunks.add(chunk);
+            }
+            if (expectedOffset != footerOffset) {
+                throw new IOException("Ledger archive chunks do not end at the footer: " + path);
+            }
+            return new LedgerArchiveFile(path, List.copyOf(chunks));
+        }
+    }
+
+    // Statistikaya gore hesabin [from, to) araligina dusen setri ola bilecek chunk varmi (fayl acilmir)
+    public boolean mayContain(long accountId, LocalDateTime from, LocalDateTime to) {
+        long fromMicros = from != null ? toMicros(from) : Long.MIN_VALUE;
+        long toMicros = to != null ? toMicros(to) : Long.MAX_VALUE;
+        for (ChunkStats chunk : chunks) {
+            if (chunk.overlaps(accountId, fromMicros, toMicros)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Hesabin [from, to) araligindaki setirleri fayldaki sira ile verir; null serhed mehdudiyyetsizdir
+    public void scan(long accountId, LocalDateTime from, LocalDateTime to, Consumer<Row> consumer) throws IOException {
+        long fromMicros = from != null ? toMicros(from) : Long.MIN_VALUE;
+        long toMicros = to != null ? toMicros(to) : Long.MAX_VALUE;
+        List<ChunkStats> matching = chunks.stream()
+                .filter(chunk -> chunk.overlaps(accountId, fromMicros, toMicros))
+                .toList();
+        if (matching.isEmpty()) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (ChunkStats chunk : matching) {
+                decodeChunk(readFully(channel, chunk.offset(), chunk.length()).array(), chunk.rowCount(), row -> {
+                    long postedAt = toMicros(row.postedAt());
+                    if (row.accountId() == accountId && postedAt >= fromMicros && postedAt < toMicros) {
+                        consumer.accept(row);
+                    }
+                });
+            }
+        }
+    }
+
+    public void forEach(Consumer<Row> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (ChunkStats chunk : chunks) {
+                decodeChunk(readFully(channel, chunk.offset(), chunk.length()).array(), chunk.rowCount(), consumer);
+            }
+        }
+    }
+
+    private static ChunkStats stats(long offset, int length, List<Row> rows) {
+        long minAccount = Long.MAX_VALUE;
+        long maxAccount = Long.MIN_VALUE;
+        long minPostedAt = Long.MAX_VALUE;
+        long maxPostedAt = Long.MIN_VALUE;
+        for (Row row : rows) {
+            long postedAt = toMicros(row.postedAt());
+            minAccount = Math.min(minAccount, row.accountId());
+            maxAccount = Math.max(maxAccount, row.accountId());
+            minPostedAt = Math.min(minPostedAt, postedAt);
+            maxPostedAt = Math.max(maxPostedAt, postedAt);
+        }
+        return new ChunkStats(offset, length, rows.size(), minAccount, maxAccount, minPostedAt, maxPostedAt);
+    }
+
+    private static byte[] encodeChunk(List<Row> rows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater, 1 << 16))) {
+            writeVarLong(out, rows.size());
+
+            long previous = 0;
+            for (Row row : rows) {
+                writeVarLong(out, zigZag(row.postingId() - previous));
+                previous = row.postingId();
+            }
+            previous = 0;
+            for (Row row : rows) {
+                writeVarLong(out, zigZag(row.accountId() - previous));
+                previous = row.accountId();
+            }
+            previous = 0;
+            for (Row row : rows) {
+                long postedAt = toMicros(row.postedAt());
+                writeVarLong(out, zigZag(postedAt - previous));
+                previous = postedAt;
+            }
+            for (Row row : rows) {
+                writeVarLong(out, zigZag(cents(row.amount())));
+            }
+            for (Row row : rows) {
+                writeNullable(out, row.balanceAfter() != null ? cents(row.balanceAfter()) : null);
+            }
+            previous = 0;
+            for (Row row : rows) {
+                writeVarLong(out, zigZag(row.transactionId() - previous));
+                previous = row.transactionId();
+            }
+            for (Row row : rows) {
+                writeVarLong(out, zigZag(cents(row.transactionAmount())));
+            }
+            for (Row row : rows) {
+                writeNullable(out, row.convertedAmount() != null ? cents(row.convertedAmount()) : null);
+            }
+            for (Row row : rows) {
+                writeNullable(out, row.exchangeRateId());
+            }
+            for (Row row : rows) {
+                writeNullable(out, row.fromAccountId());
+            }
+            for (Row row : rows) {
+                writeNullable(out, row.toAccountId());
+            }
+            for (Row row : rows) {
+                writeNullable(out, row.fromCardId());
+            }
+            for (Row row : rows) {
+                writeNullable(out, row.toCardId());
+            }
+
+            // Tesvir ve emeliyyat novu az sayda ferqli deyerdir, ortaq lugetle saxlanilir
+            Map<String, Integer> dictionary = new HashMap<>();
+            List<String> entries = new ArrayList<>();
+            for (Row row : rows) {
+                for (String value : new String[]{row.description(), row.transactionType()}) {
+                    if (value != null && dictionary.putIfAbsent(value, entries.size()) == null) {
+                        entries.add(value);
+                    }
+                }
+            }
+            writeVarLong(out, entries.size());
+            for (String entry : entries) {
+                byte[] utf8 = entry.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(out, utf8.length);
+                out.write(utf8);
+            }
+            for (Row row : rows) {
+                writeVarLong(out, row.description() != null ? dictionary.get(row.description()) + 1 : 0);
+            }
+            for (Row row : rows) {
+                writeVarLong(out, row.transactionType() != null ? dictionary.get(row.transactionType()) + 1 : 0);
+            }
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    // Setirler yalniz butun chunk oxunub sixilmanin checksum-u yoxlanandan sonra verilir
+    private static void decodeChunk(byte[] block, int expectedRows, Consumer<Row> consumer) throws IOException {
+        Inflater inflater = new Inflater();
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(block), inflater, 1 << 16))) {
+            long encodedCount = readVarLong(in);
+            if (encodedCount != expectedRows) {
+                throw new IOException("Ledger archive chunk has " + encodedCount + " rows, footer says " + expectedRows);
+            }
+            int count = expectedRows;
+            long[] postingIds = readDeltas(in, count);
+            long[] accountIds = readDeltas(in, count);
+            long[] postedAt = readDeltas(in, count);
+            long[] amounts = readZigZags(in, count);
+            Long[] balancesAfter = readNullables(in, count);
+            long[] transactionIds = readDeltas(in, count);
+            long[] transactionAmounts = readZigZags(in, count);
+            Long[] convertedAmounts = readNullables(in, count);
+            Long[] exchangeRateIds = readNullables(in, count);
+            Long[] fromAccountIds = readNullables(in, count);
+            Long[] toAccountIds = readNullables(in, count);
+            Long[] fromCardIds = readNullables(in, count);
+            Long[] toCardIds = readNullables(in, count);
+
+            long entryCount = readVarLong(in);
+            if (entryCount < 0 || entryCount > 2L * count) {
+                throw new IOException("Malformed dictionary in ledger archive chunk");
+            }
+            String[] entries = new String[(int) entryCount];
+            for (int i = 0; i < entries.length; i++) {
+                long length = readVarLong(in);
+                byte[] utf8 = length >= 0 && length <= Integer.MAX_VALUE ? in.readNBytes((int) length) : null;
+                if (utf8 == null || utf8.length != length) {
+                    throw new IOException("Malformed dictionary entry in ledger archive chunk");
+                }
+                entries[i] = new String(utf8, StandardCharsets.UTF_8);
+            }
+            String[] descriptions = readDictionaryColumn(in, count, entries);
+            String[] types = readDictionaryColumn(in, count, entries);
+            if (in.read() != -1) {
+                throw new IOException("Unexpected trailing data in ledger archive chunk");
+            }
+
+            for (int i = 0; i < count; i++) {
+                consumer.accept(new Row(postingIds[i], accountIds[i], fromMicros(postedAt[i]),
+                        BigDecimal.valueOf(amounts[i], 2),
+                        balancesAfter[i] != null ? BigDecimal.valueOf(balancesAfter[i], 2) : null,
+                        transactionIds[i], BigDecimal.valueOf(transactionAmounts[i], 2),
+                        convertedAmounts[i] != null ? BigDecimal.valueOf(convertedAmounts[i], 2) : null,
+                        exchangeRateIds[i], descriptions[i], fromAccountIds[i], toAccountIds[i],
+                        fromCardIds[i], toCardIds[i], types[i]));
+            }
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static long[] readDeltas(DataInputStream in, int count) throws IOException {
+        long[] values = new long[count];
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous += unZigZag(readVarLong(in));
+            values[i] = previous;
+        }
+        return values;
+    }
+
+    private static long[] readZigZags(DataInputStream in, int count) throws IOException {
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = unZigZag(readVarLong(in));
+        }
+        return values;
+    }
+
+    private static Long[] readNullables(DataInputStream in, int count) throws IOException {
+        Long[] values = new Long[count];
+        for (int i = 0; i < count; i++) {
+            long encoded = readVarLong(in);
+            values[i] = encoded == 0 ? null : unZigZag(encoded - 1);
+        }
+        return values;
+    }
+
+    private static String[] readDictionaryColumn(DataInputStream in, int count, String[] entries) throws IOException {
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            long index = readVarLong(in);
+            if (index < 0 || index > entries.length) {
+                throw new IOException("Malformed dictionary index in ledger archive chunk");
+            }
+            values[i] = index == 0 ? null : entries[(int) index - 1];
+        }
+        return values;
+    }
+
+    // null 0 ile, qalan deyerler zigzag + 1 ile yazilir
+    private static void writeNullable(OutputStream out, Long value) throws IOException {
+        writeVarLong(out, value == null ? 0 : zigZag(value) + 1);
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Unexpected end of ledger archive chunk");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in ledger archive chunk");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.setScale(2).unscaledValue().longValueExact();
+    }
+
+    public static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of ledger archive file");
+            }
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,10 @@
+-- Admin istifadeci axtarisi. CONCURRENTLY ile yaradilir ki, boyuk users cedveli bloklanmasin;
+-- Flyway bu ifadeleri tranzaksiyadan kenarda icra edir.
+
+-- Prefix axtarisi: lower(x) LIKE 'abc%'
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_username_lower_prefix ON users (lower(username) text_pattern_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_lower_prefix ON users (lower(email) text_pattern_ops);
+
+-- Substring axtarisi: lower(x) LIKE '%abc%'
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_username_lower_trgm ON users USING gin (lower(username) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_lower_trgm ON users USING gin (lower(email) gin_trgm_ops);
@@ -0,0 +1,20 @@
+CREATE TABLE IF NOT EXISTS standing_orders
+(
+    id                     BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    source_account_id      BIGINT         NOT NULL REFERENCES bank_accounts (id) ON DELETE CASCADE,
+    destination_account_id BIGINT         NOT NULL REFERENCES bank_accounts (id) ON DELETE CASCADE,
+    amount                 NUMERIC(38, 2) NOT NULL,
+    description            VARCHAR(255),
+    frequency              VARCHAR(255)   NOT NULL CHECK (frequency IN ('DAILY', 'WEEKLY', 'MONTHLY')),
+    next_execution_at      TIMESTAMP(6)   NOT NULL,
+    end_date               TIMESTAMP(6),
+    active                 BOOLEAN        NOT NULL,
+    failure_count          INTEGER        NOT NULL,
+    last_error             VARCHAR(255),
+    last_executed_at       TIMESTAMP(6),
+    created_at             TIMESTAMP(6)   NOT NULL
+);
+
+-- Planlayici yalniz aktiv tapsiriqlari vaxt uzre skan edir
+CREATE INDEX IF NOT EXISTS idx_standing_orders_next_execution_at ON standing_orders (next_execution_at, id) WHERE active;
+CREATE INDEX IF NOT EXISTS idx_standing_orders_source_account_id ON standing_orders (source_account_id);
@@ -0,0 +1,9 @@
+-- Emeliyyat tesvirleri uzre axtaris. Indeksler insert zamani PostgreSQL terefinden yenilenir;
+-- CONCURRENTLY ile yaradilir ki, boyuk transaction cedveli bloklanmasin.
+
+-- Substring axtarisi: lower(description) LIKE '%abc%'
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transaction_description_lower_trgm
+    ON transaction USING gin (lower(description) gin_trgm_ops);
+
+-- Tarix araligi ve yeniden kohneye keyset
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transaction_timestamp_id ON transaction (timestamp, id);
@@ -0,0 +1,5 @@
+-- Posting id-leri sequence-den (allocationSize = 50) alinir ki, Hibernate insert-leri batch ede bilsin.
+-- Identity sutunu saxlanilir (GENERATED BY DEFAULT id verilende istifade olunmur).
+CREATE SEQUENCE IF NOT EXISTS postings_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('postings_seq', MAX(id)) FROM postings HAVING MAX(id) IS NOT NULL;
@@ -0,0 +1,3 @@
+-- Hesab nomresine gore axtaris (transfer, toplu import-da account_number = ANY(?)).
+-- CONCURRENTLY ile yaradilir ki, bank_accounts cedveli bloklanmasin.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bank_accounts_account_number ON bank_accounts (account_number);
@@ -0,0 +1,22 @@
+-- Kurslar yalniz elave olunur: her deyisiklik yeni setirdir, kecmis kocurmelerin exchange_rate_id-si
+-- tetbiq olunan kursu gostermeye davam edir. Istiqametin cari kursu en boyuk id-li setirdir.
+ALTER TABLE exchange_rates DROP CONSTRAINT IF EXISTS uk_exchange_rates_pair;
+
+CREATE INDEX IF NOT EXISTS idx_exchange_rates_pair_id ON exchange_rates (base_currency, quote_currency, id);
+
+-- Ters kurs ayrica setirdir (oz id-si ile); inverse_of_id onun hesablandigi birbasa kursu gosterir
+ALTER TABLE exchange_rates ADD COLUMN IF NOT EXISTS inverse_of_id BIGINT REFERENCES exchange_rates (id);
+
+-- 16 onluq reqem: hesablanan ters kurs evvel yaddasda istifade olunan deqiqliyi saxlayir
+ALTER TABLE exchange_rates ALTER COLUMN rate TYPE NUMERIC(27, 16);
+
+-- Yalniz bir istiqameti olan cutler ucun ters kurs setri
+INSERT INTO exchange_rates (base_currency, quote_currency, rate, updated_at, inverse_of_id)
+SELECT r.quote_currency, r.base_currency, ROUND(1 / r.rate, 16), r.updated_at, r.id
+FROM exchange_rates r
+WHERE r.rate > 0
+  AND r.base_currency <> r.quote_currency
+  AND NOT EXISTS (SELECT 1
+                  FROM exchange_rates reverse
+                  WHERE reverse.base_currency = r.quote_currency
+                    AND reverse.quote_currency = r.base_currency);
@@ -0,0 +1,23 @@
+-- Toplu istifadeci silme isleri bazada saxlanilir ki, restart-dan sonra qaldigi yerden davam etsin.
+-- lease_until: isi icra eden nusxenin icaresi; vaxti kecmis yarimciq isi istenilen nusxe goturur.
+CREATE TABLE IF NOT EXISTS user_deletion_jobs
+(
+    id          VARCHAR(36)  PRIMARY KEY,
+    status      VARCHAR(16)  NOT NULL CHECK (status IN ('QUEUED', 'RUNNING', 'COMPLETED', 'FAILED')),
+    created_at  TIMESTAMP(6) NOT NULL,
+    finished_at TIMESTAMP(6),
+    lease_until TIMESTAMP(6)
+);
+
+-- Istifadeci DELETED kimi onun son silme tranzaksiyasinda isarelenir, ona gore yarimciq silme PENDING qalir
+CREATE TABLE IF NOT EXISTS user_deletion_job_users
+(
+    job_id        VARCHAR(36)  NOT NULL REFERENCES user_deletion_jobs (id) ON DELETE CASCADE,
+    user_id       BIGINT       NOT NULL,
+    status        VARCHAR(16)  NOT NULL CHECK (status IN ('PENDING', 'DELETED', 'FAILED')),
+    affected_rows BIGINT       NOT NULL DEFAULT 0,
+    error         VARCHAR(255),
+    PRIMARY KEY (job_id, user_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_deletion_jobs_unfinished ON user_deletion_jobs (created_at) WHERE finished_at IS NULL;
@@ -0,0 +1,58 @@
+-- Ilk (seriyadan evvelki) sxem: ddl-auto: update ile qurulmus movcud bazalar bu versiyada baseline olunur.
+-- Sonraki sxem deyisiklikleri V2-den baslayaraq ayri miqrasiyalardadir.
+
+CREATE TABLE users
+(
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(255) UNIQUE,
+    email    VARCHAR(255) UNIQUE,
+    role     VARCHAR(255) CHECK (role IN ('USER', 'ADMIN')),
+    password VARCHAR(255)
+);
+
+CREATE TABLE bank_accounts
+(
+    id                         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    account_number             VARCHAR(255),
+    balance                    NUMERIC(38, 2),
+    credit_limit               NUMERIC(38, 2),
+    interest_rate              NUMERIC(38, 2),
+    deposit_term_in_months     INTEGER,
+    is_locked                  BOOLEAN NOT NULL,
+    deposit_start_date         DATE,
+    deposit_unlock_date        DATE,
+    currency_type              VARCHAR(255) CHECK (currency_type IN ('AZN', 'USD')),
+    account_type               VARCHAR(255) CHECK (account_type IN ('DEBIT', 'CREDIT', 'DEPOSIT')),
+    user_id                    BIGINT REFERENCES users (id),
+    last_interest_applied_date DATE
+);
+
+CREATE TABLE cards
+(
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    card_number VARCHAR(255),
+    expiry_date VARCHAR(255),
+    cvv         VARCHAR(255),
+    account_id  BIGINT REFERENCES bank_accounts (id)
+);
+
+CREATE TABLE transaction
+(
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    from_account_id  BIGINT REFERENCES bank_accounts (id),
+    to_account_id    BIGINT REFERENCES bank_accounts (id),
+    from_card_id     BIGINT REFERENCES cards (id),
+    to_card_id       BIGINT REFERENCES cards (id),
+    amount           NUMERIC(38, 2),
+    description      VARCHAR(255),
+    transaction_type VARCHAR(255) CHECK (transaction_type IN ('DEPOSIT', 'WITHDRAW', 'TRANSFER')),
+    timestamp        TIMESTAMP(6)
+);
+
+CREATE TABLE refresh_token
+(
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id     BIGINT UNIQUE REFERENCES users (id),
+    token       VARCHAR(255)                NOT NULL UNIQUE,
+    expiry_date TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
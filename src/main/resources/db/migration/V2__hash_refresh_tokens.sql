@@ -0,0 +1,31 @@
+-- Refresh token-ler xam deyer evezine SHA-256 hex hash kimi saxlanilir (RefreshTokenService.hash ile eyni format).
+-- Movcud setirler yeniden hash-lenir ki, aktiv sessiyalar qirilmasin; sonra kohne token sutunu silinir.
+-- ddl-auto: update ile artiq token_hash elave olunmus dev bazalarinda da tehlukesiz isleyir.
+
+ALTER TABLE refresh_token ADD COLUMN IF NOT EXISTS token_hash VARCHAR(64);
+
+DO
+$$
+    BEGIN
+        IF EXISTS (SELECT 1
+                   FROM information_schema.columns
+                   WHERE table_schema = current_schema()
+                     AND table_name = 'refresh_token'
+                     AND column_name = 'token') THEN
+            UPDATE refresh_token
+            SET token_hash = encode(sha256(convert_to(token, 'UTF8')), 'hex')
+            WHERE token_hash IS NULL
+              AND token IS NOT NULL;
+        END IF;
+    END
+$$;
+
+-- Hash-lene bilmeyen setirler (token-siz) kecerli sessiya deyil
+DELETE FROM refresh_token WHERE token_hash IS NULL;
+
+ALTER TABLE refresh_token ALTER COLUMN token_hash SET NOT NULL;
+CREATE UNIQUE INDEX IF NOT EXISTS uk_refresh_token_token_hash ON refresh_token (token_hash);
+
+ALTER TABLE refresh_token DROP COLUMN IF EXISTS token;
+
+CREATE INDEX IF NOT EXISTS idx_refresh_token_expiry_date ON refresh_token (expiry_date);
@@ -0,0 +1,13 @@
+-- Valyutalar arasi kocurme: istifade olunan kurs ve qebul eden hesaba yazilan mebleg
+ALTER TABLE transaction ADD COLUMN IF NOT EXISTS converted_amount NUMERIC(38, 2);
+ALTER TABLE transaction ADD COLUMN IF NOT EXISTS exchange_rate_id BIGINT;
+
+CREATE TABLE IF NOT EXISTS exchange_rates
+(
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    base_currency  VARCHAR(255)   NOT NULL CHECK (base_currency IN ('AZN', 'USD')),
+    quote_currency VARCHAR(255)   NOT NULL CHECK (quote_currency IN ('AZN', 'USD')),
+    rate           NUMERIC(19, 8) NOT NULL,
+    updated_at     TIMESTAMP(6),
+    CONSTRAINT uk_exchange_rates_pair UNIQUE (base_currency, quote_currency)
+);
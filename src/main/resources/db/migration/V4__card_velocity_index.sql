@@ -0,0 +1,4 @@
+-- Velocity pencereleri startup-da son kart xerclerinden doldurulur (TransactionRepository.streamCardSpendSince).
+-- CONCURRENTLY ile yaradilir ki, transaction cedveli bloklanmasin.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transaction_from_card_timestamp
+    ON transaction (from_card_id, timestamp) WHERE from_card_id IS NOT NULL;
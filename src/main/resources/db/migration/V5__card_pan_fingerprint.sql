@@ -0,0 +1,5 @@
+-- Kart nomresi HMAC fingerprint ile axtarilir, cavablarda token ve son 4 reqem qaytarilir.
+-- Movcud kartlar CardService.backfillPanFingerprints ile startup-da doldurulur.
+ALTER TABLE cards ADD COLUMN IF NOT EXISTS pan_fingerprint VARCHAR(64) UNIQUE;
+ALTER TABLE cards ADD COLUMN IF NOT EXISTS pan_token VARCHAR(40) UNIQUE;
+ALTER TABLE cards ADD COLUMN IF NOT EXISTS last_four VARCHAR(4);
@@ -0,0 +1,14 @@
+-- Double-entry ledger: her emeliyyat ucun hesab basina bir setir.
+-- Kohne emeliyyatlarin posting-leri startup-da TransactionService terefinden backfill olunur.
+CREATE TABLE IF NOT EXISTS postings
+(
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    transaction_id BIGINT         NOT NULL REFERENCES transaction (id) ON DELETE CASCADE,
+    account_id     BIGINT         NOT NULL REFERENCES bank_accounts (id) ON DELETE CASCADE,
+    amount         NUMERIC(38, 2) NOT NULL,
+    balance_after  NUMERIC(38, 2),
+    posted_at      TIMESTAMP(6)   NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_postings_account_posted_at ON postings (account_id, posted_at);
+CREATE INDEX IF NOT EXISTS idx_postings_transaction_id ON postings (transaction_id);
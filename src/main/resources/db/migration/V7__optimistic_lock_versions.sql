@@ -0,0 +1,3 @@
+-- Optimistic lock ve ETag ucun versiya sutunlari; movcud setirler 0-dan baslayir
+ALTER TABLE bank_accounts ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE cards ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,6 @@
+-- Sahib/hesab uzre axtarislar ve hesab silinmesi ucun xarici acar indeksleri.
+-- CONCURRENTLY ile yaradilir ki, movcud boyuk cedveller bloklanmasin.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bank_accounts_user_id ON bank_accounts (user_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_cards_account_id ON cards (account_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transaction_from_account_id ON transaction (from_account_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transaction_to_account_id ON transaction (to_account_id);
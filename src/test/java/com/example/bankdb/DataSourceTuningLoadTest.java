@@ -0,0 +1,232 @@
+package com.example.bankdb;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// ./gradlew dataSourceTuningLoadTest ile isleyir; tetbiqin iki nusxesi ayrica, rate limit sondurulmus qaldirilir:
+// biri standart profil ile (load-test.baseline-url), digeri perf profili ile (load-test.base-url).
+// Her ikisine eyni yuk verilir: paralel kocurmeler (her istemcinin oz hesab cutu var, optimistic lock toqqusmur)
+// ve hemin hesablarin tarixcesinin oxunmasi. Sonda req/s ve perf profilinin ferqi cap olunur.
+@EnabledIfSystemProperty(named = "load-test.base-url", matches = ".+")
+class DataSourceTuningLoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private static final String PERF_URL = System.getProperty("load-test.base-url");
+    private static final String BASELINE_URL = System.getProperty("load-test.baseline-url", "");
+    private static final int CONCURRENCY = Integer.getInteger("load-test.concurrency", 32);
+    private static final int TRANSFERS_PER_CLIENT = Integer.getInteger("load-test.transfers", 200);
+    private static final int WARMUP_TRANSFERS = Integer.getInteger("load-test.warmup-transfers", 20);
+    private static final int REQUESTS = Integer.getInteger("load-test.requests", 2000);
+
+    @Test
+    void comparePerfProfileWithBaseline() throws Exception {
+        List<Result> results = new ArrayList<>();
+        if (!BASELINE_URL.isBlank()) {
+            results.addAll(measure("baseline", BASELINE_URL));
+        }
+        results.addAll(measure("perf", PERF_URL));
+
+        System.out.printf("%nDatasource tuning load test: concurrency %d, %d transfers per client, %d history reads%n",
+                CONCURRENCY, TRANSFERS_PER_CLIENT, REQUESTS);
+        System.out.printf("%-10s %-10s %10s %10s %10s %8s%n", "profile", "workload", "req/s", "p50 ms", "p99 ms", "errors");
+        for (Result result : results) {
+            System.out.printf("%-10s %-10s %10.1f %10d %10d %8d%n", result.profile(), result.workload(),
+                    result.requestsPerSecond(), result.p50Millis(), result.p99Millis(), result.errors());
+        }
+        if (!BASELINE_URL.isBlank()) {
+            for (String workload : List.of("transfers", "history")) {
+                double baseline = find(results, "baseline", workload).requestsPerSecond();
+                double perf = find(results, "perf", workload).requestsPerSecond();
+                System.out.printf("%-10s throughput delta: %+.1f%%%n", workload, (perf - baseline) / baseline * 100);
+            }
+        }
+
+        for (Result result : results) {
+            assertEquals(0, result.errors(), result.profile() + " " + result.workload() + " requests failed");
+        }
+    }
+
+    private static List<Result> measure(String profile, String baseUrl) throws Exception {
+        Target target = Target.seed(baseUrl);
+        runTransfers(profile, target, WARMUP_TRANSFERS);
+        Result transfers = runTransfers(profile, target, TRANSFERS_PER_CLIENT);
+        Result history = runHistoryReads(profile, target);
+        return List.of(transfers, history);
+    }
+
+    private static Result runTransfers(String profile, Target target, int perClient) throws Exception {
+        long[] latencies = new long[CONCURRENCY * perClient];
+        AtomicInteger errors = new AtomicInteger();
+        double seconds = runClients(client -> {
+            long[] pair = target.pairs().get(client);
+            for (int i = 0; i < perClient; i++) {
+                long started = System.nanoTime();
+                try {
+                    HttpResponse<String> response = send(target.baseUrl(), "POST", "/api/transactions/transfer",
+                            target.token(), Map.of(
+                                    "sourceAccountId", pair[0],
+                                    "destinationAccountId", pair[1],
+                                    "amount", "1.00",
+                                    "description", "datasource tuning load test"));
+                    if (response.statusCode() != 200) {
+                        errors.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                }
+                latencies[client * perClient + i] = System.nanoTime() - started;
+            }
+        });
+        return Result.of(profile, "transfers", latencies, seconds, errors.get());
+    }
+
+    // Her istemci novbe ile oz menbe hesabinin tarixcesini oxuyur (tarixce olcusu = kocurme sayi)
+    private static Result runHistoryReads(String profile, Target target) throws Exception {
+        int perClient = REQUESTS / CONCURRENCY;
+        long[] latencies = new long[CONCURRENCY * perClient];
+        AtomicInteger errors = new AtomicInteger();
+        double seconds = runClients(client -> {
+            String path = "/api/transactions/transactions/" + target.pairs().get(client)[0];
+            for (int i = 0; i < perClient; i++) {
+                long started = System.nanoTime();
+                try {
+                    HttpResponse<String> response = send(target.baseUrl(), "GET", path, target.token(), null);
+                    if (response.statusCode() != 200 || MAPPER.readTree(response.body()).isEmpty()) {
+                        errors.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                }
+                latencies[client * perClient + i] = System.nanoTime() - started;
+            }
+        });
+        return Result.of(profile, "history", latencies, seconds, errors.get());
+    }
+
+    private static double runClients(Client client) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        long started = System.nanoTime();
+        try {
+            List<Future<?>> running = new ArrayList<>(CONCURRENCY);
+            for (int i = 0; i < CONCURRENCY; i++) {
+                int index = i;
+                running.add(clients.submit(() -> {
+                    client.run(index);
+                    return null;
+                }));
+            }
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } finally {
+            clients.shutdown();
+            clients.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        return (System.nanoTime() - started) / 1_000_000_000.0;
+    }
+
+    private static Result find(List<Result> results, String profile, String workload) {
+        return results.stream()
+                .filter(result -> result.profile().equals(profile) && result.workload().equals(workload))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static HttpResponse<String> send(String baseUrl, String method, String path, String token, Object body)
+            throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)));
+        if (body != null) {
+            request.header("Content-Type", "application/json");
+        }
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return HTTP.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @FunctionalInterface
+    private interface Client {
+        void run(int index) throws Exception;
+    }
+
+    // Her nusxe ucun ayrica istifadeci ve istemci sayi qeder (menbe, hedef) hesab cutu yaradilir
+    private record Target(String baseUrl, String token, List<long[]> pairs) {
+
+        static Target seed(String baseUrl) throws Exception {
+            String username = "tuning_" + UUID.randomUUID().toString().substring(0, 8);
+            HttpResponse<String> registered = send(baseUrl, "POST", "/api/auth/register", null, Map.of(
+                    "username", username,
+                    "email", username + "@example.com",
+                    "password", "Secret123!"));
+            assertEquals(200, registered.statusCode(), registered.body());
+            HttpResponse<String> login = send(baseUrl, "POST", "/api/auth/login", null, Map.of(
+                    "identifier", username,
+                    "password", "Secret123!"));
+            assertEquals(200, login.statusCode(), login.body());
+            String token = MAPPER.readTree(login.body()).get("accessToken").asText();
+
+            for (int i = 0; i < CONCURRENCY; i++) {
+                for (String balance : List.of("1000000.00", "0")) {
+                    HttpResponse<String> created = send(baseUrl, "POST", "/api/accounts/create", token, Map.of(
+                            "username", username,
+                            "accountType", "DEBIT",
+                            "initialBalance", balance));
+                    assertEquals(200, created.statusCode(), created.body());
+                }
+            }
+            HttpResponse<String> accounts = send(baseUrl, "GET", "/api/accounts/" + username, token, null);
+            assertEquals(200, accounts.statusCode(), accounts.body());
+            List<Long> funded = new ArrayList<>();
+            List<Long> empty = new ArrayList<>();
+            for (JsonNode account : MAPPER.readTree(accounts.body())) {
+                (account.get("balance").decimalValue().signum() > 0 ? funded : empty).add(account.get("id").asLong());
+            }
+            assertEquals(CONCURRENCY, funded.size());
+            List<long[]> pairs = new ArrayList<>(CONCURRENCY);
+            for (int i = 0; i < CONCURRENCY; i++) {
+                pairs.add(new long[]{funded.get(i), empty.get(i)});
+            }
+            return new Target(baseUrl, token, pairs);
+        }
+    }
+
+    private record Result(String profile, String workload, double requestsPerSecond, long p50Millis, long p99Millis,
+                          int errors) {
+
+        static Result of(String profile, String workload, long[] latencies, double seconds, int errors) {
+            Arrays.sort(latencies);
+            return new Result(profile, workload, latencies.length / seconds,
+                    latencies[latencies.length / 2] / 1_000_000,
+                    latencies[(int) (latencies.length * 0.99)] / 1_000_000, errors);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.bankdb;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// ./gradlew historyLoadTest ile isleyir; tetbiq ayrica, rate limit sondurulmus qaldirilir.
+// Eyni hesabin tarixcesi bloklayan (JSON massiv) ve NDJSON stream endpoint-lerinden eyni paralellikle oxunur.
+// Yuk muddetinde /actuator/prometheus-dan mesgul Tomcat thread-leri, aktiv JDBC/R2DBC connection-lari ve heap izlenir;
+// endpoint scrape hesabi ile oxunur (load-test.metrics-user/-password, tetbiqde metrics-scrape.*).
+@EnabledIfSystemProperty(named = "load-test.base-url", matches = ".+")
+class HistoryLoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private static final String BASE_URL = System.getProperty("load-test.base-url");
+    private static final int HISTORY_SIZE = Integer.getInteger("load-test.history-size", 2000);
+    private static final int CONCURRENCY = Integer.getInteger("load-test.concurrency", 100);
+    private static final int REQUESTS = Integer.getInteger("load-test.requests", 1000);
+    private static final String METRICS_USER = System.getProperty("load-test.metrics-user", "prometheus");
+    private static final String METRICS_PASSWORD = System.getProperty("load-test.metrics-password", "");
+
+    private static String token;
+    private static long accountId;
+
+    @BeforeAll
+    static void seedHistory() throws Exception {
+        String username = "load_" + UUID.randomUUID().toString().substring(0, 8);
+        HttpResponse<String> registered = send("POST", "/api/auth/register", null, Map.of(
+                "username", username,
+                "email", username + "@example.com",
+                "password", "Secret123!"));
+        assertEquals(200, registered.statusCode(), registered.body());
+        HttpResponse<String> login = send("POST", "/api/auth/login", null, Map.of(
+                "identifier", username,
+                "password", "Secret123!"));
+        assertEquals(200, login.statusCode(), login.body());
+        token = MAPPER.readTree(login.body()).get("accessToken").asText();
+
+        for (String balance : List.of("1000000.00", "0")) {
+            HttpResponse<String> created = send("POST", "/api/accounts/create", token, Map.of(
+                    "username", username,
+                    "accountType", "DEBIT",
+                    "initialBalance", balance));
+            assertEquals(200, created.statusCode(), created.body());
+        }
+        HttpResponse<String> accounts = send("GET", "/api/accounts/" + username, token, null);
+        assertEquals(200, accounts.statusCode(), accounts.body());
+        JsonNode owned = MAPPER.readTree(accounts.body());
+        int funded = owned.get(0).get("balance").decimalValue().signum() > 0 ? 0 : 1;
+        accountId = owned.get(funded).get("id").asLong();
+        long otherAccountId = owned.get(1 - funded).get("id").asLong();
+
+        // Eyni hesabdan paralel kocurmeler optimistic lock ile toqqusardi, ona gore ardicil
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            HttpResponse<String> transfer = send("POST", "/api/transactions/transfer", token, Map.of(
+                    "sourceAccountId", accountId,
+                    "destinationAccountId", otherAccountId,
+                    "amount", "1.00",
+                    "description", "history load test"));
+            assertEquals(200, transfer.statusCode(), transfer.body());
+        }
+    }
+
+    @Test
+    void compareBlockingAndStreamingHistory() throws Exception {
+        Result blocking = run("blocking", "/api/transactions/transactions/" + accountId, false);
+        Result streaming = run("streaming", "/api/transactions/transactions/" + accountId + "/stream", true);
+
+        System.out.printf("%nHistory load test: %d rows per response, %d requests, concurrency %d%n",
+                HISTORY_SIZE + 1, REQUESTS, CONCURRENCY);
+        System.out.printf("%-10s %10s %10s %10s %12s %12s %12s %14s%n",
+                "mode", "req/s", "p50 ms", "p99 ms", "tomcat busy", "jdbc active", "r2dbc acq.", "peak heap MiB");
+        for (Result result : List.of(blocking, streaming)) {
+            System.out.printf("%-10s %10.1f %10d %10d %12.0f %12.0f %12.0f %14.1f%n",
+                    result.mode(), result.requestsPerSecond(), result.p50Millis(), result.p99Millis(),
+                    result.peakBusyThreads(), result.peakJdbcConnections(), result.peakR2dbcConnections(),
+                    result.peakHeapBytes() / (1024.0 * 1024.0));
+        }
+
+        assertEquals(0, blocking.errors(), "Blocking history requests failed");
+        assertEquals(0, streaming.errors(), "Streaming history requests failed");
+        assertEquals(blocking.rowsPerResponse(), streaming.rowsPerResponse(), "Both endpoints must return the same history");
+    }
+
+    private static Result run(String mode, String path, boolean ndjson) throws Exception {
+        MetricsSampler sampler = new MetricsSampler();
+        Thread samplerThread = new Thread(sampler, "history-load-metrics");
+        samplerThread.start();
+
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger rows = new AtomicInteger(-1);
+        long[] latencies = new long[REQUESTS];
+        long started = System.nanoTime();
+        try {
+            List<Future<?>> requests = new ArrayList<>(REQUESTS);
+            for (int i = 0; i < REQUESTS; i++) {
+                int index = i;
+                requests.add(clients.submit(() -> {
+                    long requestStarted = System.nanoTime();
+                    try {
+                        int count = ndjson ? readNdjson(path) : readJsonArray(path);
+                        rows.compareAndSet(-1, count);
+                        if (count < 0 || count != rows.get()) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies[index] = System.nanoTime() - requestStarted;
+                }));
+            }
+            for (Future<?> request : requests) {
+                request.get();
+            }
+        } finally {
+            clients.shutdown();
+            clients.awaitTermination(1, TimeUnit.MINUTES);
+            sampler.stop();
+            samplerThread.join();
+        }
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        Arrays.sort(latencies);
+        return new Result(mode, REQUESTS / seconds,
+                latencies[REQUESTS / 2] / 1_000_000, latencies[(int) (REQUESTS * 0.99)] / 1_000_000,
+                sampler.peakBusyThreads, sampler.peakJdbcConnections, sampler.peakR2dbcConnections, sampler.peakHeapBytes,
+                errors.get(), rows.get());
+    }
+
+    private static int readJsonArray(String path) throws Exception {
+        HttpResponse<InputStream> response = HTTP.send(authorized(path).header("Accept", "application/json").build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            return response.statusCode() == 200 ? MAPPER.readTree(body).size() : -1;
+        }
+    }
+
+    // Setirler gelen kimi oxunur, istemci butun cavabi yaddasda saxlamir
+    private static int readNdjson(String path) throws Exception {
+        HttpResponse<Stream<String>> response = HTTP.send(authorized(path).header("Accept", "application/x-ndjson").build(),
+                HttpResponse.BodyHandlers.ofLines());
+        try (Stream<String> lines = response.body()) {
+            return response.statusCode() == 200 ? (int) lines.filter(line -> !line.isBlank()).count() : -1;
+        }
+    }
+
+    private static HttpRequest.Builder authorized(String path) {
+        return HttpRequest.newBuilder(URI.create(BASE_URL + path))
+                .timeout(Duration.ofMinutes(2))
+                .header("Authorization", "Bearer " + token)
+                .GET();
+    }
+
+    private static HttpResponse<String> send(String method, String path, String token, Object body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(BASE_URL + path))
+                .timeout(Duration.ofSeconds(30))
+                .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)));
+        if (body != null) {
+            request.header("Content-Type", "application/json");
+        }
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return HTTP.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private record Result(String mode, double requestsPerSecond, long p50Millis, long p99Millis,
+                          double peakBusyThreads, double peakJdbcConnections, double peakR2dbcConnections,
+                          double peakHeapBytes, int errors, int rowsPerResponse) {
+    }
+
+    // Prometheus endpoint-i 100 ms-den bir oxunur ve her metrikin pik deyeri saxlanilir
+    private static final class MetricsSampler implements Runnable {
+
+        private final AtomicBoolean running = new AtomicBoolean(true);
+        private volatile double peakBusyThreads;
+        private volatile double peakJdbcConnections;
+        private volatile double peakR2dbcConnections;
+        private volatile double peakHeapBytes;
+
+        void stop() {
+            running.set(false);
+        }
+
+        @Override
+        public void run() {
+            while (running.get()) {
+                try {
+                    sample(scrape());
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    // olcu buraxilir, yuk davam edir
+                }
+            }
+        }
+
+        private String scrape() throws Exception {
+            String credentials = Base64.getEncoder().encodeToString(
+                    (METRICS_USER + ":" + METRICS_PASSWORD).getBytes(StandardCharsets.UTF_8));
+            HttpResponse<String> response = HTTP.send(HttpRequest.newBuilder(URI.create(BASE_URL + "/actuator/prometheus"))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Authorization", "Basic " + credentials)
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Prometheus scrape failed: " + response.statusCode());
+            }
+            return response.body();
+        }
+
+        private void sample(String metrics) {
+            double busy = 0;
+            double jdbc = 0;
+            double r2dbc = 0;
+            double heap = 0;
+            for (String line : metrics.split("\n")) {
+                if (line.startsWith("#") || line.isBlank()) {
+                    continue;
+                }
+                double value = Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+                if (line.startsWith("tomcat_threads_busy_threads")) {
+                    busy += value;
+                } else if (line.startsWith("hikaricp_connections_active")) {
+                    jdbc += value;
+                } else if (line.startsWith("bank_r2dbc_connections_acquired")) {
+                    r2dbc += value;
+                } else if (line.startsWith("jvm_memory_used_bytes") && line.contains("area=\"heap\"")) {
+                    heap += value;
+                }
+            }
+            peakBusyThreads = Math.max(peakBusyThreads, busy);
+            peakJdbcConnections = Math.max(peakJdbcConnections, jdbc);
+            peakR2dbcConnections = Math.max(peakR2dbcConnections, r2dbc);
+            peakHeapBytes = Math.max(peakHeapBytes, heap);
+        }
+    }
+}
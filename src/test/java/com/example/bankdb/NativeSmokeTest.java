@@ -0,0 +1,151 @@
+package com.example.bankdb;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// ./gradlew nativeSmokeTest ile isleyir; native binary lokal PostgreSQL-e qosulur.
+@EnabledIfSystemProperty(named = "native.binary", matches = ".+")
+class NativeSmokeTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final HttpClient HTTP = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    private static Process app;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void startNativeBinary() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        baseUrl = "http://localhost:" + port;
+        ProcessBuilder builder = new ProcessBuilder(System.getProperty("native.binary"), "--server.port=" + port)
+                .inheritIO();
+        // Kart acarlari muhitde verilmeyibse smoke test ucun birdefelik acarlar
+        builder.environment().putIfAbsent("CARD_PAN_HMAC_KEY", randomKey());
+        builder.environment().putIfAbsent("CARD_PAN_ENCRYPTION_KEY", randomKey());
+        app = builder.start();
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (System.nanoTime() < deadline) {
+            assertTrue(app.isAlive(), "Native binary exited during startup");
+            try {
+                if (send("GET", "/actuator/health", null, null).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // hele port acilmayib
+            }
+            Thread.sleep(100);
+        }
+        fail("Native binary did not become healthy within 30 seconds");
+    }
+
+    private static String randomKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return Base64.getEncoder().encodeToString(key);
+    }
+
+    @AfterAll
+    static void stopNativeBinary() throws InterruptedException {
+        if (app != null) {
+            app.destroy();
+            app.waitFor();
+        }
+    }
+
+    @Test
+    void loginTransferAndHistory() throws Exception {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        String alice = "alice_" + suffix;
+        String bob = "bob_" + suffix;
+
+        register(bob);
+        register(alice);
+        String token = login(alice);
+
+        Long aliceAccount = createAccount(token, alice, "100.00");
+        Long bobAccount = createAccount(login(bob), bob, "0");
+
+        HttpResponse<String> transfer = send("POST", "/api/transactions/transfer", token, Map.of(
+                "sourceAccountId", aliceAccount,
+                "destinationAccountId", bobAccount,
+                "amount", "40.00",
+                "description", "native smoke test"));
+        assertEquals(200, transfer.statusCode(), transfer.body());
+
+        HttpResponse<String> history = send("GET", "/api/transactions/transactions/" + aliceAccount, token, null);
+        assertEquals(200, history.statusCode(), history.body());
+        JsonNode entries = MAPPER.readTree(history.body());
+        assertEquals(2, entries.size(), "Opening deposit and transfer expected");
+        assertEquals("TRANSFER", entries.get(0).get("transactionType").asText());
+
+        HttpResponse<String> balance = send("GET", "/api/accounts/" + aliceAccount + "/balance", token, null);
+        assertEquals(200, balance.statusCode(), balance.body());
+        assertEquals(0, MAPPER.readTree(balance.body()).get("balance").decimalValue().compareTo(new BigDecimal("60.00")));
+    }
+
+    private static void register(String username) throws Exception {
+        HttpResponse<String> response = send("POST", "/api/auth/register", null, Map.of(
+                "username", username,
+                "email", username + "@example.com",
+                "password", "Secret123!"));
+        assertEquals(200, response.statusCode(), response.body());
+    }
+
+    private static String login(String username) throws Exception {
+        HttpResponse<String> response = send("POST", "/api/auth/login", null, Map.of(
+                "identifier", username,
+                "password", "Secret123!"));
+        assertEquals(200, response.statusCode(), response.body());
+        return MAPPER.readTree(response.body()).get("accessToken").asText();
+    }
+
+    private static Long createAccount(String token, String username, String initialBalance) throws Exception {
+        HttpResponse<String> created = send("POST", "/api/accounts/create", token, Map.of(
+                "username", username,
+                "accountType", "DEBIT",
+                "initialBalance", initialBalance));
+        assertEquals(200, created.statusCode(), created.body());
+
+        HttpResponse<String> accounts = send("GET", "/api/accounts/" + username, token, null);
+        assertEquals(200, accounts.statusCode(), accounts.body());
+        return MAPPER.readTree(accounts.body()).get(0).get("id").asLong();
+    }
+
+    private static HttpResponse<String> send(String method, String path, String token, Object body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(10))
+                .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)));
+        if (body != null) {
+            request.header("Content-Type", "application/json");
+        }
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return HTTP.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.bankdb;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// ./gradlew panLookupLoadTest ile isleyir; tetbiqin miqrasiyalari tetbiq olunmus bos (test) bazaya qosulur.
+// cards (ve card_secrets) cedveline milyon kart yazilir, PAN ile axtaris fingerprint unikal indeksi uzre tek probe
+// kimi olculur. Nomre bazada sifrelidir (AES-GCM, tesadufi IV), ona gore fingerprint-siz alternativ son 4 reqem
+// uzre namizedlerin tapilib desifre edilmesidir; o da muqayise ucun olculur. Yazilan setirler sonda silinir.
+@EnabledIfSystemProperty(named = "load-test.jdbc-url", matches = ".+")
+class PanLookupLoadTest {
+
+    private static final String JDBC_URL = System.getProperty("load-test.jdbc-url");
+    private static final String JDBC_USER = System.getProperty("load-test.jdbc-user", "postgres");
+    private static final String JDBC_PASSWORD = System.getProperty("load-test.jdbc-password", "");
+    private static final int CARD_COUNT = Integer.getInteger("load-test.card-count", 1_000_000);
+    private static final int PROBES = Integer.getInteger("load-test.probes", 10_000);
+    private static final int SCAN_PROBES = Integer.getInteger("load-test.scan-probes", 20);
+    private static final int BATCH_SIZE = 10_000;
+
+    private static final String LAST_FOUR_SQL = "SELECT c.id, s.pan_ciphertext FROM cards c "
+            + "JOIN card_secrets s ON s.card_id = c.id WHERE c.last_four = ?";
+
+    private static final String SEED_PREFIX = "probe_" + UUID.randomUUID().toString().substring(0, 8);
+
+    private static Connection connection;
+    private static Mac hmac;
+    private static SecretKeySpec panKey;
+    private static long userId;
+    private static long accountId;
+
+    @BeforeAll
+    static void seedCards() throws Exception {
+        connection = DriverManager.getConnection(JDBC_URL, JDBC_USER, JDBC_PASSWORD);
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        hmac = Mac.getInstance("HmacSHA256");
+        hmac.init(new SecretKeySpec(key, "HmacSHA256"));
+        byte[] encryptionKey = new byte[32];
+        new SecureRandom().nextBytes(encryptionKey);
+        panKey = new SecretKeySpec(encryptionKey, "AES");
+
+        userId = insertReturningId("INSERT INTO users (username, email, role, password) VALUES ('" + SEED_PREFIX
+                + "', '" + SEED_PREFIX + "@example.com', 'USER', 'x') RETURNING id");
+        accountId = insertReturningId("INSERT INTO bank_accounts (account_number, balance, is_locked, currency_type, "
+                + "account_type, user_id) VALUES ('" + SEED_PREFIX + "', 0, false, 'AZN', 'DEBIT', " + userId + ") RETURNING id");
+
+        long started = System.nanoTime();
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "WITH card AS (INSERT INTO cards (expiry_date, account_id, pan_fingerprint, pan_token, last_four) "
+                        + "VALUES ('12/30', ?, ?, ?, ?) RETURNING id) "
+                        + "INSERT INTO card_secrets (card_id, pan_ciphertext) SELECT id, ? FROM card")) {
+            for (int i = 0; i < CARD_COUNT; i++) {
+                String pan = pan(i);
+                insert.setLong(1, accountId);
+                insert.setString(2, fingerprint(pan));
+                insert.setString(3, SEED_PREFIX + "_" + i);
+                insert.setString(4, pan.substring(pan.length() - 4));
+                insert.setString(5, encrypt(pan));
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE cards");
+            statement.execute("ANALYZE card_secrets");
+        }
+        System.out.printf("%nSeeded %d cards in %.1f s%n", CARD_COUNT, (System.nanoTime() - started) / 1_000_000_000.0);
+    }
+
+    @AfterAll
+    static void dropCards() throws Exception {
+        if (connection == null) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM cards WHERE account_id = " + accountId);
+            statement.executeUpdate("DELETE FROM bank_accounts WHERE id = " + accountId);
+            statement.executeUpdate("DELETE FROM users WHERE id = " + userId);
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Test
+    void panLookupIsSingleIndexProbe() throws Exception {
+        String plan = explain("EXPLAIN SELECT id FROM cards WHERE pan_fingerprint = '" + fingerprint(pan(CARD_COUNT / 2)) + "'");
+        String scanPlan = explain(LAST_FOUR_SQL.replace("?", "'" + pan(CARD_COUNT / 2).substring(12) + "'"));
+
+        long[] indexed = probe(PROBES);
+        long[] scanned = decryptingProbe(SCAN_PROBES);
+
+        System.out.printf("%nPAN lookup over %d cards%n", CARD_COUNT);
+        System.out.printf("%-22s %8s %10s %10s %10s%n", "lookup", "probes", "p50 us", "p99 us", "max us");
+        print("fingerprint (index)", indexed);
+        print("last four + decrypt", scanned);
+        System.out.printf("%nfingerprint plan:%n%s%nlast four plan:%n%s%n", plan, scanPlan);
+
+        assertTrue(plan.contains("Index"), "Fingerprint lookup must use the unique index:\n" + plan);
+        assertFalse(plan.contains("Seq Scan"), "Fingerprint lookup must not scan the table:\n" + plan);
+    }
+
+    // Fingerprint hesablanmasi da olcuye daxildir, cunki tetbiq her sorguda onu hesablayir
+    private static long[] probe(int probes) throws Exception {
+        long[] latencies = new long[probes];
+        try (PreparedStatement select = connection.prepareStatement("SELECT id FROM cards WHERE pan_fingerprint = ?")) {
+            for (int i = 0; i < probes; i++) {
+                String pan = pan(ThreadLocalRandom.current().nextInt(CARD_COUNT));
+                long started = System.nanoTime();
+                select.setString(1, fingerprint(pan));
+                int rows = 0;
+                try (ResultSet result = select.executeQuery()) {
+                    while (result.next()) {
+                        rows++;
+                    }
+                }
+                latencies[i] = System.nanoTime() - started;
+                assertEquals(1, rows, "Exactly one card must match " + pan);
+            }
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    // Son 4 reqemi eyni olan butun kartlar oxunur ve her biri desifre edilib muqayise olunur
+    private static long[] decryptingProbe(int probes) throws Exception {
+        long[] latencies = new long[probes];
+        try (PreparedStatement select = connection.prepareStatement(LAST_FOUR_SQL)) {
+            for (int i = 0; i < probes; i++) {
+                String pan = pan(ThreadLocalRandom.current().nextInt(CARD_COUNT));
+                long started = System.nanoTime();
+                select.setString(1, pan.substring(pan.length() - 4));
+                int rows = 0;
+                try (ResultSet result = select.executeQuery()) {
+                    while (result.next()) {
+                        if (decrypt(result.getString(2)).equals(pan)) {
+                            rows++;
+                        }
+                    }
+                }
+                latencies[i] = System.nanoTime() - started;
+                assertEquals(1, rows, "Exactly one card must match " + pan);
+            }
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static void print(String name, long[] latencies) {
+        System.out.printf("%-22s %8d %10d %10d %10d%n", name, latencies.length,
+                latencies[latencies.length / 2] / 1_000,
+                latencies[(int) (latencies.length * 0.99)] / 1_000,
+                latencies[latencies.length - 1] / 1_000);
+    }
+
+    private static String explain(String sql) throws Exception {
+        StringBuilder plan = new StringBuilder();
+        try (Statement statement = connection.createStatement(); ResultSet result = statement.executeQuery(sql)) {
+            while (result.next()) {
+                plan.append(result.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    private static long insertReturningId(String sql) throws Exception {
+        try (Statement statement = connection.createStatement(); ResultSet result = statement.executeQuery(sql)) {
+            assertTrue(result.next());
+            return result.getLong(1);
+        }
+    }
+
+    // Real kartlarla toqqusmayan sintetik 16 reqemli nomreler
+    private static String pan(int index) {
+        return String.format("90%014d", index);
+    }
+
+    private static String encrypt(String pan) throws Exception {
+        byte[] iv = new byte[12];
+        ThreadLocalRandom.current().nextBytes(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, panKey, new GCMParameterSpec(128, iv));
+        byte[] encrypted = cipher.doFinal(pan.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + encrypted.length)
+                .put(iv).put(encrypted).array());
+    }
+
+    private static String decrypt(String ciphertext) throws Exception {
+        byte[] stored = Base64.getDecoder().decode(ciphertext);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, panKey, new GCMParameterSpec(128, stored, 0, 12));
+        return new String(cipher.doFinal(stored, 12, stored.length - 12), StandardCharsets.US_ASCII);
+    }
+
+    private static String fingerprint(String pan) {
+        return HexFormat.of().formatHex(hmac.doFinal(pan.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.bankdb;
+
+import com.example.bankdb.model.entity.BankAccount;
+import com.example.bankdb.model.entity.User;
+import com.example.bankdb.model.entity.enums.AccountType;
+import com.example.bankdb.model.entity.enums.CurrencyType;
+import com.example.bankdb.model.entity.enums.Role;
+import com.example.bankdb.monitoring.QueryBudget;
+import com.example.bankdb.repository.BankAccountRepository;
+import com.example.bankdb.repository.UserRepository;
+import com.example.bankdb.service.TransactionService;
+import com.example.bankdb.service.UserDeletionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Tarixce endpoint-i (@QueryBudget(10)) qarsi teref sayindan asili olmayaraq budce daxilinde qalmalidir
+// (build.gradle testlerde fail-on-budget-exceeded-i aktiv edir, budce asilsa sorgu 500 ile dayanir).
+// Mexanizmin ozu budcesi 2 olan sintetik endpoint uzerinde yoxlanilir.
+@SpringBootTest(properties = {
+        "sql-trace.enabled=true",
+        "sql-trace.fail-on-budget-exceeded=true",
+        "rate-limit.enabled=false"
+})
+@AutoConfigureMockMvc
+@Import(QueryBudgetTests.QueryBudgetProbeController.class)
+class QueryBudgetTests {
+
+    private static final int COUNTERPARTIES = 12;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private UserDeletionService userDeletionService;
+
+    private User user;
+    private BankAccount account;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        user = new User();
+        user.setUsername("budget-" + suffix);
+        user.setEmail("budget-" + suffix + "@example.com");
+        user.setPassword("x");
+        user.setRole(Role.USER);
+        user = userRepository.save(user);
+
+        account = saveAccount("AZB" + suffix, BigDecimal.ZERO);
+        for (int i = 0; i < COUNTERPARTIES; i++) {
+            BankAccount counterparty = saveAccount("AZB" + suffix + "-" + i, new BigDecimal("100.00"));
+            transactionService.transfer(counterparty.getId(), account.getId(), BigDecimal.ONE, "budget test");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        userDeletionService.deleteNow(user.getId());
+    }
+
+    @Test
+    void historyStaysWithinQueryBudgetRegardlessOfCounterparties() throws Exception {
+        mockMvc.perform(get("/api/transactions/transactions/{accountId}", account.getId())
+                        .with(user(user.getUsername()).roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(COUNTERPARTIES));
+    }
+
+    @Test
+    void endpointWithinBudgetSucceeds() throws Exception {
+        mockMvc.perform(get("/test/query-budget").param("queries", "2")
+                        .with(user(user.getUsername()).roles("USER")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void endpointOverBudgetFailsTheRequest() throws Exception {
+        mockMvc.perform(get("/test/query-budget").param("queries", "3")
+                        .with(user(user.getUsername()).roles("USER")))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.message", containsString("Query budget exceeded")))
+                .andExpect(jsonPath("$.message", containsString("3 > 2")));
+    }
+
+    private BankAccount saveAccount(String accountNumber, BigDecimal balance) {
+        BankAccount created = new BankAccount();
+        created.setAccountNumber(accountNumber);
+        created.setBalance(balance);
+        created.setAccountType(AccountType.DEBIT);
+        created.setCurrencyType(CurrencyType.AZN);
+        created.setOwner(user);
+        return bankAccountRepository.save(created);
+    }
+
+    // Istenilen sayda SQL statement icra eden, budcesi 2 olan endpoint
+    @RestController
+    static class QueryBudgetProbeController {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        QueryBudgetProbeController(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @QueryBudget(2)
+        @GetMapping("/test/query-budget")
+        int run(@RequestParam int queries) {
+            for (int i = 0; i < queries; i++) {
+                jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            }
+            return queries;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.bankdb;
+
+import com.example.bankdb.model.dto.CreateCardRequest;
+import com.example.bankdb.model.entity.BankAccount;
+import com.example.bankdb.model.entity.Card;
+import com.example.bankdb.model.entity.CardSecret;
+import com.example.bankdb.model.entity.User;
+import com.example.bankdb.model.entity.enums.AccountType;
+import com.example.bankdb.model.entity.enums.CurrencyType;
+import com.example.bankdb.model.entity.enums.Role;
+import com.example.bankdb.monitoring.RequestQueryStats;
+import com.example.bankdb.repository.BankAccountRepository;
+import com.example.bankdb.repository.CardRepository;
+import com.example.bankdb.repository.CardSecretRepository;
+import com.example.bankdb.repository.UserRepository;
+import com.example.bankdb.service.BankAccountService;
+import com.example.bankdb.service.CardService;
+import com.example.bankdb.service.CustomUserDetailsService;
+import com.example.bankdb.service.PanEncryptionService;
+import com.example.bankdb.service.UserDeletionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Kart siyahisi ve JWT filter-in istifadeci axtarisi ikinci cagirisda bazaya getmemelidir;
+// hesab siyahisinda ise yalniz balansli hesab setirleri yeniden oxunur.
+@SpringBootTest
+class SecondLevelCacheTests {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private CardSecretRepository cardSecretRepository;
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private PanEncryptionService panEncryptionService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BankAccountService bankAccountService;
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+    @Autowired
+    private UserDeletionService userDeletionService;
+
+    private Statistics statistics;
+    private User user;
+    private BankAccount account;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        user = new User();
+        user.setUsername("cache-" + suffix);
+        user.setEmail("cache-" + suffix + "@example.com");
+        user.setPassword("x");
+        user.setRole(Role.USER);
+        user = userRepository.save(user);
+
+        account = new BankAccount();
+        account.setAccountNumber("AZ" + suffix);
+        account.setBalance(BigDecimal.ZERO);
+        account.setAccountType(AccountType.DEBIT);
+        account.setCurrencyType(CurrencyType.AZN);
+        account.setOwner(user);
+        account = bankAccountRepository.save(account);
+
+        for (int i = 0; i < 3; i++) {
+            Card card = new Card();
+            card.setLastFour("000" + i);
+            card.setPanToken(UUID.randomUUID().toString());
+            card.setExpiryDate("12/30");
+            card.setLinkedAccount(account);
+            cardRepository.save(card);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        userDeletionService.deleteNow(user.getId());
+    }
+
+    @Test
+    void cardListIsServedFromCacheOnRepeatedReads() {
+        int coldQueries = queriesOf(() -> cardService.getCardsByAccount(account.getId()));
+        long hitsBefore = statistics.getQueryCacheHitCount();
+        int warmQueries = queriesOf(() -> assertEquals(3, cardService.getCardsByAccount(account.getId()).size()));
+
+        assertTrue(coldQueries > 0);
+        assertEquals(0, warmQueries);
+        assertTrue(statistics.getQueryCacheHitCount() > hitsBefore);
+    }
+
+    @Test
+    void userLookupIsServedFromCacheOnRepeatedReads() {
+        int coldQueries = queriesOf(() -> userDetailsService.loadUserByUsername(user.getUsername()));
+        long hitsBefore = statistics.getSecondLevelCacheHitCount();
+        int warmQueries = queriesOf(() -> assertEquals(user.getId(),
+                ((User) userDetailsService.loadUserByUsername(user.getUsername())).getId()));
+
+        assertTrue(coldQueries > 0);
+        assertEquals(0, warmQueries);
+        assertTrue(statistics.getSecondLevelCacheHitCount() > hitsBefore);
+    }
+
+    @Test
+    void cardWriteInvalidatesCachedList() {
+        cardService.getCardsByAccount(account.getId());
+
+        Card card = new Card();
+        card.setLastFour("0009");
+        card.setPanToken(UUID.randomUUID().toString());
+        card.setExpiryDate("12/30");
+        card.setLinkedAccount(account);
+        cardRepository.save(card);
+
+        assertEquals(4, cardService.getCardsByAccount(account.getId()).size());
+    }
+
+    @Test
+    void accountListReadsOnlyAccountRowsOnRepeatedReads() {
+        int coldQueries = queriesOf(() -> bankAccountService.getAccountDtosByUsername(user.getUsername()));
+        long hitsBefore = statistics.getSecondLevelCacheHitCount();
+        int warmQueries = queriesOf(() -> assertEquals(3,
+                bankAccountService.getAccountDtosByUsername(user.getUsername()).get(0).getCards().size()));
+
+        // Istifadeci, hesabin kart siyahisi ve kartlar kesden gelir; balans kese qoyulmur
+        assertTrue(coldQueries > warmQueries);
+        assertEquals(1, warmQueries);
+        assertTrue(statistics.getSecondLevelCacheHitCount() > hitsBefore);
+    }
+
+    @Test
+    void cardWriteInvalidatesCachedAccountCards() {
+        bankAccountService.getAccountDtosByUsername(user.getUsername());
+
+        Card card = new Card();
+        card.setLastFour("0009");
+        card.setPanToken(UUID.randomUUID().toString());
+        card.setExpiryDate("12/30");
+        card.setLinkedAccount(account);
+        cardRepository.save(card);
+
+        assertEquals(4, bankAccountService.getAccountDtosByUsername(user.getUsername()).get(0).getCards().size());
+    }
+
+    @Test
+    void cachedCardHoldsNoRawCardData() {
+        BankAccount second = new BankAccount();
+        second.setAccountNumber("AZ2-" + user.getUsername());
+        second.setBalance(BigDecimal.ZERO);
+        second.setAccountType(AccountType.DEBIT);
+        second.setCurrencyType(CurrencyType.AZN);
+        second.setOwner(user);
+        second = bankAccountRepository.save(second);
+
+        CreateCardRequest request = new CreateCardRequest();
+        request.setAccountId(second.getId());
+        request.setCardNumber(randomCardNumber());
+        request.setExpiryDate(LocalDate.of(2030, 12, 31));
+        cardService.createCard(request, user.getEmail());
+
+        Long cardId = cardService.getCardsByAccount(second.getId()).get(0).getId();
+        assertTrue(entityManagerFactory.getCache().contains(Card.class, cardId));
+        assertFalse(entityManagerFactory.getCache().contains(CardSecret.class, cardId));
+        // Bazadaki deyer sifreli metndir: xam nomre oxunmur, yalniz acarla desifre olunur
+        String stored = jdbcTemplate.queryForObject(
+                "SELECT pan_ciphertext FROM card_secrets WHERE card_id = ?", String.class, cardId);
+        assertTrue(stored.startsWith("v1:"), stored);
+        assertFalse(stored.contains(request.getCardNumber()));
+        assertEquals(stored, cardSecretRepository.findById(cardId).orElseThrow().getPanCiphertext());
+        assertEquals(request.getCardNumber(), panEncryptionService.decrypt(stored));
+        assertFalse(Arrays.stream(CardSecret.class.getDeclaredFields())
+                .map(Field::getName)
+                .anyMatch(name -> name.equals("cardNumber") || name.equals("cvv")));
+        assertTrue(Arrays.stream(Card.class.getDeclaredFields())
+                .map(Field::getName)
+                .noneMatch(name -> name.equals("cardNumber") || name.equals("cvv")));
+    }
+
+    // Luhn yoxlamasindan kecen tesadufi 16 reqemli nomre (fingerprint unikal indeksi ile toqqusmasin)
+    private static String randomCardNumber() {
+        StringBuilder digits = new StringBuilder("9");
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (digits.length() < 15) {
+            digits.append(random.nextInt(10));
+        }
+        int sum = 0;
+        for (int i = 0; i < 15; i++) {
+            int digit = digits.charAt(14 - i) - '0';
+            if (i % 2 == 0) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+        }
+        return digits.append((10 - sum % 10) % 10).toString();
+    }
+
+    // SqlTraceListener cari thread-in sorgularini sayir, fon tapsiriqlarinin sorgulari qarismir
+    private static int queriesOf(Runnable action) {
+        RequestQueryStats stats = RequestQueryStats.start("second-level-cache-test");
+        try {
+            action.run();
+            return stats.getQueryCount();
+        } finally {
+            RequestQueryStats.clear();
+        }
+    }
+}
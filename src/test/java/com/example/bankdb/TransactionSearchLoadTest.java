@@ -0,0 +1,148 @@
+package com.example.bankdb;
+
+import com.example.bankdb.model.dto.TransactionDto;
+import com.example.bankdb.model.dto.TransactionPageDto;
+import com.example.bankdb.service.TransactionSearchService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// ./gradlew transactionSearchLoadTest ile isleyir; miqrasiyalari tetbiq olunmus ayrica benchmark bazasina qosulur.
+// transaction cedveli load-test.ledger-rows (standart 50M) setre qeder server terefde generate_series ile doldurulur
+// (trigram ve (timestamp, id) indeksleri insert zamani yenilenir, ilk doldurma uzun cekir) ve setirler saxlanilir,
+// novbeti isledilmede yeniden istifade olunur. Sorgular TransactionSearchService-in ozu ile icra olunur.
+@EnabledIfSystemProperty(named = "load-test.jdbc-url", matches = ".+")
+class TransactionSearchLoadTest {
+
+    private static final String JDBC_URL = System.getProperty("load-test.jdbc-url");
+    private static final String JDBC_USER = System.getProperty("load-test.jdbc-user", "postgres");
+    private static final String JDBC_PASSWORD = System.getProperty("load-test.jdbc-password", "");
+    private static final long LEDGER_ROWS = Long.getLong("load-test.ledger-rows", 50_000_000L);
+    private static final int QUERIES = Integer.getInteger("load-test.queries", 200);
+    private static final long MAX_P99_MILLIS = Long.getLong("load-test.max-p99-ms", 100);
+    private static final long SEED_CHUNK = 1_000_000;
+
+    // Setir i ucun tesvir iki sozden ve nomreden qurulur, timestamp ise i saniye evvel
+    private static final String[] VERBS = {"payment", "transfer", "refund", "salary", "invoice", "rent",
+            "grocery", "utility", "insurance", "tuition", "subscription", "donation"};
+    private static final String[] NOUNS = {"alpha", "baku", "caspian", "delta", "ganja", "harbor", "lenkeran",
+            "mingachevir", "nakhchivan", "quba", "shaki", "sumgait", "zaqatala", "khazar", "absheron", "goychay"};
+    private static final LocalDateTime SEED_END = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionSearchService searchService;
+
+    @BeforeAll
+    static void seedLedger() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(JDBC_URL, JDBC_USER, JDBC_PASSWORD);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        searchService = new TransactionSearchService(dataSource, 30);
+
+        long existing = jdbcTemplate.queryForObject("SELECT count(*) FROM transaction", Long.class);
+        long started = System.nanoTime();
+        for (long from = existing + 1; from <= LEDGER_ROWS; from += SEED_CHUNK) {
+            long to = Math.min(from + SEED_CHUNK - 1, LEDGER_ROWS);
+            jdbcTemplate.update("""
+                    INSERT INTO transaction (amount, description, transaction_type, timestamp)
+                    SELECT ((i * 7919) % 100000) / 100.0,
+                           (?::text[])[1 + i % ?] || ' ' || (?::text[])[1 + (i / ?) % ?] || ' #' || i,
+                           'TRANSFER',
+                           ?::timestamp - i * interval '1 second'
+                    FROM generate_series(?::bigint, ?::bigint) AS i
+                    """,
+                    "{" + String.join(",", VERBS) + "}", VERBS.length,
+                    "{" + String.join(",", NOUNS) + "}", VERBS.length, NOUNS.length,
+                    SEED_END, from, to);
+            System.out.printf("Seeded ledger rows up to %d%n", to);
+        }
+        if (existing < LEDGER_ROWS) {
+            jdbcTemplate.execute("ANALYZE transaction");
+            System.out.printf("Seeded %d rows in %.1f min%n", LEDGER_ROWS - existing,
+                    (System.nanoTime() - started) / 60_000_000_000.0);
+        }
+    }
+
+    @Test
+    void searchStaysUnderLatencyTarget() {
+        Random random = new Random(11);
+        List<Result> results = new ArrayList<>();
+
+        results.add(measure("description", () -> searchService.search(
+                NOUNS[random.nextInt(NOUNS.length)], null, null, null, null, null, null, 50)));
+        results.add(measure("description+30d", () -> {
+            LocalDateTime to = SEED_END.minusDays(random.nextInt(500));
+            return searchService.search(VERBS[random.nextInt(VERBS.length)] + " " + NOUNS[random.nextInt(NOUNS.length)],
+                    null, null, to.minusDays(30), to, null, null, 50);
+        }));
+        results.add(measure("description+amount", () -> {
+            BigDecimal min = BigDecimal.valueOf(random.nextInt(900));
+            return searchService.search(NOUNS[random.nextInt(NOUNS.length)],
+                    min, min.add(BigDecimal.valueOf(50)), null, null, null, null, 50);
+        }));
+        results.add(measure("date range 1d", () -> {
+            LocalDateTime to = SEED_END.minusDays(random.nextInt(500));
+            return searchService.search(null, null, null, to.minusDays(1), to, null, null, 200);
+        }));
+        results.add(measure("page 10 (keyset)", () -> {
+            String term = NOUNS[random.nextInt(NOUNS.length)];
+            TransactionPageDto page = searchService.search(term, null, null, null, null, null, null, 50);
+            for (int i = 1; i < 10 && page.getNextBeforeId() != null; i++) {
+                TransactionDto last = page.getTransactions().get(page.getTransactions().size() - 1);
+                TransactionPageDto next = searchService.search(term, null, null, null, null,
+                        page.getNextBeforeTimestamp(), page.getNextBeforeId(), 50);
+                if (!next.getTransactions().isEmpty()) {
+                    TransactionDto first = next.getTransactions().get(0);
+                    assertTrue(first.getTimestamp().isBefore(last.getTimestamp())
+                            || (first.getTimestamp().equals(last.getTimestamp()) && first.getId() < last.getId()),
+                            "Pages must not overlap");
+                }
+                page = next;
+            }
+            return page;
+        }));
+
+        System.out.printf("%nTransaction search over %d ledger rows, %d queries per scenario (page 10: per 10 pages)%n",
+                LEDGER_ROWS, QUERIES);
+        System.out.printf("%-20s %10s %10s %10s%n", "scenario", "p50 ms", "p99 ms", "max ms");
+        for (Result result : results) {
+            System.out.printf("%-20s %10.1f %10.1f %10.1f%n", result.name(), result.p50Millis(), result.p99Millis(), result.maxMillis());
+        }
+        for (Result result : results) {
+            if (!result.name().startsWith("page")) {
+                assertTrue(result.p99Millis() < MAX_P99_MILLIS,
+                        result.name() + " p99 " + result.p99Millis() + " ms exceeds " + MAX_P99_MILLIS + " ms");
+            }
+        }
+    }
+
+    private static Result measure(String name, Supplier<TransactionPageDto> query) {
+        // Isinma: plan ve bufer kesi
+        for (int i = 0; i < 10; i++) {
+            query.get();
+        }
+        long[] latencies = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long started = System.nanoTime();
+            query.get();
+            latencies[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(latencies);
+        return new Result(name, latencies[QUERIES / 2] / 1e6, latencies[(int) (QUERIES * 0.99)] / 1e6,
+                latencies[QUERIES - 1] / 1e6);
+    }
+
+    private record Result(String name, double p50Millis, double p99Millis, double maxMillis) {
+    }
+}
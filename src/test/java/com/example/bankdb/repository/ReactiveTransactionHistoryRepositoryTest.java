@@ -0,0 +1,46 @@
+package com.example.bankdb.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveTransactionHistoryRepositoryTest {
+
+    @Test
+    void urlWithoutParametersOnlyChangesTheScheme() {
+        assertEquals("r2dbc:postgresql://localhost:5432/bank_db",
+                ReactiveTransactionHistoryRepository.toR2dbcUrl("jdbc:postgresql://localhost:5432/bank_db"));
+    }
+
+    @Test
+    void sslAndSchemaParametersAreTranslated() {
+        assertEquals("r2dbc:postgresql://db:5432/bank_db?sslMode=require&schema=ledger&applicationName=bank-db",
+                ReactiveTransactionHistoryRepository.toR2dbcUrl(
+                        "jdbc:postgresql://db:5432/bank_db?sslmode=require&currentSchema=ledger&ApplicationName=bank-db"));
+        assertEquals("r2dbc:postgresql://db/bank_db?sslMode=verify-full&sslRootCert=/certs/root.crt",
+                ReactiveTransactionHistoryRepository.toR2dbcUrl(
+                        "jdbc:postgresql://db/bank_db?sslMode=verify-full&sslrootcert=/certs/root.crt"));
+    }
+
+    // pgjdbc-de sslmode-suz ssl=true sertifikati da yoxlayir
+    @Test
+    void sslFlagMapsToSslModeUnlessSslModeIsGiven() {
+        assertEquals("r2dbc:postgresql://db/bank_db?sslMode=verify-full",
+                ReactiveTransactionHistoryRepository.toR2dbcUrl("jdbc:postgresql://db/bank_db?ssl=true"));
+        assertEquals("r2dbc:postgresql://db/bank_db?sslMode=verify-full",
+                ReactiveTransactionHistoryRepository.toR2dbcUrl("jdbc:postgresql://db/bank_db?ssl"));
+        assertEquals("r2dbc:postgresql://db/bank_db?sslMode=require",
+                ReactiveTransactionHistoryRepository.toR2dbcUrl("jdbc:postgresql://db/bank_db?ssl=true&sslmode=require"));
+        assertEquals("r2dbc:postgresql://db/bank_db?sslMode=disable",
+                ReactiveTransactionHistoryRepository.toR2dbcUrl("jdbc:postgresql://db/bank_db?ssl=false"));
+    }
+
+    @Test
+    void connectTimeoutBecomesDurationAndUnknownParametersAreDropped() {
+        assertEquals("r2dbc:postgresql://db/bank_db?connectTimeout=PT10S&schema=public",
+                ReactiveTransactionHistoryRepository.toR2dbcUrl(
+                        "jdbc:postgresql://db/bank_db?connectTimeout=10&reWriteBatchedInserts=true&currentSchema=public"));
+        assertEquals("r2dbc:postgresql://db/bank_db",
+                ReactiveTransactionHistoryRepository.toR2dbcUrl("jdbc:postgresql://db/bank_db?prepareThreshold=3&"));
+    }
+}
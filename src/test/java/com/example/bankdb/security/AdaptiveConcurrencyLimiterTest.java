@@ -0,0 +1,204 @@
+package com.example.bankdb.security;
+
+import com.example.bankdb.security.AdaptiveConcurrencyLimiter.Priority;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long WAIT_FOREVER = TimeUnit.SECONDS.toNanos(30);
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void admitsUpToTheLimitAndShedsWithoutWaitTime() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(3, 1, 10, 2, 2);
+
+        assertTrue(limiter.acquire(Priority.READ, 0));
+        assertTrue(limiter.acquire(Priority.WRITE, 0));
+        assertTrue(limiter.acquire(Priority.READ, 0));
+        assertFalse(limiter.acquire(Priority.READ, 0));
+        assertFalse(limiter.acquire(Priority.WRITE, 0));
+        assertEquals(3, limiter.getInFlight());
+        assertEquals(0, limiter.getQueued(Priority.READ));
+
+        limiter.release(-1);
+        assertTrue(limiter.acquire(Priority.WRITE, 0));
+        assertEquals(3, limiter.getInFlight());
+    }
+
+    @Test
+    void fullQueueShedsImmediatelyPerPriority() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 1, 1);
+        assertTrue(limiter.acquire(Priority.READ, 0));
+        CompletableFuture<Boolean> queuedRead = acquireAsync(limiter, Priority.READ, WAIT_FOREVER);
+        awaitCondition(() -> limiter.getQueued(Priority.READ) == 1);
+
+        long started = System.nanoTime();
+        assertFalse(limiter.acquire(Priority.READ, WAIT_FOREVER));
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(1), "full queue must not wait");
+
+        // READ novbesinin dolmasi WRITE novbesine tesir etmir
+        CompletableFuture<Boolean> queuedWrite = acquireAsync(limiter, Priority.WRITE, WAIT_FOREVER);
+        awaitCondition(() -> limiter.getQueued(Priority.WRITE) == 1);
+        assertFalse(limiter.acquire(Priority.WRITE, WAIT_FOREVER));
+
+        limiter.release(-1);
+        assertTrue(queuedRead.get(5, TimeUnit.SECONDS));
+        limiter.release(-1);
+        assertTrue(queuedWrite.get(5, TimeUnit.SECONDS));
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    void queuedRequestIsShedWhenItsWaitExpires() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 4, 4);
+        assertTrue(limiter.acquire(Priority.WRITE, 0));
+
+        long started = System.nanoTime();
+        assertFalse(limiter.acquire(Priority.READ, 50 * MILLIS));
+        assertTrue(System.nanoTime() - started >= 50 * MILLIS);
+        assertEquals(0, limiter.getQueued(Priority.READ));
+        assertEquals(1, limiter.getInFlight());
+
+        // Vaxti bitmis gozleyen sonraki bosalan yeri tutmur
+        limiter.release(-1);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    // Hem READ, hem WRITE gozleyende her READS_PER_WRITE (4) READ-den sonra bir WRITE buraxilir
+    @Test
+    void freedSlotsPreferReadsButLetAWriteThroughEveryFourReads() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 10, 10);
+        assertTrue(limiter.acquire(Priority.READ, 0));
+        List<String> granted = Collections.synchronizedList(new ArrayList<>());
+
+        List<String> labels = List.of("W1", "R1", "R2", "R3", "R4", "R5", "W2", "R6");
+        for (String label : labels) {
+            Priority priority = label.startsWith("R") ? Priority.READ : Priority.WRITE;
+            int queuedBefore = limiter.getQueued(priority);
+            acquireAsync(limiter, priority, WAIT_FOREVER).thenAccept(ok -> {
+                if (ok) {
+                    granted.add(label);
+                }
+            });
+            awaitCondition(() -> limiter.getQueued(priority) == queuedBefore + 1);
+        }
+
+        for (int i = 1; i <= labels.size(); i++) {
+            limiter.release(-1);
+            int expected = i;
+            awaitCondition(() -> granted.size() == expected);
+        }
+
+        assertEquals(List.of("R1", "R2", "R3", "R4", "W1", "R5", "R6", "W2"), granted);
+    }
+
+    // Gozleyene yer verilib, amma o lock-u geri almamisdan evvel interrupt olunub (acquire-in catch budagi):
+    // yer itmemeli, novbedeki novbeti gozleyene kecmelidir
+    @Test
+    void slotGrantedToAnInterruptedWaiterPassesToTheNextWaiter() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 4, 4);
+        ReentrantLock lock = (ReentrantLock) ReflectionTestUtils.getField(limiter, "lock");
+        assertTrue(limiter.acquire(Priority.READ, 0));
+
+        CompletableFuture<Boolean> interrupted = new CompletableFuture<>();
+        Thread first = new Thread(() -> {
+            try {
+                interrupted.complete(limiter.acquire(Priority.READ, WAIT_FOREVER));
+            } catch (InterruptedException e) {
+                interrupted.completeExceptionally(e);
+            }
+        });
+        first.start();
+        awaitCondition(() -> limiter.getQueued(Priority.READ) == 1);
+        CompletableFuture<Boolean> next = acquireAsync(limiter, Priority.READ, WAIT_FOREVER);
+        awaitCondition(() -> limiter.getQueued(Priority.READ) == 2);
+
+        lock.lock();
+        try {
+            // Interrupt olunmus gozleyen lock-u gozleyir; yer ona bu an verilir
+            first.interrupt();
+            awaitCondition(() -> lock.hasQueuedThread(first));
+            limiter.release(-1);
+            assertEquals(1, limiter.getInFlight());
+            assertEquals(1, limiter.getQueued(Priority.READ));
+        } finally {
+            lock.unlock();
+        }
+
+        first.join(5_000);
+        assertTrue(interrupted.isCompletedExceptionally(), "interrupted waiter must throw");
+        assertTrue(next.get(5, TimeUnit.SECONDS), "the slot must pass to the next waiter");
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(0, limiter.getQueued(Priority.READ));
+    }
+
+    @Test
+    void limitShrinksWhileLatencyRisesAndRecoversAfterwards() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 5, 40, 10, 10);
+
+        // Sabit gecikme ve az yuk: limit deyismir (yarisi bos olan limit artirilmir)
+        for (int i = 0; i < 200; i++) {
+            assertTrue(limiter.acquire(Priority.READ, 0));
+            limiter.release(10 * MILLIS);
+        }
+        assertEquals(20.0, limiter.getLimit());
+
+        double previous = limiter.getLimit();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.acquire(Priority.READ, 0));
+            limiter.release((10 + i) * MILLIS);
+            assertTrue(limiter.getLimit() <= previous, "limit must not grow while RTT rises");
+            previous = limiter.getLimit();
+        }
+        assertTrue(limiter.getLimit() < 10, "limit " + limiter.getLimit() + " must shrink under rising RTT");
+        assertTrue(limiter.getLimit() >= 5);
+
+        // Gecikme normala qayidir ve limit tam istifade olunur: limit yeniden boyuyur
+        double shrunk = limiter.getLimit();
+        for (int round = 0; round < 50; round++) {
+            int held = 0;
+            while (limiter.acquire(Priority.READ, 0)) {
+                held++;
+            }
+            for (int i = 0; i < held; i++) {
+                limiter.release(10 * MILLIS);
+            }
+        }
+        assertTrue(limiter.getLimit() > shrunk, "limit must recover once RTT is back to normal");
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    private static CompletableFuture<Boolean> acquireAsync(AdaptiveConcurrencyLimiter limiter, Priority priority,
+                                                           long maxWaitNanos) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                result.complete(limiter.acquire(priority, maxWaitNanos));
+            } catch (InterruptedException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return result;
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached in time");
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.bankdb.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    @Test
+    void ipv4AddressIsKeptAsIs() {
+        assertEquals("203.0.113.7", RateLimitFilter.clientAddress("203.0.113.7"));
+    }
+
+    @Test
+    void ipv6AddressesInTheSameSlash64ShareAKey() {
+        String key = RateLimitFilter.clientAddress("2001:db8:85a3:12::1");
+        assertEquals("2001:db8:85a3:12::/64", key);
+        assertEquals(key, RateLimitFilter.clientAddress("2001:0db8:85a3:0012:ffff:abcd:0:9"));
+        assertNotEquals(key, RateLimitFilter.clientAddress("2001:db8:85a3:13::1"));
+    }
+
+    @Test
+    void ipv4MappedIpv6AddressUsesTheIpv4Address() {
+        assertEquals("203.0.113.7", RateLimitFilter.clientAddress("::ffff:203.0.113.7"));
+        assertEquals("0:0:0:0::/64", RateLimitFilter.clientAddress("::1"));
+    }
+}
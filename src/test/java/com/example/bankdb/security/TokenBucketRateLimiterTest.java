@@ -0,0 +1,61 @@
+package com.example.bankdb.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void admitsBurstThenAsksToWait() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 60, 10);
+        assertEquals(0, limiter.tryAcquire("a", 0));
+        assertEquals(0, limiter.tryAcquire("a", 0));
+        assertEquals(0, limiter.tryAcquire("a", 0));
+        assertEquals(SECOND, limiter.tryAcquire("a", 0));
+        assertEquals(0, limiter.tryAcquire("a", SECOND));
+    }
+
+    @Test
+    void bucketCountNeverExceedsMaxBuckets() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 60, 4, Runnable::run);
+        for (int i = 0; i < 1000; i++) {
+            limiter.tryAcquire("ip:" + i, 0);
+        }
+        assertEquals(4, limiter.size());
+    }
+
+    // Dolu xeritede yeni acar kohne bucket-i cixarir, basqa acarin limitine dusmur
+    @Test
+    void newKeysGetTheirOwnBucketWhenFull() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 60, 2, Runnable::run);
+        assertEquals(0, limiter.tryAcquire("a", 0));
+        assertEquals(0, limiter.tryAcquire("b", 0));
+        assertEquals(0, limiter.tryAcquire("c", 0));
+        assertEquals(0, limiter.tryAcquire("d", 0));
+        assertEquals(0, limiter.tryAcquire("e", 0));
+        assertEquals(2, limiter.size());
+    }
+
+    @Test
+    void evictionFreesSlotsForNewKeys() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 60, 1, Runnable::run);
+        assertEquals(0, limiter.tryAcquire("a", 0));
+        // "a"-nin TAT-i kecib, bucket tam doludur
+        assertEquals(1, limiter.evictIdle(2 * SECOND));
+        assertEquals(0, limiter.tryAcquire("b", 2 * SECOND));
+        assertEquals(1, limiter.size());
+        assertTrue(limiter.tryAcquire("b", 2 * SECOND) > 0);
+    }
+
+    @Test
+    void scheduledEvictionRemovesOnlyIdleBuckets() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 60, 10);
+        limiter.tryAcquire("a", 0);
+        limiter.tryAcquire("b", 5 * SECOND);
+        assertEquals(1, limiter.evictIdle(2 * SECOND));
+        assertEquals(1, limiter.size());
+    }
+}
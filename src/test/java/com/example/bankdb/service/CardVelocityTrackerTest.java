@@ -0,0 +1,126 @@
+package com.example.bankdb.service;
+
+import com.example.bankdb.exception.VelocityLimitExceededException;
+import com.example.bankdb.service.CardVelocityTracker.Admission;
+import com.example.bankdb.service.CardVelocityTracker.CardWindow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardVelocityTrackerTest {
+
+    private static final int BUCKETS = 4;
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void countLimitAppliesAcrossBucketsOfTheWindow() {
+        CardWindow window = new CardWindow(BUCKETS);
+        assertEquals(Admission.ADDED, window.tryAdd(10, 100, 3, 10_000));
+        assertEquals(Admission.ADDED, window.tryAdd(11, 100, 3, 10_000));
+        assertEquals(Admission.ADDED, window.tryAdd(13, 100, 3, 10_000));
+        assertEquals(Admission.LIMIT_EXCEEDED, window.tryAdd(13, 100, 3, 10_000));
+    }
+
+    @Test
+    void amountLimitIncludesTheNewSpend() {
+        CardWindow window = new CardWindow(BUCKETS);
+        assertEquals(Admission.ADDED, window.tryAdd(10, 600, 10, 1000));
+        assertEquals(Admission.LIMIT_EXCEEDED, window.tryAdd(10, 401, 10, 1000));
+        assertEquals(Admission.ADDED, window.tryAdd(10, 400, 10, 1000));
+    }
+
+    @Test
+    void bucketsOlderThanTheWindowExpire() {
+        CardWindow window = new CardWindow(BUCKETS);
+        assertEquals(Admission.ADDED, window.tryAdd(10, 1000, 10, 1000));
+        // 13: pencere [10, 13], 10-cu bucket hele sayilir
+        assertEquals(Admission.LIMIT_EXCEEDED, window.tryAdd(13, 1, 10, 1000));
+        // 14: pencere [11, 14], 10-cu bucket cixib
+        assertEquals(Admission.ADDED, window.tryAdd(14, 1000, 10, 1000));
+    }
+
+    @Test
+    void slotIsResetWhenTheRingRollsOver() {
+        CardWindow window = new CardWindow(BUCKETS);
+        assertEquals(Admission.ADDED, window.tryAdd(10, 500, 2, 1000));
+        assertEquals(Admission.ADDED, window.tryAdd(10, 500, 2, 1000));
+        // 14 eyni slotu (14 % 4 == 10 % 4) tutur, kohne sayaclar sifirlanir
+        assertEquals(Admission.ADDED, window.tryAdd(14, 500, 2, 1000));
+        assertEquals(Admission.ADDED, window.tryAdd(14, 500, 2, 1000));
+        assertEquals(Admission.LIMIT_EXCEEDED, window.tryAdd(14, 1, 2, 1000));
+    }
+
+    @Test
+    void lateSpendForAnOverwrittenSlotIsDropped() {
+        CardWindow window = new CardWindow(BUCKETS);
+        window.add(14, 500);
+        assertTrue(window.add(10, 500));
+        assertEquals(Admission.ADDED, window.tryAdd(14, 500, 10, 1000));
+        assertEquals(Admission.LIMIT_EXCEEDED, window.tryAdd(14, 1, 10, 1000));
+    }
+
+    @Test
+    void removeReleasesTheReservation() {
+        CardWindow window = new CardWindow(BUCKETS);
+        assertEquals(Admission.ADDED, window.tryAdd(10, 1000, 1, 1000));
+        assertEquals(Admission.LIMIT_EXCEEDED, window.tryAdd(10, 1, 1, 1000));
+        window.remove(10, 1000);
+        assertEquals(Admission.ADDED, window.tryAdd(10, 1000, 1, 1000));
+    }
+
+    @Test
+    void evictedWindowRefusesNewSpends() {
+        CardWindow window = new CardWindow(BUCKETS);
+        window.add(10, 100);
+        assertFalse(window.evictIfIdle(10));
+        assertTrue(window.evictIfIdle(11));
+        assertEquals(Admission.EVICTED, window.tryAdd(20, 100, 10, 1000));
+        assertFalse(window.add(20, 100));
+    }
+
+    @Test
+    void rollbackReleasesReservedAmount() {
+        CardVelocityTracker tracker = tracker(1, "100.00");
+        TransactionSynchronizationManager.initSynchronization();
+        tracker.reserve(1L, new BigDecimal("100.00"));
+        assertThrows(VelocityLimitExceededException.class, () -> tracker.reserve(1L, BigDecimal.ONE));
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertDoesNotThrow(() -> tracker.reserve(1L, new BigDecimal("100.00")));
+    }
+
+    @Test
+    void evictionDoesNotLoseReservationsOfActiveCards() {
+        CardVelocityTracker tracker = tracker(1, "100.00");
+        tracker.reserve(1L, new BigDecimal("100.00"));
+        tracker.evictIdleCards();
+        assertThrows(VelocityLimitExceededException.class, () -> tracker.reserve(1L, BigDecimal.ONE));
+    }
+
+    private static CardVelocityTracker tracker(int maxCount, String maxAmount) {
+        CardVelocityTracker tracker = new CardVelocityTracker(null);
+        ReflectionTestUtils.setField(tracker, "enabled", true);
+        ReflectionTestUtils.setField(tracker, "windowMinutes", 60L);
+        ReflectionTestUtils.setField(tracker, "bucketCount", BUCKETS);
+        ReflectionTestUtils.setField(tracker, "maxCount", maxCount);
+        ReflectionTestUtils.setField(tracker, "maxAmount", new BigDecimal(maxAmount));
+        tracker.init();
+        return tracker;
+    }
+}
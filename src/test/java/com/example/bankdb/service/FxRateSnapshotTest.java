@@ -0,0 +1,38 @@
+package com.example.bankdb.service;
+
+import com.example.bankdb.model.entity.ExchangeRate;
+import com.example.bankdb.model.entity.enums.CurrencyType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FxRateSnapshotTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    void eachDirectionQuotesItsOwnRow() {
+        FxRateSnapshot snapshot = FxRateSnapshot.of(List.of(
+                new ExchangeRate(7L, CurrencyType.USD, CurrencyType.AZN, new BigDecimal("1.70"), NOW, null),
+                new ExchangeRate(8L, CurrencyType.AZN, CurrencyType.USD, new BigDecimal("0.5882352941176471"), NOW, 7L)));
+
+        assertEquals(new FxRateSnapshot.Quote(7L, new BigDecimal("1.70")),
+                snapshot.quote(CurrencyType.USD, CurrencyType.AZN));
+        assertEquals(new FxRateSnapshot.Quote(8L, new BigDecimal("0.5882352941176471")),
+                snapshot.quote(CurrencyType.AZN, CurrencyType.USD));
+        assertSame(FxRateSnapshot.IDENTITY, snapshot.quote(CurrencyType.AZN, CurrencyType.AZN));
+    }
+
+    // Ters setri olmayan istiqamet ucun forward setrin id-si ile kurs uydurulmur
+    @Test
+    void missingDirectionHasNoQuote() {
+        FxRateSnapshot snapshot = FxRateSnapshot.of(List.of(
+                new ExchangeRate(7L, CurrencyType.USD, CurrencyType.AZN, new BigDecimal("1.70"), NOW, null)));
+
+        assertNull(snapshot.quote(CurrencyType.AZN, CurrencyType.USD));
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.bankdb.service;
+
+import com.example.bankdb.model.dto.PostingDto;
+import com.example.bankdb.model.dto.TransactionDto;
+import com.example.bankdb.util.LedgerArchiveFile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerArchiveServiceTest {
+
+    private static final String NAME = "ledger-0000000000000001000-0000000000000001009";
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 12, 0);
+    private static final int DELETE_BATCH_SIZE = 4;
+
+    @TempDir
+    Path directory;
+
+    // Bazaya gonderilen her DELETE batch-inin emeliyyat id-leri
+    private final List<List<Long>> deletedBatches = new ArrayList<>();
+    private LedgerArchiveService service;
+
+    @BeforeEach
+    void createService() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            public int update(PreparedStatementCreator creator) {
+                try {
+                    creator.createPreparedStatement(recordingConnection());
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+                return deletedBatches.get(deletedBatches.size() - 1).size();
+            }
+        };
+        PlatformTransactionManager transactionManager = new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+        service = new LedgerArchiveService(jdbcTemplate, transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "directory", directory);
+        ReflectionTestUtils.setField(service, "chunkRows", 4);
+        ReflectionTestUtils.setField(service, "deleteBatchSize", DELETE_BATCH_SIZE);
+    }
+
+    @Test
+    void pendingMarkerWithWrittenFileDeletesItsTransactions() throws IOException {
+        Path marker = Files.createFile(directory.resolve(NAME + ".lca.pending"));
+        Path target = directory.resolve(NAME + ".lca");
+        LedgerArchiveFile.write(target, transfers(), 4);
+
+        service.completePendingArchives();
+
+        List<Long> deleted = deletedBatches.stream().flatMap(List::stream).toList();
+        assertEquals(List.of(1000L, 1001L, 1002L, 1003L, 1004L, 1005L, 1006L, 1007L, 1008L, 1009L), deleted);
+        assertTrue(deletedBatches.stream().allMatch(batch -> batch.size() <= DELETE_BATCH_SIZE));
+        assertEquals(3, deletedBatches.size());
+        assertFalse(Files.exists(marker));
+        assertTrue(Files.exists(target));
+    }
+
+    @Test
+    void pendingMarkerWithoutFileIsDroppedWithoutDeleting() throws IOException {
+        Path marker = Files.createFile(directory.resolve(NAME + ".lca.pending"));
+
+        service.completePendingArchives();
+
+        assertTrue(deletedBatches.isEmpty());
+        assertFalse(Files.exists(marker));
+    }
+
+    // Oxunmayan fayl ucun marker qalir: novbeti isledilmede silme yeniden cehd olunur, setirler itmir
+    @Test
+    void pendingMarkerIsKeptWhenTheFileCannotBeRead() throws IOException {
+        Path marker = Files.createFile(directory.resolve(NAME + ".lca.pending"));
+        Files.write(directory.resolve(NAME + ".lca"), new byte[]{1, 2, 3});
+
+        service.completePendingArchives();
+
+        assertTrue(deletedBatches.isEmpty());
+        assertTrue(Files.exists(marker));
+    }
+
+    @Test
+    void loadedFilesServeHistoryPostingsAndBalance() throws IOException {
+        LedgerArchiveFile.write(directory.resolve(NAME + ".lca"), transfers(), 4);
+        Files.createFile(directory.resolve("ledger-0000000000000002000-0000000000000002001.lca.pending"));
+        service.loadFiles();
+
+        assertTrue(service.mayContain(1));
+        assertTrue(service.mayContain(2));
+        assertFalse(service.mayContain(3));
+
+        List<TransactionDto> history = service.findTransactions(1);
+        assertEquals(10, history.size());
+        assertEquals(1009L, history.get(0).getId().longValue());
+        assertEquals(1000L, history.get(history.size() - 1).getId().longValue());
+        assertEquals("TRANSFER", history.get(0).getTransactionType());
+
+        List<PostingDto> postings = service.findPostings(2, START.plusDays(2), START.plusDays(5));
+        assertEquals(List.of(1002L, 1003L, 1004L), postings.stream().map(PostingDto::getTransactionId).toList());
+        assertTrue(postings.stream().allMatch(posting -> posting.getAmount().signum() > 0));
+
+        assertEquals(Optional.of(new BigDecimal("970.00")), service.findBalanceBefore(1, START.plusDays(3)));
+        assertEquals(Optional.empty(), service.findBalanceBefore(1, START));
+        assertTrue(service.findTransactions(3).isEmpty());
+    }
+
+    // Hesab 1-den hesab 2-ye gunde bir 10.00 kocurme; her emeliyyatin iki posting-i var
+    private static List<LedgerArchiveFile.Row> transfers() {
+        List<LedgerArchiveFile.Row> rows = new ArrayList<>();
+        for (long account : new long[]{1, 2}) {
+            for (int day = 0; day < 10; day++) {
+                long transactionId = 1000 + day;
+                BigDecimal amount = new BigDecimal(account == 1 ? "-10.00" : "10.00");
+                BigDecimal balanceAfter = account == 1
+                        ? new BigDecimal("1000.00").subtract(BigDecimal.TEN.multiply(BigDecimal.valueOf(day + 1)))
+                        : BigDecimal.TEN.multiply(BigDecimal.valueOf(day + 1)).setScale(2);
+                rows.add(new LedgerArchiveFile.Row(transactionId * 2 + (account == 1 ? 0 : 1), account,
+                        START.plusDays(day), amount, balanceAfter.setScale(2), transactionId, new BigDecimal("10.00"),
+                        null, null, "rent " + day, 1L, 2L, null, null, "TRANSFER"));
+            }
+        }
+        return rows;
+    }
+
+    // Yalniz DELETE ... ANY (?) ucun lazim olan hisse: createArrayOf-a verilen id-ler yazilir
+    private Connection recordingConnection() {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "prepareStatement" -> Proxy.newProxyInstance(getClass().getClassLoader(),
+                            new Class<?>[]{PreparedStatement.class}, (statement, call, callArgs) -> null);
+                    case "createArrayOf" -> {
+                        deletedBatches.add(Arrays.stream((Object[]) args[1]).map(Long.class::cast).toList());
+                        yield null;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
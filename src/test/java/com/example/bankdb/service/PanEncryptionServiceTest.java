@@ -0,0 +1,70 @@
+package com.example.bankdb.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PanEncryptionServiceTest {
+
+    private static final String ENCRYPTION_KEY = "3JMmQFyxYQ8yzHyoM4U5YY8hRQA92FxED/gXb1x9wWE=";
+    private static final String HMAC_KEY = "KO73wrBz8OGBO7WbnbI6GUO/reEE4rw7qWX7K0Ya4vQ=";
+    private static final String PAN = "4111111111111111";
+
+    private PanEncryptionService service;
+
+    @BeforeEach
+    void createService() {
+        service = newService(ENCRYPTION_KEY, HMAC_KEY);
+    }
+
+    @Test
+    void encryptedPanRoundTripsAndIsNotReadable() {
+        String ciphertext = service.encrypt(PAN);
+
+        assertTrue(ciphertext.startsWith("v1:"));
+        assertFalse(ciphertext.contains(PAN));
+        assertFalse(ciphertext.contains(PAN.substring(12)));
+        assertEquals(PAN, service.decrypt(ciphertext));
+    }
+
+    // Tesadufi IV: eyni nomrenin sifreli metnleri ferqlidir (bazada nomre uzre uygunlasdirma mumkun deyil)
+    @Test
+    void sameNumberEncryptsDifferentlyEachTime() {
+        assertNotEquals(service.encrypt(PAN), service.encrypt(PAN));
+    }
+
+    @Test
+    void tamperedCiphertextIsRejected() {
+        byte[] stored = Base64.getDecoder().decode(service.encrypt(PAN).substring(3));
+        stored[stored.length - 1] ^= 1;
+        String tampered = "v1:" + Base64.getEncoder().encodeToString(stored);
+
+        assertThrows(IllegalStateException.class, () -> service.decrypt(tampered));
+        assertThrows(IllegalArgumentException.class, () -> service.decrypt(PAN));
+    }
+
+    @Test
+    void otherKeyCannotDecrypt() {
+        PanEncryptionService other = newService(HMAC_KEY, ENCRYPTION_KEY);
+
+        assertThrows(IllegalStateException.class, () -> other.decrypt(service.encrypt(PAN)));
+    }
+
+    @Test
+    void keyMustBe256BitsAndDifferFromTheHmacKey() {
+        assertThrows(IllegalStateException.class, () -> newService("c2hvcnQ=", HMAC_KEY));
+        assertThrows(IllegalStateException.class, () -> newService(ENCRYPTION_KEY, ENCRYPTION_KEY));
+    }
+
+    private static PanEncryptionService newService(String encryptionKey, String hmacKey) {
+        PanEncryptionService created = new PanEncryptionService();
+        ReflectionTestUtils.setField(created, "panEncryptionKey", encryptionKey);
+        ReflectionTestUtils.setField(created, "panHmacKey", hmacKey);
+        created.init();
+        return created;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.bankdb.service;
+
+import com.example.bankdb.exception.AccountLockedException;
+import com.example.bankdb.exception.AccountNotFoundException;
+import com.example.bankdb.exception.InsufficientFundsException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionSystemException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StandingOrderSchedulerTest {
+
+    @Test
+    void lockAndTimeoutFailuresAreRetriedWithinThePeriod() {
+        assertTrue(StandingOrderScheduler.isTransient(new ObjectOptimisticLockingFailureException("BankAccount", 1L)));
+        assertTrue(StandingOrderScheduler.isTransient(new CannotAcquireLockException("lock timeout")));
+        assertTrue(StandingOrderScheduler.isTransient(new QueryTimeoutException("statement timeout")));
+        assertTrue(StandingOrderScheduler.isTransient(new CannotCreateTransactionException("pool exhausted")));
+        // Commit zamani sarilmis kecici xeta da taninir
+        assertTrue(StandingOrderScheduler.isTransient(
+                new TransactionSystemException("commit failed", new CannotAcquireLockException("deadlock"))));
+    }
+
+    @Test
+    void businessRejectionsAdvanceAndOtherFailuresDoNot() {
+        assertFalse(StandingOrderScheduler.isTransient(new InsufficientFundsException("Insufficient funds")));
+        assertTrue(StandingOrderScheduler.isBusinessRejection(new InsufficientFundsException("Insufficient funds")));
+        assertTrue(StandingOrderScheduler.isBusinessRejection(new AccountNotFoundException("closed")));
+        assertTrue(StandingOrderScheduler.isBusinessRejection(new AccountLockedException("locked")));
+
+        DataIntegrityViolationException integrity = new DataIntegrityViolationException("check_violation");
+        assertFalse(StandingOrderScheduler.isTransient(integrity));
+        assertFalse(StandingOrderScheduler.isBusinessRejection(integrity));
+        assertFalse(StandingOrderScheduler.isBusinessRejection(new IllegalStateException("bug")));
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.bankdb.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    // 10 ms tick, 8 yuva: birinci seviyye 80 ms, ikinci 640 ms, ucuncu 5120 ms ehate edir
+    private static final long TICK = 10;
+    private static final int WHEEL_SIZE = 8;
+
+    @Test
+    void itemFiresOnceItsSlotHasPassed() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, WHEEL_SIZE, 0);
+        wheel.schedule("a", 25);
+        List<String> fired = new ArrayList<>();
+
+        assertEquals(0, wheel.advance(25, fired::add));
+        assertEquals(0, wheel.advance(29, fired::add));
+        assertEquals(1, wheel.advance(30, fired::add));
+        assertEquals(List.of("a"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void alreadyExpiredItemFiresOnNextAdvance() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, WHEEL_SIZE, 1000);
+        wheel.schedule("late", 500);
+        assertEquals(1, wheel.size());
+
+        List<String> fired = new ArrayList<>();
+        assertEquals(1, wheel.advance(1000, fired::add));
+        assertEquals(List.of("late"), fired);
+        assertEquals(0, wheel.advance(1000, fired::add));
+    }
+
+    @Test
+    void itemsBeyondFirstLevelCascadeDown() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, WHEEL_SIZE, 0);
+        long[] deadlines = {100, 700, 5_000, 40_000};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+
+        Map<Long, Long> firedAt = runTicks(wheel, 41_000);
+
+        assertEquals(deadlines.length, firedAt.size());
+        for (long deadline : deadlines) {
+            assertFiredInSlot(deadline, firedAt.get(deadline));
+        }
+    }
+
+    @Test
+    void cascadeAtLevelBoundaries() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, WHEEL_SIZE, 0);
+        long[] deadlines = {79, 80, 81, 639, 640, 641, 5_119, 5_120, 5_121};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+
+        Map<Long, Long> firedAt = runTicks(wheel, 6_000);
+
+        assertEquals(deadlines.length, firedAt.size());
+        for (long deadline : deadlines) {
+            assertFiredInSlot(deadline, firedAt.get(deadline));
+        }
+    }
+
+    @Test
+    void unalignedStartDoesNotFireEarly() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, WHEEL_SIZE, 1_005);
+        long[] deadlines = {1_005, 1_085, 1_645, 6_125};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+
+        Map<Long, Long> firedAt = new HashMap<>();
+        for (long now = 1_005; now <= 7_000; now++) {
+            long at = now;
+            wheel.advance(now, item -> assertNull(firedAt.put(item, at), "fired twice: " + item));
+        }
+
+        assertEquals(deadlines.length, firedAt.size());
+        for (long deadline : deadlines) {
+            assertFiredInSlot(deadline, firedAt.get(deadline));
+        }
+    }
+
+    // Tesadufi muddetler ve tesadufi addimlarla: her element bir defe, vaxtindan evvel deyil ve
+    // yuvasi bitdikden sonraki ilk advance-da cixir
+    @Test
+    void randomScheduleFiresEveryItemOnceAndNeverEarly() {
+        Random random = new Random(7);
+        long start = 123_457;
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(TICK, WHEEL_SIZE, start);
+        int items = 5_000;
+        long[] deadlines = new long[items];
+        for (int i = 0; i < items; i++) {
+            deadlines[i] = start - 50 + random.nextInt(60_000);
+            wheel.schedule(i, deadlines[i]);
+        }
+
+        long[] firedAt = new long[items];
+        long[] previousAdvance = new long[items];
+        long previous = start;
+        long now = start;
+        int fired = 0;
+        while (now < start + 61_000) {
+            now += 1 + random.nextInt(3 * (int) TICK);
+            long at = now;
+            long before = previous;
+            fired += wheel.advance(now, item -> {
+                assertEquals(0, firedAt[item], "fired twice: " + item);
+                firedAt[item] = at;
+                previousAdvance[item] = before;
+            });
+            previous = now;
+        }
+
+        assertEquals(items, fired);
+        assertEquals(0, wheel.size());
+        for (int i = 0; i < items; i++) {
+            long deadline = deadlines[i];
+            assertTrue(firedAt[i] >= deadline, "item " + i + " fired early");
+            if (deadline >= start - Math.floorMod(start, TICK)) {
+                assertTrue(previousAdvance[i] < slotEnd(deadline), "item " + i + " fired late");
+            }
+        }
+    }
+
+    @Test
+    void itemScheduledDuringAdvanceIsKept() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, WHEEL_SIZE, 0);
+        wheel.schedule("first", 15);
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(20, item -> {
+            fired.add(item);
+            if (item.equals("first")) {
+                wheel.schedule("second", 500);
+            }
+        });
+        assertEquals(1, wheel.size());
+
+        Map<String, Long> firedAt = runTicks(wheel, 600);
+        assertEquals(List.of("first"), fired);
+        assertFiredInSlot(500, firedAt.get("second"));
+    }
+
+    private static <T> Map<T, Long> runTicks(HierarchicalTimingWheel<T> wheel, long until) {
+        Map<T, Long> firedAt = new HashMap<>();
+        for (long now = 0; now <= until; now += TICK) {
+            long at = now;
+            wheel.advance(now, item -> assertNull(firedAt.put(item, at), "fired twice: " + item));
+        }
+        return firedAt;
+    }
+
+    private static void assertFiredInSlot(long deadline, Long firedAt) {
+        assertNotNull(firedAt, "never fired: " + deadline);
+        assertTrue(firedAt >= deadline, "fired early: " + deadline + " at " + firedAt);
+        assertTrue(firedAt <= slotEnd(deadline), "fired late: " + deadline + " at " + firedAt);
+    }
+
+    private static long slotEnd(long deadline) {
+        return deadline - Math.floorMod(deadline, TICK) + TICK;
+    }
+}
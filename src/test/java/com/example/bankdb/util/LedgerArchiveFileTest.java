@@ -0,0 +1,188 @@
+package com.example.bankdb.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerArchiveFileTest {
+
+    // 3 hesab x 250 setir, 100 setirlik chunk-lar: 8 chunk, biri iki hesabi birlesdirir
+    private static final long[] ACCOUNTS = {10, 20, 30};
+    private static final int ROWS_PER_ACCOUNT = 250;
+    private static final int CHUNK_ROWS = 100;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writeThenOpenReturnsEveryRowAcrossChunkBoundaries() throws IOException {
+        List<LedgerArchiveFile.Row> rows = ledger();
+        LedgerArchiveFile written = LedgerArchiveFile.write(directory.resolve("ledger.lca"), rows, CHUNK_ROWS);
+
+        LedgerArchiveFile opened = LedgerArchiveFile.open(directory.resolve("ledger.lca"));
+        List<LedgerArchiveFile.Row> read = new ArrayList<>();
+        opened.forEach(read::add);
+
+        assertEquals(rows, read);
+        assertEquals(rows.size(), opened.rowCount());
+        assertEquals(8, opened.chunks().size());
+        assertEquals(written.chunks(), opened.chunks());
+        assertFalse(Files.exists(directory.resolve("ledger.lca.tmp")));
+    }
+
+    @Test
+    void emptyFileRoundTrips() throws IOException {
+        LedgerArchiveFile.write(directory.resolve("empty.lca"), List.of(), CHUNK_ROWS);
+
+        LedgerArchiveFile opened = LedgerArchiveFile.open(directory.resolve("empty.lca"));
+        assertEquals(0, opened.rowCount());
+        assertFalse(opened.mayContain(10, null, null));
+    }
+
+    @Test
+    void scanReturnsOnlyTheAccountWithinTheHalfOpenRange() throws IOException {
+        List<LedgerArchiveFile.Row> rows = ledger();
+        LedgerArchiveFile file = LedgerArchiveFile.write(directory.resolve("ledger.lca"), rows, CHUNK_ROWS);
+        LocalDateTime from = START.plusHours(50);
+        LocalDateTime to = START.plusHours(180);
+
+        List<LedgerArchiveFile.Row> scanned = new ArrayList<>();
+        file.scan(20, from, to, scanned::add);
+
+        List<LedgerArchiveFile.Row> expected = rows.stream()
+                .filter(row -> row.accountId() == 20)
+                .filter(row -> !row.postedAt().isBefore(from) && row.postedAt().isBefore(to))
+                .toList();
+        assertEquals(130, expected.size());
+        assertEquals(expected, scanned);
+
+        List<LedgerArchiveFile.Row> unbounded = new ArrayList<>();
+        file.scan(30, null, null, unbounded::add);
+        assertEquals(rows.stream().filter(row -> row.accountId() == 30).toList(), unbounded);
+    }
+
+    @Test
+    void chunkStatsPruneAccountsAndTimesOutsideTheFile() throws IOException {
+        LedgerArchiveFile file = LedgerArchiveFile.write(directory.resolve("ledger.lca"), ledger(), CHUNK_ROWS);
+        LocalDateTime last = START.plusHours(ROWS_PER_ACCOUNT - 1).plusNanos((ROWS_PER_ACCOUNT - 1) * 1_000L);
+
+        assertTrue(file.mayContain(20, null, null));
+        assertFalse(file.mayContain(5, null, null));
+        assertFalse(file.mayContain(40, null, null));
+        assertFalse(file.mayContain(20, null, START));
+        assertTrue(file.mayContain(20, null, START.plusNanos(1_000)));
+        assertTrue(file.mayContain(20, last, null));
+        assertFalse(file.mayContain(20, last.plusNanos(1_000), null));
+
+        List<LedgerArchiveFile.Row> scanned = new ArrayList<>();
+        file.scan(40, null, null, scanned::add);
+        assertTrue(scanned.isEmpty());
+    }
+
+    // Sorguya aid olmayan chunk oxunmur: hesab 10-un chunk-u pozulsa da hesab 30 oxunur, hesab 10 ise xeta verir
+    @Test
+    void scanReadsOnlyChunksWhoseStatsOverlap() throws IOException {
+        LedgerArchiveFile file = LedgerArchiveFile.write(directory.resolve("ledger.lca"), ledger(), CHUNK_ROWS);
+        LedgerArchiveFile.ChunkStats firstChunk = file.chunks().get(0);
+        assertEquals(10, firstChunk.maxAccountId());
+        overwrite(file.path(), firstChunk.offset(), new byte[firstChunk.length()]);
+
+        List<LedgerArchiveFile.Row> scanned = new ArrayList<>();
+        file.scan(30, null, null, scanned::add);
+        assertEquals(ROWS_PER_ACCOUNT, scanned.size());
+
+        assertThrows(IOException.class, () -> file.scan(10, null, START.plusHours(1), row -> { }));
+    }
+
+    @Test
+    void truncatedFileIsRejected() throws IOException {
+        Path path = directory.resolve("ledger.lca");
+        LedgerArchiveFile.write(path, ledger(), CHUNK_ROWS);
+        long size = Files.size(path);
+
+        for (long truncatedSize : new long[]{size - 1, size / 2, 20, 0}) {
+            Path copy = directory.resolve("truncated-" + truncatedSize + ".lca");
+            Files.copy(path, copy);
+            try (RandomAccessFile file = new RandomAccessFile(copy.toFile(), "rw")) {
+                file.setLength(truncatedSize);
+            }
+            assertThrows(IOException.class, () -> LedgerArchiveFile.open(copy), "size " + truncatedSize);
+        }
+    }
+
+    @Test
+    void corruptHeaderOrFooterIsRejected() throws IOException {
+        Path path = directory.resolve("ledger.lca");
+        LedgerArchiveFile file = LedgerArchiveFile.write(path, ledger(), CHUNK_ROWS);
+        long size = Files.size(path);
+        long footerOffset = file.chunks().get(file.chunks().size() - 1).offset()
+                + file.chunks().get(file.chunks().size() - 1).length();
+
+        // magic, versiya, trailer magic, footer offset, chunk sayi, ikinci chunk-in offset-i
+        long[] positions = {0, 4, size - 4, size - 12, footerOffset, footerOffset + 4 + 48};
+        for (long position : positions) {
+            Path copy = directory.resolve("corrupt-" + position + ".lca");
+            Files.copy(path, copy);
+            overwrite(copy, position, new byte[]{0x7F, 0x7F, 0x7F, 0x7F});
+            assertThrows(IOException.class, () -> LedgerArchiveFile.open(copy), "position " + position);
+        }
+    }
+
+    @Test
+    void corruptChunkIsRejectedOnRead() throws IOException {
+        Path path = directory.resolve("ledger.lca");
+        LedgerArchiveFile file = LedgerArchiveFile.write(path, ledger(), CHUNK_ROWS);
+        LedgerArchiveFile.ChunkStats chunk = file.chunks().get(3);
+
+        for (long position : new long[]{chunk.offset() + chunk.length() / 2, chunk.offset() + chunk.length() - 1}) {
+            Path copy = directory.resolve("corrupt-chunk-" + position + ".lca");
+            Files.copy(path, copy);
+            byte[] original = Files.readAllBytes(copy);
+            overwrite(copy, position, new byte[]{(byte) (original[(int) position] ^ 0x5A)});
+
+            LedgerArchiveFile opened = LedgerArchiveFile.open(copy);
+            List<LedgerArchiveFile.Row> read = new ArrayList<>();
+            assertThrows(IOException.class, () -> opened.forEach(read::add), "position " + position);
+            assertEquals(3 * CHUNK_ROWS, read.size(), "rows of the corrupt chunk must not be returned");
+        }
+    }
+
+    // (accountId, postedAt, postingId) sirasi ile; bos, menfi ve mikrosaniyeli deyerler de daxildir
+    private static List<LedgerArchiveFile.Row> ledger() {
+        List<LedgerArchiveFile.Row> rows = new ArrayList<>();
+        long postingId = 1;
+        for (long accountId : ACCOUNTS) {
+            BigDecimal balance = BigDecimal.ZERO.setScale(2);
+            for (int i = 0; i < ROWS_PER_ACCOUNT; i++) {
+                BigDecimal amount = BigDecimal.valueOf(i % 7 == 0 ? -(i * 13L) : i * 101L + 5, 2);
+                balance = balance.add(amount);
+                boolean transfer = i % 3 == 0;
+                rows.add(new LedgerArchiveFile.Row(postingId++, accountId,
+                        START.plusHours(i).plusNanos(i * 1_000L), amount, i % 11 == 0 ? null : balance,
+                        1_000 + i, amount.abs(), i % 5 == 0 ? amount.abs().add(BigDecimal.ONE) : null,
+                        i % 5 == 0 ? 7L : null, i % 4 == 0 ? null : "payment " + i % 9,
+                        transfer ? accountId : null, transfer ? accountId + 1 : accountId,
+                        i % 10 == 0 ? 500L + i : null, null, transfer ? "TRANSFER" : "DEPOSIT"));
+            }
+        }
+        return rows;
+    }
+
+    private static void overwrite(Path path, long position, byte[] bytes) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(position);
+            file.write(bytes);
+        }
+    }
+}
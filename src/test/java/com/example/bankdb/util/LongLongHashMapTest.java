@@ -0,0 +1,110 @@
+package com.example.bankdb.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongLongHashMapTest {
+
+    @Test
+    void getReturnsDefaultForMissingKey() {
+        LongLongHashMap map = new LongLongHashMap();
+        map.addTo(7, 100);
+
+        assertEquals(100, map.get(7, -1));
+        assertEquals(-1, map.get(8, -1));
+        assertEquals(0, map.get(8, 0));
+        assertFalse(map.containsKey(8));
+    }
+
+    @Test
+    void addToAccumulatesPerKey() {
+        LongLongHashMap map = new LongLongHashMap();
+        map.addTo(1, 500);
+        map.addTo(1, -200);
+        map.addTo(2, -50);
+
+        assertEquals(300, map.get(1, 0));
+        assertEquals(-50, map.get(2, 0));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void zeroKeyIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new LongLongHashMap().addTo(0, 1));
+    }
+
+    @Test
+    void resizeKeepsAllEntries() {
+        LongLongHashMap map = new LongLongHashMap(16);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(50_000) + 1L;
+            long delta = random.nextInt(2001) - 1000;
+            map.addTo(key, delta);
+            expected.merge(key, delta, Long::sum);
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value.longValue(), map.get(key, Long.MIN_VALUE), "key " + key));
+    }
+
+    @Test
+    void collidingKeysAreKeptApart() {
+        // Ardicil ve boyuk addimli acarlar eyni yuvalara dusub linear probing zencirini uzadir
+        LongLongHashMap map = new LongLongHashMap(16);
+        for (long i = 1; i <= 1000; i++) {
+            map.addTo(i << 32, i);
+            map.addTo(-i, -i);
+        }
+
+        assertEquals(2000, map.size());
+        for (long i = 1; i <= 1000; i++) {
+            assertEquals(i, map.get(i << 32, 0));
+            assertEquals(-i, map.get(-i, 0));
+        }
+    }
+
+    @Test
+    void addAllMergesOverlappingKeys() {
+        LongLongHashMap left = new LongLongHashMap();
+        LongLongHashMap right = new LongLongHashMap(16);
+        for (long key = 1; key <= 3000; key++) {
+            left.addTo(key, 10);
+        }
+        for (long key = 2001; key <= 5000; key++) {
+            right.addTo(key, 5);
+        }
+
+        left.addAll(right);
+
+        assertEquals(5000, left.size());
+        assertEquals(10, left.get(1, 0));
+        assertEquals(15, left.get(2500, 0));
+        assertEquals(5, left.get(5000, 0));
+        assertEquals(3000, right.size());
+    }
+
+    @Test
+    void forEachVisitsEveryEntryOnce() {
+        LongLongHashMap map = new LongLongHashMap();
+        for (long key = 1; key <= 2000; key++) {
+            map.addTo(key, key * 2);
+        }
+
+        long[] visited = new long[2];
+        map.forEach((key, value) -> {
+            assertEquals(key * 2, value);
+            visited[0]++;
+            visited[1] += key;
+        });
+
+        assertEquals(2000, visited[0]);
+        assertEquals(2000L * 2001 / 2, visited[1]);
+    }
+}